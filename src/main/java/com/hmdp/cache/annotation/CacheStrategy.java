@@ -0,0 +1,11 @@
+package com.hmdp.cache.annotation;
+
+/**
+ * 缓存策略（对应CacheClient的各查询方法）
+ */
+public enum CacheStrategy {
+    PASS_THROUGH,   // 缓存空值防穿透
+    MUTEX,          // 互斥锁重建防击穿
+    LOGICAL_EXPIRE, // 逻辑过期，异步重建（适合预热过的热点数据）
+    EARLY_REFRESH   // 概率提前刷新（仅单个查询）
+}
@@ -0,0 +1,56 @@
+package com.hmdp.cache.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 声明式缓存：方法体作为数据库查询回调，由切面按指定策略交给CacheClient执行
+ * 单个查询：方法形如 D query(ID id, ...)，缓存Key为 prefix + id
+ * 批量查询（batch = true）：方法形如 Map<ID, D> query(List<ID> ids, ...)，方法体只会收到未命中缓存的ID
+ * 异步查询：返回值为 CompletableFuture<D>（批量为 CompletableFuture<Map<ID, D>>）时交给AsyncCacheClient，不支持概率提前刷新
+ * <pre>
+ * &#64;HmdpCached(strategy = CacheStrategy.MUTEX, prefix = CACHE_SHOP_KEY, ttl = 30, timeUnit = TimeUnit.MINUTES)
+ * public Shop queryShopById(Long id) { return getById(id); }
+ * </pre>
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface HmdpCached {
+
+    /**
+     * 缓存策略
+     */
+    CacheStrategy strategy() default CacheStrategy.MUTEX;
+
+    /**
+     * 缓存Key前缀
+     */
+    String prefix();
+
+    /**
+     * 过期时间（逻辑过期策略为逻辑过期时间）
+     */
+    long ttl();
+
+    TimeUnit timeUnit() default TimeUnit.MINUTES;
+
+    /**
+     * 是否为批量查询（参数为ID列表，返回值为 ID -> 数据 的Map）
+     */
+    boolean batch() default false;
+
+    /**
+     * ID（或ID列表）所在的参数下标
+     */
+    int keyArg() default 0;
+
+    /**
+     * 互斥锁策略获取锁失败的重试次数
+     */
+    int retry() default 5;
+}
@@ -0,0 +1,30 @@
+package com.hmdp.cache.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 声明式缓存失效：方法正常返回后失效 prefix + key 对应的缓存（启用版本号的Key会递增版本，事务中于提交后执行）
+ * <pre>
+ * &#64;HmdpEvict(prefix = CACHE_SHOP_KEY, key = "#shop.id")
+ * public void update(Shop shop) { ... }
+ * </pre>
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface HmdpEvict {
+
+    /**
+     * 缓存Key前缀
+     */
+    String prefix();
+
+    /**
+     * 缓存Key中ID部分的SpEL表达式（可用参数名、#p0/#a0），为空时取第一个参数
+     */
+    String key() default "";
+}
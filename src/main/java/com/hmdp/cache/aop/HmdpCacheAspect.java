@@ -0,0 +1,327 @@
+package com.hmdp.cache.aop;
+
+import cn.hutool.core.util.StrUtil;
+import com.hmdp.cache.annotation.CacheStrategy;
+import com.hmdp.cache.annotation.HmdpCached;
+import com.hmdp.cache.annotation.HmdpEvict;
+import com.hmdp.utils.AsyncCacheClient;
+import com.hmdp.utils.CacheClient;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.expression.MethodBasedEvaluationContext;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.core.ResolvableType;
+import org.springframework.expression.Expression;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelParserConfiguration;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * &#64;HmdpCached / &#64;HmdpEvict 切面
+ * 每个方法首次调用时解析注解、返回值类型和SpEL表达式并缓存，之后的调用不再反射解析；
+ * 方法体（proceed）作为数据库查询回调交给CacheClient，批量方法自动走批量查询；
+ * 返回CompletableFuture的方法交给AsyncCacheClient，方法体在其加载线程池中执行
+ */
+@Aspect
+@Component
+@Slf4j
+public class HmdpCacheAspect {
+
+    private static final SpelExpressionParser PARSER = new SpelExpressionParser(
+            new SpelParserConfiguration(SpelCompilerMode.MIXED, HmdpCacheAspect.class.getClassLoader()));
+    private static final ParameterNameDiscoverer PARAMETER_NAME_DISCOVERER = new DefaultParameterNameDiscoverer();
+
+    @Autowired
+    private CacheClient cacheClient;
+    @Autowired
+    private AsyncCacheClient asyncCacheClient;
+
+    // 方法 -> 预解析的缓存元数据
+    private final ConcurrentMap<Method, CachedMetadata> cachedMetadata = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Method, EvictMetadata> evictMetadata = new ConcurrentHashMap<>();
+
+    @SuppressWarnings("unchecked")
+    @Around("@annotation(hmdpCached)")
+    public Object aroundCached(ProceedingJoinPoint joinPoint, HmdpCached hmdpCached) throws Throwable {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        CachedMetadata metadata = cachedMetadata.computeIfAbsent(method, m -> new CachedMetadata(m, hmdpCached));
+        Object[] args = joinPoint.getArgs();
+        Object key = args[metadata.keyArg];
+        if (key == null) {
+            return joinPoint.proceed();
+        }
+        if (metadata.async) {
+            CompletableFuture<Object> future = metadata.batch
+                    ? queryBatchAsync(joinPoint, metadata, args, (List<Object>) key)
+                    : querySingleAsync(joinPoint, metadata, args, key);
+            return unwrapFailure(future);
+        }
+        try {
+            return metadata.batch
+                    ? queryBatch(joinPoint, metadata, args, (List<Object>) key)
+                    : querySingle(joinPoint, metadata, args, key);
+        } catch (DbFallbackException e) {
+            // 还原方法体抛出的原始异常
+            throw e.getCause();
+        }
+    }
+
+    @Around("@annotation(hmdpEvict)")
+    public Object aroundEvict(ProceedingJoinPoint joinPoint, HmdpEvict hmdpEvict) throws Throwable {
+        Object result = joinPoint.proceed();
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        EvictMetadata metadata = evictMetadata.computeIfAbsent(method, m -> new EvictMetadata(hmdpEvict));
+        Object key = metadata.resolveKey(joinPoint.getTarget(), method, joinPoint.getArgs());
+        if (key == null) {
+            log.warn("缓存失效Key为空，跳过，方法：{}", method);
+            return result;
+        }
+        cacheClient.invalidate(metadata.prefix + key);
+        return result;
+    }
+
+    private Object querySingle(ProceedingJoinPoint joinPoint, CachedMetadata metadata, Object[] args, Object id) {
+        Function<Object, Object> dbFallback = d -> proceedWith(joinPoint, args, metadata.keyArg, d);
+        Long time = metadata.ttl;
+        switch (metadata.strategy) {
+            case PASS_THROUGH:
+                return cacheClient.queryWithPassThrough(metadata.prefix, id, metadata.valueType, dbFallback,
+                        time, metadata.timeUnit);
+            case LOGICAL_EXPIRE:
+                return cacheClient.queryWithLogicalExpire(metadata.prefix, id, metadata.valueType, dbFallback,
+                        time, metadata.timeUnit);
+            case EARLY_REFRESH:
+                return cacheClient.queryWithEarlyRefresh(metadata.prefix, id, metadata.valueType, dbFallback,
+                        time, metadata.timeUnit);
+            case MUTEX:
+            default:
+                return cacheClient.queryWithMutex(metadata.prefix, id, metadata.valueType, dbFallback,
+                        time, metadata.timeUnit, metadata.retry);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Object queryBatch(ProceedingJoinPoint joinPoint, CachedMetadata metadata, Object[] args, List<Object> ids) {
+        if (ids.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        String prefix = metadata.prefix;
+        Function<Object, String> keyGenerator = id -> prefix + id;
+        Function<List<Object>, Map<Object, Object>> batchDbFallback =
+                missIds -> (Map<Object, Object>) proceedWith(joinPoint, args, metadata.keyArg, missIds);
+        Long time = metadata.ttl;
+        switch (metadata.strategy) {
+            case PASS_THROUGH:
+                return cacheClient.batchQueryWithPassThrough(keyGenerator, ids, metadata.valueType, batchDbFallback,
+                        time, metadata.timeUnit);
+            case LOGICAL_EXPIRE:
+                return cacheClient.batchQueryWithLogicalExpire(keyGenerator, ids, metadata.valueType, batchDbFallback,
+                        time, metadata.timeUnit);
+            case MUTEX:
+            default:
+                return cacheClient.batchQueryWithMutex(keyGenerator, ids, metadata.valueType, batchDbFallback,
+                        time, metadata.timeUnit, metadata.retry);
+        }
+    }
+
+    private CompletableFuture<Object> querySingleAsync(ProceedingJoinPoint joinPoint, CachedMetadata metadata,
+                                                       Object[] args, Object id) {
+        Function<Object, Object> dbFallback = d -> join(proceedWith(joinPoint, args, metadata.keyArg, d));
+        Function<Object, String> keyGenerator = d -> metadata.prefix + d;
+        Long time = metadata.ttl;
+        switch (metadata.strategy) {
+            case PASS_THROUGH:
+                return asyncCacheClient.queryWithPassThrough(keyGenerator, id, metadata.valueType, dbFallback,
+                        time, metadata.timeUnit);
+            case LOGICAL_EXPIRE:
+                return asyncCacheClient.queryWithLogicalExpire(keyGenerator, id, metadata.valueType, dbFallback,
+                        time, metadata.timeUnit);
+            case MUTEX:
+            default:
+                return asyncCacheClient.queryWithMutex(keyGenerator, id, metadata.valueType, dbFallback,
+                        time, metadata.timeUnit, metadata.retry);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private CompletableFuture<Object> queryBatchAsync(ProceedingJoinPoint joinPoint, CachedMetadata metadata,
+                                                      Object[] args, List<Object> ids) {
+        if (ids.isEmpty()) {
+            return CompletableFuture.completedFuture(Collections.emptyMap());
+        }
+        String prefix = metadata.prefix;
+        Function<Object, String> keyGenerator = id -> prefix + id;
+        Function<List<Object>, Map<Object, Object>> batchDbFallback =
+                missIds -> (Map<Object, Object>) join(proceedWith(joinPoint, args, metadata.keyArg, missIds));
+        Long time = metadata.ttl;
+        CompletableFuture<Map<Object, Object>> future;
+        switch (metadata.strategy) {
+            case PASS_THROUGH:
+                future = asyncCacheClient.batchQueryWithPassThrough(keyGenerator, ids, metadata.valueType,
+                        batchDbFallback, time, metadata.timeUnit);
+                break;
+            case LOGICAL_EXPIRE:
+                future = asyncCacheClient.batchQueryWithLogicalExpire(keyGenerator, ids, metadata.valueType,
+                        batchDbFallback, time, metadata.timeUnit);
+                break;
+            case MUTEX:
+            default:
+                future = asyncCacheClient.batchQueryWithMutex(keyGenerator, ids, metadata.valueType,
+                        batchDbFallback, time, metadata.timeUnit, metadata.retry);
+        }
+        return future.thenApply(map -> map);
+    }
+
+    /**
+     * 异步方法体返回的Future在加载线程中等待完成（方法体通常是同步查库，返回已完成的Future）
+     */
+    private static Object join(Object future) {
+        if (future == null) {
+            return null;
+        }
+        try {
+            return ((CompletableFuture<?>) future).join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new DbFallbackException(cause);
+        }
+    }
+
+    /**
+     * 异步结果以方法体抛出的原始异常完成，而不是CompletionException或切面内部的包装异常
+     */
+    private static CompletableFuture<Object> unwrapFailure(CompletableFuture<Object> future) {
+        CompletableFuture<Object> result = new CompletableFuture<>();
+        future.whenComplete((data, e) -> {
+            if (e == null) {
+                result.complete(data);
+                return;
+            }
+            Throwable cause = e;
+            while ((cause instanceof CompletionException || cause instanceof DbFallbackException)
+                    && cause.getCause() != null) {
+                cause = cause.getCause();
+            }
+            result.completeExceptionally(cause);
+        });
+        return result;
+    }
+
+    /**
+     * 以替换后的ID（或未命中的ID列表）执行方法体
+     */
+    private static Object proceedWith(ProceedingJoinPoint joinPoint, Object[] args, int keyArg, Object key) {
+        Object[] newArgs = args.clone();
+        newArgs[keyArg] = key;
+        try {
+            return joinPoint.proceed(newArgs);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new DbFallbackException(e);
+        }
+    }
+
+    /**
+     * 包装方法体抛出的受检异常，穿过CacheClient后在切面中还原
+     */
+    private static class DbFallbackException extends RuntimeException {
+        private DbFallbackException(Throwable cause) {
+            super(cause);
+        }
+    }
+
+    private static class CachedMetadata {
+        private final CacheStrategy strategy;
+        private final String prefix;
+        private final long ttl;
+        private final TimeUnit timeUnit;
+        private final boolean batch;
+        // 返回值为CompletableFuture：交给AsyncCacheClient
+        private final boolean async;
+        private final int keyArg;
+        private final int retry;
+        // 缓存的业务数据类型：单个查询为返回值类型，批量查询为返回Map的值类型
+        private final Class<Object> valueType;
+
+        @SuppressWarnings("unchecked")
+        private CachedMetadata(Method method, HmdpCached annotation) {
+            this.strategy = annotation.strategy();
+            this.prefix = annotation.prefix();
+            this.ttl = annotation.ttl();
+            this.timeUnit = annotation.timeUnit();
+            this.batch = annotation.batch();
+            this.keyArg = annotation.keyArg();
+            this.retry = annotation.retry();
+            if (keyArg < 0 || keyArg >= method.getParameterCount()) {
+                throw new IllegalStateException("@HmdpCached的keyArg超出参数范围，方法：" + method);
+            }
+            ResolvableType returnType = ResolvableType.forMethodReturnType(method);
+            this.async = CompletableFuture.class.isAssignableFrom(returnType.toClass());
+            if (async) {
+                if (strategy == CacheStrategy.EARLY_REFRESH) {
+                    throw new IllegalStateException("概率提前刷新不支持异步查询，方法：" + method);
+                }
+                // 按Future的结果类型解析
+                returnType = returnType.as(CompletableFuture.class).getGeneric(0);
+            }
+            Class<?> resolved;
+            if (batch) {
+                if (!Map.class.isAssignableFrom(returnType.toClass())
+                        || !List.class.isAssignableFrom(method.getParameterTypes()[keyArg])) {
+                    throw new IllegalStateException("@HmdpCached批量方法的参数须为List、返回值须为Map，方法：" + method);
+                }
+                if (strategy == CacheStrategy.EARLY_REFRESH) {
+                    throw new IllegalStateException("概率提前刷新不支持批量查询，方法：" + method);
+                }
+                resolved = returnType.asMap().getGeneric(1).resolve();
+            } else {
+                resolved = returnType.resolve();
+            }
+            if (resolved == null || resolved == Object.class) {
+                throw new IllegalStateException("无法解析@HmdpCached的业务数据类型，方法：" + method);
+            }
+            this.valueType = (Class<Object>) resolved;
+        }
+    }
+
+    private static class EvictMetadata {
+        private final String prefix;
+        // 为null时取第一个参数
+        private final Expression keyExpression;
+
+        private EvictMetadata(HmdpEvict annotation) {
+            this.prefix = annotation.prefix();
+            this.keyExpression = StrUtil.isBlank(annotation.key()) ? null : PARSER.parseExpression(annotation.key());
+        }
+
+        private Object resolveKey(Object target, Method method, Object[] args) {
+            if (keyExpression == null) {
+                return args.length == 0 ? null : args[0];
+            }
+            MethodBasedEvaluationContext context =
+                    new MethodBasedEvaluationContext(target, method, args, PARAMETER_NAME_DISCOVERER);
+            return keyExpression.getValue(context);
+        }
+    }
+}
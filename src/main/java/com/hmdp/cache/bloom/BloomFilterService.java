@@ -0,0 +1,198 @@
+package com.hmdp.cache.bloom;
+
+import com.hmdp.cache.config.CacheClientProperties;
+import com.hmdp.utils.RedisClusterSupport;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * 布隆过滤器服务：按业务注册过滤器（可绑定缓存Key前缀），供CacheClient在读缓存前拦截一定不存在的ID
+ * 只对"前缀 + 数字ID"形式的Key生效（如 cache:shop:1），cache:shop:type 这类Key不受影响；
+ * 过滤器完成初始加载前一律放行，避免启动期间误拦截
+ */
+@Slf4j
+public class BloomFilterService {
+
+    /**
+     * 判定一定不存在时guardedGet的返回值，与缓存空值标记语义一致
+     */
+    public static final String NOT_EXISTS = "";
+
+    @SuppressWarnings("rawtypes")
+    private static final DefaultRedisScript<List> GET_SCRIPT;
+
+    static {
+        GET_SCRIPT = new DefaultRedisScript<>();
+        GET_SCRIPT.setLocation(new ClassPathResource("lua/bloom_get.lua"));
+        GET_SCRIPT.setResultType(List.class);
+    }
+
+    private final CacheClientProperties.Bloom bloomConfig;
+    private final StringRedisTemplate stringRedisTemplate;
+    // 过滤器名称（位图Key） -> 过滤器
+    private final Map<String, RedisBloomFilter> filters = new ConcurrentHashMap<>();
+    // 缓存Key前缀 -> 过滤器
+    private final Map<String, RedisBloomFilter> prefixFilters = new ConcurrentHashMap<>();
+
+    public BloomFilterService(CacheClientProperties.Bloom bloomConfig, StringRedisTemplate stringRedisTemplate) {
+        this.bloomConfig = bloomConfig;
+        this.stringRedisTemplate = stringRedisTemplate;
+    }
+
+    /**
+     * 注册过滤器
+     * @param name 过滤器名称（即Redis位图Key）
+     * @param cachePrefix 绑定的缓存Key前缀（为null时只供业务代码直接判定）
+     */
+    public RedisBloomFilter register(String name, String cachePrefix) {
+        RedisBloomFilter filter = filters.computeIfAbsent(name, n -> new RedisBloomFilter(
+                n, bloomConfig.getExpectedInsertions(), bloomConfig.getFpp(), stringRedisTemplate));
+        if (cachePrefix != null) {
+            prefixFilters.put(cachePrefix, filter);
+        }
+        log.info("注册布隆过滤器：{}，位数：{}，哈希函数个数：{}", name, filter.getBitSize(), filter.getHashCount());
+        return filter;
+    }
+
+    /**
+     * 初始加载完成，开始拦截
+     */
+    public void markReady(String name) {
+        RedisBloomFilter filter = filters.get(name);
+        if (filter != null) {
+            filter.markReady();
+        }
+    }
+
+    /**
+     * 写入新ID（新增数据后调用，未注册或未启用时忽略）
+     */
+    public void add(String name, Object id) {
+        RedisBloomFilter filter = getFilter(name);
+        if (filter != null && id != null) {
+            filter.add(id.toString());
+        }
+    }
+
+    /**
+     * 批量写入ID
+     */
+    public void addAll(String name, Collection<?> ids) {
+        RedisBloomFilter filter = getFilter(name);
+        if (filter != null && !ids.isEmpty()) {
+            filter.addAll(ids.stream().map(Object::toString).collect(Collectors.toList()));
+        }
+    }
+
+    /**
+     * 判断ID是否可能存在（false表示一定不存在）
+     */
+    public boolean mightContain(String name, Object id) {
+        RedisBloomFilter filter = getFilter(name);
+        return filter == null || id == null || filter.mightContain(id.toString());
+    }
+
+    /**
+     * 受布隆过滤器保护的GET：一次Lua往返同时完成存在性判定和读取缓存
+     * Redis Cluster下位图Key与缓存Key不在同一槽位，改为先判定存在性、再单独GET（两次往返）
+     * @return 缓存值；未命中返回null；判定一定不存在返回 {@link #NOT_EXISTS}
+     */
+    public String guardedGet(String cacheKey) {
+        Map.Entry<String, RedisBloomFilter> match = matchFilter(cacheKey);
+        if (match == null) {
+            return stringRedisTemplate.opsForValue().get(cacheKey);
+        }
+        RedisBloomFilter filter = match.getValue();
+        String id = idOf(cacheKey, match.getKey());
+        if (RedisClusterSupport.isCluster(stringRedisTemplate)) {
+            return filter.mightContain(id) ? stringRedisTemplate.opsForValue().get(cacheKey) : NOT_EXISTS;
+        }
+        List<String> offsets = filter.offsets(id);
+        List<?> result = stringRedisTemplate.execute(
+                GET_SCRIPT, Arrays.asList(filter.getKey(), cacheKey), offsets.toArray());
+        if (result == null || result.isEmpty() || Long.valueOf(0L).equals(result.get(0))) {
+            return NOT_EXISTS;
+        }
+        return result.size() > 1 ? (String) result.get(1) : null;
+    }
+
+    /**
+     * 批量判断缓存Key对应的ID是否可能存在（按过滤器分组，每组一次Lua往返），结果与入参一一对应
+     */
+    public List<Boolean> mightContainKeys(List<String> cacheKeys) {
+        List<Boolean> result = new ArrayList<>(cacheKeys.size());
+        Map<RedisBloomFilter, List<Integer>> indexGroups = new HashMap<>();
+        Map<RedisBloomFilter, List<String>> idGroups = new HashMap<>();
+        for (int i = 0; i < cacheKeys.size(); i++) {
+            result.add(true);
+            String cacheKey = cacheKeys.get(i);
+            Map.Entry<String, RedisBloomFilter> match = matchFilter(cacheKey);
+            if (match != null) {
+                indexGroups.computeIfAbsent(match.getValue(), f -> new ArrayList<>()).add(i);
+                idGroups.computeIfAbsent(match.getValue(), f -> new ArrayList<>()).add(idOf(cacheKey, match.getKey()));
+            }
+        }
+        indexGroups.forEach((filter, indexes) -> {
+            List<Boolean> flags = filter.mightContainAll(idGroups.get(filter));
+            for (int i = 0; i < indexes.size(); i++) {
+                result.set(indexes.get(i), flags.get(i));
+            }
+        });
+        return result;
+    }
+
+    public boolean isEnabled() {
+        return bloomConfig.isEnabled();
+    }
+
+    private RedisBloomFilter getFilter(String name) {
+        return bloomConfig.isEnabled() ? filters.get(name) : null;
+    }
+
+    /**
+     * 匹配缓存Key对应的过滤器：前缀匹配且剩余部分为数字ID，且过滤器已完成初始加载
+     * @return 前缀 -> 过滤器；不受保护的Key返回null
+     */
+    private Map.Entry<String, RedisBloomFilter> matchFilter(String cacheKey) {
+        if (!bloomConfig.isEnabled() || prefixFilters.isEmpty()) {
+            return null;
+        }
+        for (Map.Entry<String, RedisBloomFilter> entry : prefixFilters.entrySet()) {
+            String prefix = entry.getKey();
+            if (cacheKey.startsWith(prefix) && entry.getValue().isReady()
+                    && isNumericId(cacheKey.substring(prefix.length()))) {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    // 统一为Long的字符串形式，与写入时一致
+    private String idOf(String cacheKey, String prefix) {
+        return String.valueOf(Long.parseLong(cacheKey.substring(prefix.length())));
+    }
+
+    private boolean isNumericId(String suffix) {
+        // 最多18位，保证可以安全转换为Long
+        if (suffix.isEmpty() || suffix.length() > 18) {
+            return false;
+        }
+        for (int i = 0; i < suffix.length(); i++) {
+            if (!Character.isDigit(suffix.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
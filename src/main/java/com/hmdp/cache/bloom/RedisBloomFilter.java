@@ -0,0 +1,150 @@
+package com.hmdp.cache.bloom;
+
+import cn.hutool.core.lang.hash.MurmurHash;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 基于Redis位图的布隆过滤器（SETBIT/GETBIT + Lua，不依赖RedisBloom模块）
+ * 位偏移在客户端计算：MurmurHash3 128位的高低64位做双重哈希 h1 + i * h2，得到k个位偏移
+ */
+public class RedisBloomFilter {
+
+    private static final DefaultRedisScript<Long> ADD_SCRIPT;
+    @SuppressWarnings("rawtypes")
+    private static final DefaultRedisScript<List> EXISTS_SCRIPT;
+
+    // 单次Lua调用写入的元素数上限（避免参数过多阻塞Redis）
+    private static final int ADD_BATCH_SIZE = 1000;
+
+    static {
+        ADD_SCRIPT = new DefaultRedisScript<>();
+        ADD_SCRIPT.setLocation(new ClassPathResource("lua/bloom_add.lua"));
+        ADD_SCRIPT.setResultType(Long.class);
+
+        EXISTS_SCRIPT = new DefaultRedisScript<>();
+        EXISTS_SCRIPT.setLocation(new ClassPathResource("lua/bloom_exists.lua"));
+        EXISTS_SCRIPT.setResultType(List.class);
+    }
+
+    private final String key;       // 位图Key
+    private final long bitSize;     // 位数组长度m
+    private final int hashCount;    // 哈希函数个数k
+    private final StringRedisTemplate stringRedisTemplate;
+    // 是否已完成初始加载（加载完成前判定结果不可信，一律视为可能存在）
+    private volatile boolean ready;
+
+    public RedisBloomFilter(String key, long expectedInsertions, double fpp, StringRedisTemplate stringRedisTemplate) {
+        if (expectedInsertions <= 0) {
+            throw new IllegalArgumentException("布隆过滤器预期元素数必须大于0");
+        }
+        if (fpp <= 0 || fpp >= 1) {
+            throw new IllegalArgumentException("布隆过滤器误判率必须在0到1之间");
+        }
+        this.key = key;
+        // m = -n * ln(p) / (ln2)^2，k = m / n * ln2
+        this.bitSize = (long) Math.ceil(-expectedInsertions * Math.log(fpp) / (Math.log(2) * Math.log(2)));
+        this.hashCount = Math.max(1, (int) Math.round((double) bitSize / expectedInsertions * Math.log(2)));
+        this.stringRedisTemplate = stringRedisTemplate;
+    }
+
+    /**
+     * 写入单个元素
+     */
+    public void add(String element) {
+        addAll(Collections.singletonList(element));
+    }
+
+    /**
+     * 批量写入元素（每批一次Lua调用）
+     */
+    public void addAll(Collection<String> elements) {
+        List<String> args = new ArrayList<>();
+        int count = 0;
+        for (String element : elements) {
+            appendOffsets(element, args);
+            if (++count % ADD_BATCH_SIZE == 0) {
+                stringRedisTemplate.execute(ADD_SCRIPT, Collections.singletonList(key), args.toArray());
+                args.clear();
+            }
+        }
+        if (!args.isEmpty()) {
+            stringRedisTemplate.execute(ADD_SCRIPT, Collections.singletonList(key), args.toArray());
+        }
+    }
+
+    /**
+     * 判断元素是否可能存在（false表示一定不存在）
+     */
+    public boolean mightContain(String element) {
+        return mightContainAll(Collections.singletonList(element)).get(0);
+    }
+
+    /**
+     * 批量判断元素是否可能存在（一次Lua调用），结果与入参一一对应
+     */
+    public List<Boolean> mightContainAll(List<String> elements) {
+        List<Boolean> result = new ArrayList<>(elements.size());
+        if (!ready) {
+            elements.forEach(e -> result.add(true));
+            return result;
+        }
+        if (elements.isEmpty()) {
+            return result;
+        }
+        List<String> args = new ArrayList<>(1 + elements.size() * hashCount);
+        args.add(String.valueOf(hashCount));
+        elements.forEach(e -> appendOffsets(e, args));
+        List<?> flags = stringRedisTemplate.execute(EXISTS_SCRIPT, Collections.singletonList(key), args.toArray());
+        for (int i = 0; i < elements.size(); i++) {
+            Object flag = flags == null ? null : flags.get(i);
+            result.add(!(flag instanceof Long) || (Long) flag != 0L);
+        }
+        return result;
+    }
+
+    /**
+     * 计算元素对应的k个位偏移
+     */
+    public List<String> offsets(String element) {
+        List<String> offsets = new ArrayList<>(hashCount);
+        appendOffsets(element, offsets);
+        return offsets;
+    }
+
+    private void appendOffsets(String element, List<String> target) {
+        long[] hash = MurmurHash.hash128(element);
+        long combined = hash[0];
+        for (int i = 0; i < hashCount; i++) {
+            // 取非负后对m取模
+            target.add(String.valueOf((combined & Long.MAX_VALUE) % bitSize));
+            combined += hash[1];
+        }
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public long getBitSize() {
+        return bitSize;
+    }
+
+    public int getHashCount() {
+        return hashCount;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void markReady() {
+        this.ready = true;
+    }
+}
@@ -0,0 +1,345 @@
+package com.hmdp.cache.codec;
+
+import com.hmdp.utils.RedisData;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 紧凑二进制编解码：不写字段名，按字段名排序后依次写入非空位图和字段值，整数使用变长编码
+ * 编码结果为 头字符(\u0001) + Base64(二进制)，保证可以经StringRedisTemplate原样读写
+ * 每个类的字段元数据（字段、类型、结构指纹）只解析一次后缓存；类结构变化后指纹不一致，
+ * 旧缓存解码失败，由CacheClient按损坏缓存删除后重建
+ */
+public class BinaryCacheCodec implements CacheCodec {
+
+    public static final String NAME = "binary";
+    public static final char HEADER = '\u0001';
+
+    // 允许二进制编码的业务类型（RedisData<这些类型>同样支持）
+    private final Set<Class<?>> types;
+    // 类 -> 字段元数据
+    private final ConcurrentMap<Class<?>, ClassMeta> metas = new ConcurrentHashMap<>();
+
+    public BinaryCacheCodec(Collection<Class<?>> types) {
+        this.types = new HashSet<>(types);
+        // 启动时解析元数据：含不支持的字段类型时尽早失败
+        this.types.forEach(this::meta);
+        meta(RedisData.class);
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public boolean supports(Object value) {
+        if (value instanceof RedisData) {
+            Object data = ((RedisData<?>) value).getData();
+            return data != null && types.contains(data.getClass());
+        }
+        return value != null && types.contains(value.getClass());
+    }
+
+    @Override
+    public boolean canDecode(String text) {
+        return !text.isEmpty() && text.charAt(0) == HEADER;
+    }
+
+    @Override
+    public String encode(Object value) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            writeBean(out, value);
+        } catch (IOException | IllegalAccessException e) {
+            throw new IllegalStateException("缓存值二进制编码失败：" + value.getClass().getName(), e);
+        }
+        return HEADER + Base64.getEncoder().encodeToString(bytes.toByteArray());
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T decode(String text, Type type) {
+        byte[] bytes = Base64.getDecoder().decode(text.substring(1));
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            return (T) readBean(in, type);
+        } catch (IOException | ReflectiveOperationException e) {
+            throw new IllegalStateException("缓存值二进制解码失败：" + type.getTypeName(), e);
+        }
+    }
+
+    private void writeBean(DataOutputStream out, Object bean) throws IOException, IllegalAccessException {
+        ClassMeta meta = meta(bean.getClass());
+        out.writeInt(meta.fingerprint);
+        // 非空位图
+        Object[] values = new Object[meta.fields.size()];
+        byte[] bitmap = new byte[(values.length + 7) / 8];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = meta.fields.get(i).field.get(bean);
+            if (values[i] != null) {
+                bitmap[i >> 3] |= (byte) (1 << (i & 7));
+            }
+        }
+        out.write(bitmap);
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != null) {
+                writeValue(out, meta.fields.get(i).kind, values[i]);
+            }
+        }
+    }
+
+    private Object readBean(DataInputStream in, Type type) throws IOException, ReflectiveOperationException {
+        Class<?> rawType = rawClass(type);
+        ClassMeta meta = meta(rawType);
+        if (in.readInt() != meta.fingerprint) {
+            throw new IllegalStateException("缓存数据结构与当前类不一致：" + rawType.getName());
+        }
+        byte[] bitmap = new byte[(meta.fields.size() + 7) / 8];
+        in.readFully(bitmap);
+        Object bean = meta.constructor.newInstance();
+        for (int i = 0; i < meta.fields.size(); i++) {
+            if ((bitmap[i >> 3] & (1 << (i & 7))) == 0) {
+                continue;
+            }
+            FieldMeta fieldMeta = meta.fields.get(i);
+            Object value = fieldMeta.kind == Kind.BEAN
+                    ? readBean(in, resolveFieldType(fieldMeta.field, type))
+                    : readValue(in, fieldMeta.kind);
+            fieldMeta.field.set(bean, value);
+        }
+        return bean;
+    }
+
+    private void writeValue(DataOutputStream out, Kind kind, Object value) throws IOException, IllegalAccessException {
+        switch (kind) {
+            case LONG:
+            case INTEGER:
+            case SHORT:
+            case BYTE:
+                writeVarLong(out, ((Number) value).longValue());
+                break;
+            case DOUBLE:
+                out.writeDouble((Double) value);
+                break;
+            case FLOAT:
+                out.writeFloat((Float) value);
+                break;
+            case BOOLEAN:
+                out.writeBoolean((Boolean) value);
+                break;
+            case CHAR:
+                out.writeChar((Character) value);
+                break;
+            case STRING:
+                writeString(out, (String) value);
+                break;
+            case BIG_DECIMAL:
+                writeString(out, value.toString());
+                break;
+            case LOCAL_DATE_TIME:
+                LocalDateTime dateTime = (LocalDateTime) value;
+                writeVarLong(out, dateTime.toEpochSecond(ZoneOffset.UTC));
+                writeVarLong(out, dateTime.getNano());
+                break;
+            case LOCAL_DATE:
+                writeVarLong(out, ((LocalDate) value).toEpochDay());
+                break;
+            default:
+                writeBean(out, value);
+        }
+    }
+
+    private Object readValue(DataInputStream in, Kind kind) throws IOException {
+        switch (kind) {
+            case LONG:
+                return readVarLong(in);
+            case INTEGER:
+                return (int) readVarLong(in);
+            case SHORT:
+                return (short) readVarLong(in);
+            case BYTE:
+                return (byte) readVarLong(in);
+            case DOUBLE:
+                return in.readDouble();
+            case FLOAT:
+                return in.readFloat();
+            case BOOLEAN:
+                return in.readBoolean();
+            case CHAR:
+                return in.readChar();
+            case STRING:
+                return readString(in);
+            case BIG_DECIMAL:
+                return new BigDecimal(readString(in));
+            case LOCAL_DATE_TIME:
+                long epochSecond = readVarLong(in);
+                return LocalDateTime.ofEpochSecond(epochSecond, (int) readVarLong(in), ZoneOffset.UTC);
+            case LOCAL_DATE:
+                return LocalDate.ofEpochDay(readVarLong(in));
+            default:
+                throw new IllegalStateException("不支持的字段类型：" + kind);
+        }
+    }
+
+    /**
+     * 解析字段的实际类型（RedisData<Shop>的data字段 -> Shop）
+     */
+    private Type resolveFieldType(Field field, Type ownerType) {
+        Type genericType = field.getGenericType();
+        if (genericType instanceof TypeVariable && ownerType instanceof ParameterizedType) {
+            TypeVariable<?>[] variables = rawClass(ownerType).getTypeParameters();
+            Type[] actualTypes = ((ParameterizedType) ownerType).getActualTypeArguments();
+            for (int i = 0; i < variables.length; i++) {
+                if (variables[i].getName().equals(((TypeVariable<?>) genericType).getName())) {
+                    return actualTypes[i];
+                }
+            }
+        }
+        if (genericType instanceof TypeVariable) {
+            throw new IllegalArgumentException("无法解析泛型字段的实际类型：" + field);
+        }
+        return genericType;
+    }
+
+    private Class<?> rawClass(Type type) {
+        if (type instanceof Class) {
+            return (Class<?>) type;
+        }
+        if (type instanceof ParameterizedType) {
+            return (Class<?>) ((ParameterizedType) type).getRawType();
+        }
+        throw new IllegalArgumentException("不支持的缓存值类型：" + type.getTypeName());
+    }
+
+    private ClassMeta meta(Class<?> type) {
+        return metas.computeIfAbsent(type, ClassMeta::new);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(out, bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[(int) readVarLong(in)];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // ZigZag + 变长编码：小整数（ID、计数、评分等）只占1~3字节
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        long v = (value << 1) ^ (value >> 63);
+        while ((v & ~0x7FL) != 0) {
+            out.writeByte((int) ((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        out.writeByte((int) v);
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long v = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = in.readByte();
+            v |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return (v >>> 1) ^ -(v & 1);
+    }
+
+    private enum Kind {
+        LONG, INTEGER, SHORT, BYTE, DOUBLE, FLOAT, BOOLEAN, CHAR, STRING, BIG_DECIMAL, LOCAL_DATE_TIME, LOCAL_DATE, BEAN
+    }
+
+    private static Kind kindOf(Field field) {
+        Class<?> type = field.getType();
+        if (type == Long.class || type == long.class) return Kind.LONG;
+        if (type == Integer.class || type == int.class) return Kind.INTEGER;
+        if (type == Short.class || type == short.class) return Kind.SHORT;
+        if (type == Byte.class || type == byte.class) return Kind.BYTE;
+        if (type == Double.class || type == double.class) return Kind.DOUBLE;
+        if (type == Float.class || type == float.class) return Kind.FLOAT;
+        if (type == Boolean.class || type == boolean.class) return Kind.BOOLEAN;
+        if (type == Character.class || type == char.class) return Kind.CHAR;
+        if (type == String.class) return Kind.STRING;
+        if (type == BigDecimal.class) return Kind.BIG_DECIMAL;
+        if (type == LocalDateTime.class) return Kind.LOCAL_DATE_TIME;
+        if (type == LocalDate.class) return Kind.LOCAL_DATE;
+        if (type.isArray() || type.isInterface() || type.isEnum() || type.isPrimitive()
+                || (type.getName().startsWith("java.") && type != Object.class)) {
+            throw new IllegalArgumentException("二进制编码不支持的字段类型：" + field);
+        }
+        // 嵌套对象或泛型字段
+        return Kind.BEAN;
+    }
+
+    private static class FieldMeta {
+        private final Field field;
+        private final Kind kind;
+
+        private FieldMeta(Field field) {
+            field.setAccessible(true);
+            this.field = field;
+            this.kind = kindOf(field);
+        }
+    }
+
+    private static class ClassMeta {
+        private final Constructor<?> constructor;
+        private final List<FieldMeta> fields = new ArrayList<>();
+        // 结构指纹：字段名和类型的哈希，类结构变化后旧数据解码失败
+        private final int fingerprint;
+
+        private ClassMeta(Class<?> type) {
+            try {
+                this.constructor = type.getDeclaredConstructor();
+                this.constructor.setAccessible(true);
+            } catch (NoSuchMethodException e) {
+                throw new IllegalArgumentException("二进制编码的类型需要无参构造器：" + type.getName(), e);
+            }
+            List<Field> allFields = new ArrayList<>();
+            for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+                for (Field field : c.getDeclaredFields()) {
+                    int modifiers = field.getModifiers();
+                    if (!Modifier.isStatic(modifiers) && !Modifier.isTransient(modifiers) && !field.isSynthetic()) {
+                        allFields.add(field);
+                    }
+                }
+            }
+            // 按字段名排序，保证不同JVM下顺序一致
+            allFields.sort(Comparator.comparing(Field::getName));
+            StringBuilder signature = new StringBuilder(type.getName());
+            for (Field field : allFields) {
+                fields.add(new FieldMeta(field));
+                signature.append(';').append(field.getName()).append(':').append(field.getGenericType().getTypeName());
+            }
+            this.fingerprint = signature.toString().hashCode();
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.hmdp.cache.codec;
+
+import java.lang.reflect.Type;
+
+/**
+ * 缓存值编解码SPI：CacheClient写入/读取Redis时通过它完成对象与字符串的转换
+ * 读取时按 {@link #canDecode(String)} 自动识别编码格式，切换编码后新旧格式的缓存可以共存
+ */
+public interface CacheCodec {
+
+    /**
+     * 编解码器名称（配置项 cache.client.codec.type 按此选择写入格式）
+     */
+    String name();
+
+    /**
+     * 是否支持编码该值（不支持时由JSON编码兜底）
+     */
+    boolean supports(Object value);
+
+    /**
+     * 是否能解码该字符串（一般按头字符识别）
+     */
+    boolean canDecode(String text);
+
+    String encode(Object value);
+
+    /**
+     * 解码
+     * @param type 目标类型（普通类或RedisData<具体类型>这样的参数化类型）
+     */
+    <T> T decode(String text, Type type);
+}
@@ -0,0 +1,64 @@
+package com.hmdp.cache.codec;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 编解码器注册表：写入使用配置的编码（不支持的值由JSON兜底），超过阈值的结果再压缩；
+ * 读取时先按头字符识别并解压，再按头字符识别编码格式
+ */
+public class CacheCodecRegistry {
+
+    private final CacheCodec writeCodec;
+    private final CacheCodec jsonCodec;
+    // 带头字符的编解码器（读取时优先识别），JSON放在最后兜底
+    private final List<CacheCodec> headerCodecs = new ArrayList<>();
+    private final CacheCompressor compressor;
+
+    public CacheCodecRegistry(List<CacheCodec> codecs, String writeCodecName, CacheCompressor compressor) {
+        CacheCodec json = null;
+        CacheCodec write = null;
+        for (CacheCodec codec : codecs) {
+            if (JsonCacheCodec.NAME.equals(codec.name())) {
+                json = codec;
+            } else {
+                headerCodecs.add(codec);
+            }
+            if (codec.name().equals(writeCodecName)) {
+                write = codec;
+            }
+        }
+        if (write == null) {
+            throw new IllegalArgumentException("未知的缓存编码：" + writeCodecName);
+        }
+        this.jsonCodec = json != null ? json : new JsonCacheCodec();
+        this.writeCodec = write;
+        this.compressor = compressor;
+    }
+
+    /**
+     * 编码
+     * @param key 缓存Key（按前缀决定压缩阈值）
+     */
+    public String encode(String key, Object value) {
+        CacheCodec codec = writeCodec.supports(value) ? writeCodec : jsonCodec;
+        return compressor.compress(key, codec.encode(value));
+    }
+
+    public <T> T decode(String text, Type type) {
+        if (compressor.isCompressed(text)) {
+            text = compressor.decompress(text);
+        }
+        for (CacheCodec codec : headerCodecs) {
+            if (codec.canDecode(text)) {
+                return codec.decode(text, type);
+            }
+        }
+        return jsonCodec.decode(text, type);
+    }
+
+    public String getWriteCodecName() {
+        return writeCodec.name();
+    }
+}
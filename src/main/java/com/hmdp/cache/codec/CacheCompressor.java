@@ -0,0 +1,130 @@
+package com.hmdp.cache.codec;
+
+import com.hmdp.cache.config.CacheClientProperties;
+import com.hmdp.cache.metrics.CacheMetrics;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * 缓存值压缩：编码结果超过阈值（按Key前缀可单独配置）时用Deflate压缩，
+ * 结果为 头字符(\u0002) + Base64(压缩数据)，读取时按头字符识别并解压
+ * 按前缀上报压缩率（压缩后/压缩前）和压缩耗时，用于调整各前缀的阈值
+ */
+public class CacheCompressor {
+
+    public static final char HEADER = '\u0002';
+    // 未匹配任何前缀时的指标标签
+    private static final String DEFAULT_PREFIX = "default";
+
+    private final boolean enabled;
+    private final int defaultThreshold;
+    private final int level;
+    private final Map<String, Integer> prefixThresholds;
+    private final CacheMetrics metrics;
+
+    // Deflater/Inflater持有本地内存，按线程复用，避免每次创建和释放
+    private final ThreadLocal<Deflater> deflaters;
+    private final ThreadLocal<Inflater> inflaters = ThreadLocal.withInitial(() -> new Inflater(true));
+
+    public CacheCompressor(CacheClientProperties.Compression compressionConfig, CacheMetrics metrics) {
+        this.enabled = compressionConfig.isEnabled();
+        this.defaultThreshold = compressionConfig.getThresholdBytes();
+        this.level = compressionConfig.getLevel();
+        this.prefixThresholds = compressionConfig.getPrefixThresholds();
+        this.metrics = metrics;
+        this.deflaters = ThreadLocal.withInitial(() -> new Deflater(level, true));
+    }
+
+    /**
+     * 压缩（未启用、未超过阈值或压缩无收益时原样返回）
+     */
+    public String compress(String key, String text) {
+        if (!enabled || text.isEmpty()) {
+            return text;
+        }
+        String prefix = matchPrefix(key);
+        int threshold = prefix == null ? defaultThreshold : prefixThresholds.get(prefix);
+        // UTF-8下每个字符最多3字节，明显不够阈值的直接跳过，避免无谓的编码
+        if (text.length() * 3L < threshold) {
+            return text;
+        }
+        byte[] raw = text.getBytes(StandardCharsets.UTF_8);
+        if (raw.length < threshold) {
+            return text;
+        }
+
+        String tag = prefix == null ? DEFAULT_PREFIX : prefix;
+        long start = System.nanoTime();
+        String compressed = HEADER + Base64.getEncoder().encodeToString(deflate(raw));
+        metrics.recordCompression(tag, System.nanoTime() - start, (double) compressed.length() / raw.length);
+        return compressed.length() < raw.length ? compressed : text;
+    }
+
+    public boolean isCompressed(String text) {
+        return !text.isEmpty() && text.charAt(0) == HEADER;
+    }
+
+    /**
+     * 解压
+     */
+    public String decompress(String text) {
+        long start = System.nanoTime();
+        byte[] compressed = Base64.getDecoder().decode(text.substring(1));
+        String result = new String(inflate(compressed), StandardCharsets.UTF_8);
+        metrics.recordDecompression(System.nanoTime() - start);
+        return result;
+    }
+
+    private byte[] deflate(byte[] raw) {
+        Deflater deflater = deflaters.get();
+        deflater.reset();
+        deflater.setInput(raw);
+        deflater.finish();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(raw.length / 2 + 16);
+        byte[] buffer = new byte[1024];
+        while (!deflater.finished()) {
+            int n = deflater.deflate(buffer);
+            out.write(buffer, 0, n);
+        }
+        return out.toByteArray();
+    }
+
+    private byte[] inflate(byte[] compressed) {
+        Inflater inflater = inflaters.get();
+        inflater.reset();
+        inflater.setInput(compressed);
+        ByteArrayOutputStream out = new ByteArrayOutputStream(compressed.length * 3);
+        byte[] buffer = new byte[1024];
+        try {
+            while (!inflater.finished()) {
+                int n = inflater.inflate(buffer);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IllegalStateException("缓存压缩数据不完整");
+                }
+                out.write(buffer, 0, n);
+            }
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("缓存压缩数据损坏", e);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * 匹配最长的已配置前缀
+     */
+    private String matchPrefix(String key) {
+        String matched = null;
+        for (String prefix : prefixThresholds.keySet()) {
+            if (key.startsWith(prefix) && (matched == null || prefix.length() > matched.length())) {
+                matched = prefix;
+            }
+        }
+        return matched;
+    }
+}
@@ -0,0 +1,38 @@
+package com.hmdp.cache.codec;
+
+import cn.hutool.json.JSONUtil;
+
+import java.lang.reflect.Type;
+
+/**
+ * JSON编解码（默认格式，兼容已有缓存数据）
+ */
+public class JsonCacheCodec implements CacheCodec {
+
+    public static final String NAME = "json";
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public boolean supports(Object value) {
+        return true;
+    }
+
+    @Override
+    public boolean canDecode(String text) {
+        return true;
+    }
+
+    @Override
+    public String encode(Object value) {
+        return JSONUtil.toJsonStr(value);
+    }
+
+    @Override
+    public <T> T decode(String text, Type type) {
+        return JSONUtil.toBean(text, type, false);
+    }
+}
@@ -0,0 +1,183 @@
+package com.hmdp.cache.config;
+
+import com.hmdp.cache.bloom.BloomFilterService;
+import com.hmdp.cache.codec.BinaryCacheCodec;
+import com.hmdp.cache.codec.CacheCodec;
+import com.hmdp.cache.codec.CacheCodecRegistry;
+import com.hmdp.cache.codec.CacheCompressor;
+import com.hmdp.cache.codec.JsonCacheCodec;
+import com.hmdp.cache.hotkey.HotKeyDetector;
+import com.hmdp.cache.hotkey.HotKeyEndpoint;
+import com.hmdp.cache.hotkey.HotKeyReplicas;
+import com.hmdp.cache.limit.DbLoadLimiter;
+import com.hmdp.cache.lock.LockRenewalWatchdog;
+import com.hmdp.cache.metrics.CacheMetrics;
+import com.hmdp.cache.near.NearCache;
+import com.hmdp.cache.notify.CacheRebuildNotifier;
+import com.hmdp.cache.rebuild.CacheRebuildScheduler;
+import com.hmdp.cache.refresh.RefreshAheadScheduler;
+import com.hmdp.cache.ttl.TtlJitter;
+import com.hmdp.cache.warmup.CacheWarmUp;
+import com.hmdp.cache.warmup.WarmUpEndpoint;
+import com.hmdp.cache.warmup.WarmUpHealthIndicator;
+import com.hmdp.utils.CacheClient;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.util.ClassUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+@EnableConfigurationProperties(CacheClientProperties.class)
+public class CacheClientConfig {
+
+    // 注册近端缓存，并订阅跨实例失效通知
+    @Bean
+    public NearCache nearCache(
+            CacheClientProperties properties,
+            @Qualifier("instanceUUID") String instanceId,
+            StringRedisTemplate stringRedisTemplate,
+            RedisMessageListenerContainer redisMessageListenerContainer) {
+        NearCache nearCache = new NearCache(properties.getNear(), instanceId, stringRedisTemplate);
+        if (nearCache.isEnabled()) {
+            redisMessageListenerContainer.addMessageListener(nearCache, new ChannelTopic(nearCache.getChannel()));
+        }
+        return nearCache;
+    }
+
+    // 注册缓存重建通知（NOTIFY等待模式下订阅重建完成频道）
+    @Bean
+    public CacheRebuildNotifier cacheRebuildNotifier(
+            CacheClientProperties properties,
+            StringRedisTemplate stringRedisTemplate,
+            RedisMessageListenerContainer redisMessageListenerContainer) {
+        CacheRebuildNotifier notifier = new CacheRebuildNotifier(properties.getMutex(), stringRedisTemplate);
+        if (notifier.isEnabled()) {
+            redisMessageListenerContainer.addMessageListener(notifier, new ChannelTopic(notifier.getChannel()));
+        }
+        return notifier;
+    }
+
+    // 注册布隆过滤器服务（具体过滤器在启动加载时按业务注册）
+    @Bean
+    public BloomFilterService bloomFilterService(CacheClientProperties properties, StringRedisTemplate stringRedisTemplate) {
+        return new BloomFilterService(properties.getBloom(), stringRedisTemplate);
+    }
+
+    // JSON编解码（默认）
+    @Bean
+    public JsonCacheCodec jsonCacheCodec() {
+        return new JsonCacheCodec();
+    }
+
+    // 紧凑二进制编解码（只对配置的业务类型生效）
+    @Bean
+    public BinaryCacheCodec binaryCacheCodec(CacheClientProperties properties) {
+        List<Class<?>> types = new ArrayList<>();
+        for (String typeName : properties.getCodec().getBinaryTypes()) {
+            try {
+                types.add(ClassUtils.forName(typeName, getClass().getClassLoader()));
+            } catch (ClassNotFoundException e) {
+                throw new IllegalArgumentException("二进制编码类型不存在：" + typeName, e);
+            }
+        }
+        return new BinaryCacheCodec(types);
+    }
+
+    // 缓存指标（未引入监控组件时指标记录在本地）
+    @Bean
+    public CacheMetrics cacheMetrics(CacheClientProperties properties, ObjectProvider<MeterRegistry> meterRegistry) {
+        return new CacheMetrics(properties.getMetrics(), meterRegistry.getIfAvailable(SimpleMeterRegistry::new));
+    }
+
+    // 大缓存值压缩
+    @Bean
+    public CacheCompressor cacheCompressor(CacheClientProperties properties, CacheMetrics cacheMetrics) {
+        return new CacheCompressor(properties.getCompression(), cacheMetrics);
+    }
+
+    // 编解码器注册表（可通过声明CacheCodec类型的Bean扩展自定义编码）
+    @Bean
+    public CacheCodecRegistry cacheCodecRegistry(
+            CacheClientProperties properties, List<CacheCodec> codecs, CacheCompressor cacheCompressor) {
+        return new CacheCodecRegistry(codecs, properties.getCodec().getType(), cacheCompressor);
+    }
+
+    // 热点Key探测（热点冷却后取消近端缓存中的固定副本）
+    @Bean
+    public HotKeyDetector hotKeyDetector(CacheClientProperties properties, NearCache nearCache) {
+        return new HotKeyDetector(properties.getHotKey(), nearCache::unpin);
+    }
+
+    // 热点Key的Redis副本（分散单个热点Key的读压力）
+    @Bean
+    public HotKeyReplicas hotKeyReplicas(CacheClientProperties properties) {
+        CacheClientProperties.HotKey hotKey = properties.getHotKey();
+        return new HotKeyReplicas(hotKey.getReplicas(), hotKey.getReplicaPrefixes());
+    }
+
+    // 热点Key监控端点
+    @Bean
+    public HotKeyEndpoint hotKeyEndpoint(HotKeyDetector hotKeyDetector) {
+        return new HotKeyEndpoint(hotKeyDetector);
+    }
+
+    // 缓存重建锁看门狗（时间轮统一批量续期）
+    @Bean
+    public LockRenewalWatchdog lockRenewalWatchdog(StringRedisTemplate stringRedisTemplate) {
+        return new LockRenewalWatchdog(stringRedisTemplate, TimeUnit.SECONDS.toMillis(CacheClient.LOCK_TTL));
+    }
+
+    // 缓存重建调度（按Key去重、按热度排序、同类型合并查库）
+    @Bean
+    public CacheRebuildScheduler cacheRebuildScheduler(CacheClientProperties properties) {
+        return new CacheRebuildScheduler(properties.getRebuild());
+    }
+
+    // 逻辑过期Key的提前刷新
+    @Bean
+    public RefreshAheadScheduler refreshAheadScheduler(CacheClientProperties properties,
+                                                       StringRedisTemplate stringRedisTemplate) {
+        return new RefreshAheadScheduler(properties.getRefreshAhead(), stringRedisTemplate);
+    }
+
+    // 过期时间随机抖动（防缓存雪崩）
+    @Bean
+    public TtlJitter ttlJitter(CacheClientProperties properties) {
+        return new TtlJitter(properties.getJitter());
+    }
+
+    // 数据库回源预算
+    @Bean
+    public DbLoadLimiter dbLoadLimiter(CacheClientProperties properties) {
+        return new DbLoadLimiter(properties.getDbLoad());
+    }
+
+    // 缓存预热（预热任务由业务代码注册）
+    @Bean
+    public CacheWarmUp cacheWarmUp(CacheClientProperties properties) {
+        return new CacheWarmUp(properties.getWarmUp());
+    }
+
+    // 缓存预热端点（查看进度、活动前手动触发）
+    @Bean
+    public WarmUpEndpoint warmUpEndpoint(CacheWarmUp cacheWarmUp) {
+        return new WarmUpEndpoint(cacheWarmUp);
+    }
+
+    // 缓存预热健康检查（健康组中的名称为 cacheWarmUp，加入readiness组）
+    @Bean
+    public WarmUpHealthIndicator cacheWarmUpHealthIndicator(CacheWarmUp cacheWarmUp) {
+        return new WarmUpHealthIndicator(cacheWarmUp);
+    }
+}
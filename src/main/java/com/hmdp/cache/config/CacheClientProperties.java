@@ -0,0 +1,261 @@
+package com.hmdp.cache.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import javax.validation.constraints.DecimalMax;
+import javax.validation.constraints.DecimalMin;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "cache.client")
+@Validated // 启用配置校验
+public class CacheClientProperties {
+
+    // 近端缓存（L1）配置
+    private Near near = new Near();
+
+    // 互斥锁重建配置
+    private Mutex mutex = new Mutex();
+
+    // 布隆过滤器（防缓存穿透）配置
+    private Bloom bloom = new Bloom();
+
+    // 缓存值编解码配置
+    private Codec codec = new Codec();
+
+    // 大缓存值压缩配置
+    private Compression compression = new Compression();
+
+    // 热点Key探测配置
+    private HotKey hotKey = new HotKey();
+
+    // 缓存重建调度配置
+    private Rebuild rebuild = new Rebuild();
+
+    // 逻辑过期Key的提前刷新配置
+    private RefreshAhead refreshAhead = new RefreshAhead();
+
+    // 过期时间随机抖动配置
+    private Jitter jitter = new Jitter();
+
+    // 数据库回源预算配置
+    private DbLoad dbLoad = new DbLoad();
+
+    // 缓存版本号配置
+    private Version version = new Version();
+
+    // 异步缓存客户端配置
+    private Async async = new Async();
+
+    // 缓存指标配置
+    private Metrics metrics = new Metrics();
+
+    // 缓存预热配置
+    private WarmUp warmUp = new WarmUp();
+
+    @Data
+    public static class Near {
+        private boolean enabled = false; // 默认关闭，按需开启
+
+        @Min(value = 1, message = "近端缓存容量至少为1")
+        private long maximumSize = 10000; // 最大条目数
+
+        @Min(value = 1, message = "近端缓存过期时间至少为1秒")
+        private long expireAfterWriteSeconds = 60; // 写入后过期时间（秒）
+
+        // 启用近端缓存的Key前缀（只缓存热点业务，避免占用过多堆内存）
+        private List<String> prefixes = new ArrayList<>(Collections.singletonList("cache:shop:"));
+
+        private String channel = "cache:invalidate"; // 跨实例失效通知的频道
+    }
+
+    @Data
+    public static class Mutex {
+        private WaitMode waitMode = WaitMode.SLEEP; // 抢锁失败后的等待方式
+
+        @Min(value = 10, message = "重建通知等待超时至少为10毫秒")
+        private long notifyTimeoutMillis = 1000; // 单次等待重建通知的超时（毫秒），超时后重新抢锁
+
+        private String channel = "cache:rebuilt"; // 重建完成通知的频道
+    }
+
+    @Data
+    public static class Bloom {
+        private boolean enabled = false; // 默认关闭，按需开启
+
+        @Min(value = 1, message = "布隆过滤器预期元素数至少为1")
+        private long expectedInsertions = 1_000_000; // 每个过滤器的预期元素数
+
+        @DecimalMin(value = "0.0001", message = "布隆过滤器误判率不能小于0.0001")
+        @DecimalMax(value = "0.5", message = "布隆过滤器误判率不能大于0.5")
+        private double fpp = 0.01; // 期望误判率
+
+        @Min(value = 100, message = "布隆过滤器初始加载分页大小至少为100")
+        private int loadPageSize = 1000; // 启动时从数据库分页加载ID的每页大小
+    }
+
+    @Data
+    public static class Codec {
+        // 写入使用的编码（json/binary，或自定义CacheCodec的名称）；读取时按头字符自动识别，新旧格式可共存
+        private String type = "json";
+
+        // 允许二进制编码的业务类型（全限定类名，RedisData<这些类型>同样适用）
+        private List<String> binaryTypes = new ArrayList<>(Arrays.asList(
+                "com.hmdp.entity.Shop",
+                "com.hmdp.entity.Blog",
+                "com.hmdp.entity.Voucher",
+                "com.hmdp.dto.UserDTO"));
+    }
+
+    @Data
+    public static class Compression {
+        private boolean enabled = false; // 默认关闭，按需开启
+
+        @Min(value = 64, message = "压缩阈值至少为64字节")
+        private int thresholdBytes = 1024; // 编码结果超过该字节数才压缩
+
+        @Min(value = 1, message = "压缩级别范围为1~9")
+        @Max(value = 9, message = "压缩级别范围为1~9")
+        private int level = 6; // Deflate压缩级别，越高压缩率越好、CPU越高
+
+        // 按Key前缀单独设置压缩阈值（字节），最长前缀优先，未匹配的使用thresholdBytes
+        private Map<String, Integer> prefixThresholds = new LinkedHashMap<>();
+    }
+
+    @Data
+    public static class HotKey {
+        private boolean enabled = false; // 默认关闭，按需开启
+
+        @DecimalMin(value = "0.001", message = "热点Key采样率不能小于0.001")
+        @DecimalMax(value = "1.0", message = "热点Key采样率不能大于1")
+        private double sampleRate = 0.1; // 读请求采样率
+
+        @Min(value = 1, message = "热点Key阈值至少为1次/秒")
+        private long threshold = 100; // 判定为热点的访问频率（次/秒）
+
+        @Min(value = 1, message = "热点Key统计窗口至少为1秒")
+        private long windowSeconds = 10; // 统计窗口（秒），每个窗口计数衰减一半
+
+        @Min(value = 1, message = "Top-K容量至少为1")
+        private int topK = 20; // 热点榜单容量，也是固定副本数量的上限
+
+        @Min(value = 1, message = "Count-Min Sketch行数至少为1")
+        private int sketchDepth = 4;
+
+        @Min(value = 16, message = "Count-Min Sketch列数至少为16")
+        private int sketchWidth = 4096;
+
+        @Min(value = 1, message = "热点副本刷新间隔至少为1秒")
+        private long pinTtlSeconds = 5; // 近端缓存中热点副本的逻辑过期时间（秒），过期后异步刷新
+
+        @Min(value = 0, message = "热点Key的Redis副本数量不能为负数")
+        private int replicas = 0; // 热点Key在Redis中的副本数量（key#1 ~ key#N），0表示不启用
+
+        // 启用Redis副本的Key前缀（仅物理过期的缓存，逻辑过期的Key不写副本）
+        private List<String> replicaPrefixes = new ArrayList<>(Collections.singletonList("cache:shop:"));
+    }
+
+    @Data
+    public static class Rebuild {
+        @Min(value = 1, message = "缓存重建线程数至少为1")
+        private int workers = 4; // 重建线程数
+
+        @Min(value = 1, message = "缓存重建队列容量至少为1")
+        private int queueCapacity = 1000; // 待重建Key的上限，超过后丢弃新的重建任务（继续返回旧数据）
+
+        @Min(value = 1, message = "单次合并重建的Key数量至少为1")
+        private int maxBatchSize = 100; // 同一分组合并为一次批量查库的Key数量上限
+    }
+
+    @Data
+    public static class RefreshAhead {
+        private boolean enabled = false; // 默认关闭，按需开启
+
+        private String zsetKey = "cache:refresh-ahead"; // 记录逻辑过期Key及其过期时间的ZSET
+
+        @Min(value = 0, message = "提前刷新时间不能为负数")
+        private long lookaheadSeconds = 5; // 距逻辑过期不足该秒数的Key被提前刷新
+
+        @Min(value = 100, message = "提前刷新扫描间隔至少为100毫秒")
+        private long intervalMillis = 1000; // 扫描ZSET的间隔（毫秒）
+
+        @Min(value = 1, message = "单次提前刷新的Key数量至少为1")
+        private int batchSize = 200; // 单次领取的Key数量
+
+        @Min(value = 1, message = "提前刷新租约至少为1秒")
+        private long claimSeconds = 30; // 领取后的租约（秒），刷新失败的Key在租约到期后重新领取
+    }
+
+    @Data
+    public static class Jitter {
+        private boolean enabled = false; // 默认关闭，按需开启
+
+        @DecimalMin(value = "0.0", message = "过期时间抖动比例不能为负数")
+        @DecimalMax(value = "1.0", message = "过期时间抖动比例不能大于1")
+        private double defaultRatio = 0.1; // 在过期时长上随机增加的最大比例
+
+        // 按Key前缀单独设置抖动比例，最长前缀优先，未匹配的使用defaultRatio
+        private Map<String, Double> prefixRatios = new LinkedHashMap<>();
+    }
+
+    @Data
+    public static class DbLoad {
+        private boolean enabled = false; // 默认关闭，按需开启
+
+        @Min(value = 1, message = "数据库回源速率至少为1次/秒")
+        private int permitsPerSecond = 500; // 缓存回源数据库的速率上限（次/秒，批量查询算一次）
+
+        @Min(value = 0, message = "回源排队等待时间不能为负数")
+        private long maxWaitMillis = 200; // 许可不足时的最长排队时间（毫秒），超过则拒绝回源
+    }
+
+    @Data
+    public static class Version {
+        private boolean enabled = false; // 默认关闭，按需开启
+
+        // 启用版本号的Key前缀：重建写入时校验版本，更新数据后通过invalidate递增版本
+        private List<String> prefixes = new ArrayList<>(Collections.singletonList("cache:shop:"));
+    }
+
+    @Data
+    public static class Async {
+        @Min(value = 1, message = "异步加载线程数至少为1")
+        private int loaderThreads = 16; // 未命中时查库、持锁重建的线程数（不占用Web容器线程）
+
+        @Min(value = 1, message = "异步加载队列容量至少为1")
+        private int loaderQueueCapacity = 1000; // 等待加载的任务上限，超过后快速失败
+    }
+
+    @Data
+    public static class Metrics {
+        private boolean enabled = true; // 默认开启（每次记录只有一次Map查找）
+
+        @Min(value = 1, message = "指标前缀数量上限至少为1")
+        private int maxPrefixes = 100; // 按前缀打标签的前缀数量上限，超出的归入other
+    }
+
+    public enum WaitMode {
+        SLEEP,  // 固定休眠50ms后重试
+        NOTIFY  // 阻塞等待持锁者的重建完成通知（带超时）
+    }
+
+    @Data
+    public static class WarmUp {
+        private boolean enabled = false; // 默认关闭，按需开启
+
+        @Min(value = 100, message = "缓存预热分页大小至少为100")
+        private int pageSize = 500; // 按主键游标分页读取数据库的每页大小
+
+        @Min(value = 1, message = "缓存预热写入线程数至少为1")
+        private int writerThreads = 4; // 并行序列化、管道写入Redis的线程数
+    }
+}
@@ -0,0 +1,69 @@
+package com.hmdp.cache.flight;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * 单飞（single-flight）：同一JVM内同一Key的并发加载合并为一次
+ * 第一个到达的线程（领头线程）执行加载，其余线程等待并共享领头线程的结果或异常
+ */
+public class SingleFlight {
+
+    // 进行中的加载：Key -> 加载结果
+    private final ConcurrentMap<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * 执行加载（同一Key同一时刻只有一个线程真正执行loader）
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String key, Supplier<T> loader) {
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            // 跟随线程：等待领头线程的结果
+            return (T) await(existing);
+        }
+
+        // 领头线程：执行加载并把结果发布给跟随线程
+        try {
+            T value = loader.get();
+            future.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            // 加载结束即移除，后续未命中重新发起加载（不缓存结果）
+            inFlight.remove(key, future);
+        }
+    }
+
+    /**
+     * 当前正在加载的Key数量
+     */
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+
+    private Object await(CompletableFuture<Object> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("等待缓存加载时线程中断", e);
+        } catch (ExecutionException | CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new RuntimeException("缓存加载失败", cause);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.hmdp.cache.hotkey;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Count-Min Sketch：固定内存估算Key的访问次数（只会高估不会低估），计数器基于CAS无锁更新
+ * 定期衰减（所有计数减半），使估计值反映近期访问频率而不是历史累计
+ */
+public class CountMinSketch {
+
+    private final int depth;
+    private final int widthMask;
+    private final AtomicLongArray counters;
+
+    /**
+     * @param depth 哈希函数个数（行数）
+     * @param width 每行计数器个数（向上取整为2的幂）
+     */
+    public CountMinSketch(int depth, int width) {
+        if (depth <= 0 || width <= 0) {
+            throw new IllegalArgumentException("Count-Min Sketch的行数和列数必须大于0");
+        }
+        int actualWidth = Integer.highestOneBit(width - 1) << 1;
+        this.depth = depth;
+        this.widthMask = Math.max(actualWidth, 1) - 1;
+        this.counters = new AtomicLongArray(depth * (widthMask + 1));
+    }
+
+    /**
+     * 计数加一，返回加一后的估计值
+     */
+    public long add(String key) {
+        int h1 = mix(key.hashCode());
+        int h2 = mix(h1 ^ 0x9E3779B9);
+        long min = Long.MAX_VALUE;
+        for (int i = 0; i < depth; i++) {
+            int index = i * (widthMask + 1) + ((h1 + i * h2) & widthMask);
+            min = Math.min(min, counters.incrementAndGet(index));
+        }
+        return min;
+    }
+
+    /**
+     * 只读估计值（不计数）
+     */
+    public long estimate(String key) {
+        int h1 = mix(key.hashCode());
+        int h2 = mix(h1 ^ 0x9E3779B9);
+        long min = Long.MAX_VALUE;
+        for (int i = 0; i < depth; i++) {
+            int index = i * (widthMask + 1) + ((h1 + i * h2) & widthMask);
+            min = Math.min(min, counters.get(index));
+        }
+        return min;
+    }
+
+    /**
+     * 衰减：所有计数减半
+     */
+    public void decay() {
+        for (int i = 0; i < counters.length(); i++) {
+            counters.getAndUpdate(i, v -> v >> 1);
+        }
+    }
+
+    // MurmurHash3的fmix32，打散hashCode的低位分布
+    private static int mix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+}
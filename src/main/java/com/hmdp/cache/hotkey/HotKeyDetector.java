@@ -0,0 +1,149 @@
+package com.hmdp.cache.hotkey;
+
+import com.hmdp.cache.config.CacheClientProperties;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * 热点Key探测：按采样率记录读请求，Count-Min Sketch估算访问次数，Top-K维护访问最多的Key
+ * 每个窗口衰减一次（计数减半），估计值 >= 阈值(次/秒) * 窗口秒数 且位于Top-K内的Key判定为热点；
+ * 热点冷却后回调通知（CacheClient据此取消近端缓存的固定副本）
+ */
+@Slf4j
+public class HotKeyDetector {
+
+    private final boolean enabled;
+    private final double sampleRate;
+    private final long hotCount; // 判定为热点的估计访问次数
+    private final long pinTtlMillis; // 热点副本的逻辑过期时间
+    private final CountMinSketch sketch;
+    private final TopK topK;
+    // 当前热点Key
+    private final Set<String> hotKeys = ConcurrentHashMap.newKeySet();
+    private final Consumer<String> onCool;
+    private final ScheduledExecutorService decayExecutor;
+
+    public HotKeyDetector(CacheClientProperties.HotKey hotKeyConfig, Consumer<String> onCool) {
+        this.enabled = hotKeyConfig.isEnabled();
+        this.sampleRate = hotKeyConfig.getSampleRate();
+        this.hotCount = hotKeyConfig.getThreshold() * hotKeyConfig.getWindowSeconds();
+        this.pinTtlMillis = TimeUnit.SECONDS.toMillis(hotKeyConfig.getPinTtlSeconds());
+        this.sketch = new CountMinSketch(hotKeyConfig.getSketchDepth(), hotKeyConfig.getSketchWidth());
+        this.topK = new TopK(hotKeyConfig.getTopK());
+        this.onCool = onCool;
+        if (enabled) {
+            this.decayExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "hot-key-decay");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long window = hotKeyConfig.getWindowSeconds();
+            decayExecutor.scheduleAtFixedRate(this::decay, window, window, TimeUnit.SECONDS);
+        } else {
+            this.decayExecutor = null;
+        }
+    }
+
+    /**
+     * 记录一次读请求
+     * @return 该Key当前是否为热点
+     */
+    public boolean record(String key) {
+        if (!enabled) {
+            return false;
+        }
+        if (sampleRate < 1.0 && ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            return hotKeys.contains(key);
+        }
+        // 按采样率放大为全量估计值
+        long estimate = (long) (sketch.add(key) / sampleRate);
+        topK.offer(key, estimate);
+        if (estimate >= hotCount && topK.contains(key)) {
+            if (hotKeys.add(key)) {
+                log.info("发现热点Key：{}，估计访问次数：{}", key, estimate);
+            }
+            return true;
+        }
+        return hotKeys.contains(key);
+    }
+
+    public boolean isHot(String key) {
+        return hotKeys.contains(key);
+    }
+
+    /**
+     * 当前窗口的估计访问次数（未启用时为0），用于重建任务排序
+     */
+    public long estimate(String key) {
+        if (!enabled) {
+            return 0;
+        }
+        return (long) (sketch.estimate(key) / sampleRate);
+    }
+
+    /**
+     * 当前Top-K快照（按估计访问次数降序）
+     */
+    public List<Map<String, Object>> topK() {
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (Map.Entry<String, Long> entry : topK.snapshot()) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("key", entry.getKey());
+            item.put("estimate", entry.getValue());
+            item.put("hot", hotKeys.contains(entry.getKey()));
+            result.add(item);
+        }
+        return result;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public double getSampleRate() {
+        return sampleRate;
+    }
+
+    public long getHotCount() {
+        return hotCount;
+    }
+
+    public long getPinTtlMillis() {
+        return pinTtlMillis;
+    }
+
+    public void shutdown() {
+        if (decayExecutor != null) {
+            decayExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * 窗口衰减：计数减半，访问频率回落到阈值以下的热点Key降级
+     */
+    private void decay() {
+        try {
+            sketch.decay();
+            topK.decay();
+            for (String key : hotKeys) {
+                if (topK.estimate(key) < hotCount && hotKeys.remove(key)) {
+                    log.info("热点Key冷却：{}", key);
+                    onCool.accept(key);
+                }
+            }
+        } catch (Exception e) {
+            log.error("热点Key衰减任务异常", e);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.hmdp.cache.hotkey;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 热点Key监控端点：GET /actuator/hotkeys 查看当前Top-K
+ * 返回线上缓存Key和访问量，默认不通过Web暴露，只应在内网管理端口上开放
+ */
+@Endpoint(id = "hotkeys")
+public class HotKeyEndpoint {
+
+    private final HotKeyDetector hotKeyDetector;
+
+    public HotKeyEndpoint(HotKeyDetector hotKeyDetector) {
+        this.hotKeyDetector = hotKeyDetector;
+    }
+
+    @ReadOperation
+    public Map<String, Object> hotKeys() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", hotKeyDetector.isEnabled());
+        result.put("sampleRate", hotKeyDetector.getSampleRate());
+        result.put("hotCount", hotKeyDetector.getHotCount());
+        result.put("topK", hotKeyDetector.topK());
+        return result;
+    }
+}
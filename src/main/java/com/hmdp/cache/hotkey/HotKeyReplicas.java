@@ -0,0 +1,63 @@
+package com.hmdp.cache.hotkey;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 热点Key副本：热点Key重建时额外写入N份带后缀的副本（key#1 ~ key#N），读取时随机读一份，
+ * 更新时删除全部副本。Redis Cluster下副本分布在不同槽位，单个热点Key的读压力分散到多个分片
+ */
+public class HotKeyReplicas {
+
+    public static final char SEPARATOR = '#';
+
+    private final int count;
+    private final List<String> prefixes;
+
+    /**
+     * @param count 副本数量（0表示不启用）
+     * @param prefixes 启用副本的Key前缀
+     */
+    public HotKeyReplicas(int count, List<String> prefixes) {
+        this.count = count;
+        this.prefixes = new ArrayList<>(prefixes);
+    }
+
+    public boolean isEnabled() {
+        return count > 0;
+    }
+
+    /**
+     * 该Key是否启用副本
+     */
+    public boolean isReplicated(String key) {
+        if (count <= 0) {
+            return false;
+        }
+        for (String prefix : prefixes) {
+            if (key.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 全部副本Key
+     */
+    public List<String> replicaKeys(String key) {
+        List<String> keys = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            keys.add(key + SEPARATOR + i);
+        }
+        return keys;
+    }
+
+    /**
+     * 随机选择一个副本Key
+     */
+    public String randomReplicaKey(String key) {
+        return key + SEPARATOR + (ThreadLocalRandom.current().nextInt(count) + 1);
+    }
+}
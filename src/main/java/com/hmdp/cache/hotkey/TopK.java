@@ -0,0 +1,77 @@
+package com.hmdp.cache.hotkey;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 近似Top-K：保留估计访问次数最大的K个Key
+ * 容量满时只与当前最小项比较（K很小，扫描代价可忽略），通过条件remove替换，不加全局锁；
+ * 并发替换时数量可能短暂超过K，不影响热点判定
+ */
+public class TopK {
+
+    private final int capacity;
+    private final ConcurrentMap<String, Long> entries = new ConcurrentHashMap<>();
+
+    public TopK(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Top-K容量必须大于0");
+        }
+        this.capacity = capacity;
+    }
+
+    /**
+     * 提交一次估计值（已在榜内则更新，否则与最小项比较后决定是否入榜）
+     */
+    public void offer(String key, long estimate) {
+        if (entries.computeIfPresent(key, (k, v) -> Math.max(v, estimate)) != null) {
+            return;
+        }
+        if (entries.size() < capacity) {
+            entries.putIfAbsent(key, estimate);
+            return;
+        }
+        Map.Entry<String, Long> min = null;
+        for (Map.Entry<String, Long> entry : entries.entrySet()) {
+            if (min == null || entry.getValue() < min.getValue()) {
+                min = entry;
+            }
+        }
+        if (min != null && estimate > min.getValue() && entries.remove(min.getKey(), min.getValue())) {
+            entries.putIfAbsent(key, estimate);
+        }
+    }
+
+    public boolean contains(String key) {
+        return entries.containsKey(key);
+    }
+
+    /**
+     * 当前估计值（不在榜内返回0）
+     */
+    public long estimate(String key) {
+        return entries.getOrDefault(key, 0L);
+    }
+
+    /**
+     * 衰减：估计值减半，归零的移出榜单
+     */
+    public void decay() {
+        for (String key : entries.keySet()) {
+            entries.computeIfPresent(key, (k, v) -> v > 1 ? v >> 1 : null);
+        }
+    }
+
+    /**
+     * 按估计值从大到小返回榜单快照
+     */
+    public List<Map.Entry<String, Long>> snapshot() {
+        List<Map.Entry<String, Long>> list = new ArrayList<>(entries.entrySet());
+        list.sort(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder()));
+        return list;
+    }
+}
@@ -0,0 +1,84 @@
+package com.hmdp.cache.limit;
+
+import com.hmdp.cache.config.CacheClientProperties;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 缓存回源数据库的全局预算：令牌桶按固定速率发放许可（最多积攒1秒的许可应对突发），
+ * 许可不足时预支后续令牌排队等待，预计等待超过上限时拒绝。
+ * 被拒绝时，有旧数据的路径（逻辑过期、提前刷新、热点副本）继续返回旧数据，没有旧数据的路径快速失败，
+ * 避免大量缓存同时失效时把数据库压垮
+ */
+@Slf4j
+public class DbLoadLimiter {
+
+    private final boolean enabled;
+    private final double permitsPerNano;
+    private final double maxPermits;
+    private final long maxWaitNanos;
+    private final AtomicLong rejectedCount = new AtomicLong();
+
+    // 当前可用许可（为负表示已被预支）
+    private double storedPermits;
+    private long lastRefillNanos;
+
+    public DbLoadLimiter(CacheClientProperties.DbLoad dbLoadConfig) {
+        this.enabled = dbLoadConfig.isEnabled();
+        double permitsPerSecond = dbLoadConfig.getPermitsPerSecond();
+        this.permitsPerNano = permitsPerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.maxPermits = permitsPerSecond;
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(dbLoadConfig.getMaxWaitMillis());
+        this.storedPermits = maxPermits;
+        this.lastRefillNanos = System.nanoTime();
+    }
+
+    /**
+     * 获取一次回源许可，许可不足时最多排队等待maxWaitMillis
+     * @return 是否获得许可
+     */
+    public boolean acquire() {
+        if (!enabled) {
+            return true;
+        }
+        long waitNanos;
+        synchronized (this) {
+            long now = System.nanoTime();
+            storedPermits = Math.min(maxPermits, storedPermits + (now - lastRefillNanos) * permitsPerNano);
+            lastRefillNanos = now;
+            if (storedPermits >= 1) {
+                storedPermits -= 1;
+                return true;
+            }
+            waitNanos = (long) ((1 - storedPermits) / permitsPerNano);
+            if (waitNanos > maxWaitNanos) {
+                long rejected = rejectedCount.incrementAndGet();
+                if (rejected % 100 == 1) {
+                    log.warn("数据库回源预算耗尽，拒绝回源，累计拒绝：{}", rejected);
+                }
+                return false;
+            }
+            // 预支一个许可，后续请求排在其后
+            storedPermits -= 1;
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return true;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 因预算耗尽被拒绝的回源次数
+     */
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+}
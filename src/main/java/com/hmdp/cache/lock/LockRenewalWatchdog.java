@@ -0,0 +1,192 @@
+package com.hmdp.cache.lock;
+
+import io.netty.util.HashedWheelTimer;
+import io.netty.util.Timeout;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import com.hmdp.utils.RedisClusterSupport;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 缓存重建锁看门狗：基于时间轮统一续期所有持有中的 lock: 锁，不占用重建线程
+ * 每把锁在持有后每隔 租期/3 到期一次；同一tick内到期的锁合并为一次Lua调用批量续期，
+ * 续期失败（锁已释放或被他人持有）的锁不再续期；Redis Cluster下锁Key分布在不同槽位，改为管道中逐Key续期
+ */
+@Slf4j
+public class LockRenewalWatchdog {
+
+    @SuppressWarnings("rawtypes")
+    private static final DefaultRedisScript<List> RENEW_SCRIPT;
+    // 单次Lua调用续期的锁数量上限
+    private static final int BATCH_SIZE = 200;
+
+    static {
+        RENEW_SCRIPT = new DefaultRedisScript<>();
+        RENEW_SCRIPT.setLocation(new ClassPathResource("lua/batch_renew.lua"));
+        RENEW_SCRIPT.setResultType(List.class);
+    }
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final long leaseMillis;
+    private final long renewIntervalMillis;
+    private final HashedWheelTimer timer;
+    // 持有中的锁：锁Key -> 租约
+    private final ConcurrentMap<String, Lease> leases = new ConcurrentHashMap<>();
+    // 已到期、等待批量续期的租约
+    private final Queue<Lease> dueLeases = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+
+    public LockRenewalWatchdog(StringRedisTemplate stringRedisTemplate, long leaseMillis) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.leaseMillis = leaseMillis;
+        this.renewIntervalMillis = leaseMillis / 3;
+        // tick 100ms，续期间隔为秒级，精度足够
+        this.timer = new HashedWheelTimer(
+                new DefaultThreadFactory("cache-lock-watchdog", true), 100, TimeUnit.MILLISECONDS, 512);
+    }
+
+    /**
+     * 加锁成功后登记续期
+     */
+    public void watch(String lockKey, String lockValue) {
+        Lease lease = new Lease(lockKey, lockValue);
+        Lease previous = leases.put(lockKey, lease);
+        if (previous != null) {
+            previous.cancel();
+        }
+        schedule(lease);
+    }
+
+    /**
+     * 释放锁前取消续期
+     */
+    public void unwatch(String lockKey, String lockValue) {
+        Lease lease = leases.get(lockKey);
+        if (lease != null && lease.lockValue.equals(lockValue) && leases.remove(lockKey, lease)) {
+            lease.cancel();
+        }
+    }
+
+    /**
+     * 当前续期中的锁数量
+     */
+    public int size() {
+        return leases.size();
+    }
+
+    public void shutdown() {
+        timer.stop();
+    }
+
+    private void schedule(Lease lease) {
+        if (lease.cancelled) {
+            return;
+        }
+        lease.timeout = timer.newTimeout(t -> onDue(lease), renewIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void onDue(Lease lease) {
+        if (lease.cancelled) {
+            return;
+        }
+        dueLeases.add(lease);
+        // 0延迟任务在下一个tick执行：同一tick内到期的租约都入队后再统一续期
+        if (flushScheduled.compareAndSet(false, true)) {
+            timer.newTimeout(t -> flush(), 0, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void flush() {
+        flushScheduled.set(false);
+        List<Lease> batch = new ArrayList<>();
+        Lease lease;
+        while ((lease = dueLeases.poll()) != null) {
+            if (lease.cancelled) {
+                continue;
+            }
+            batch.add(lease);
+            if (batch.size() == BATCH_SIZE) {
+                renew(batch);
+                batch = new ArrayList<>();
+            }
+        }
+        if (!batch.isEmpty()) {
+            renew(batch);
+        }
+    }
+
+    private void renew(List<Lease> batch) {
+        List<String> keys = new ArrayList<>(batch.size());
+        Object[] args = new Object[batch.size() + 1];
+        args[0] = String.valueOf(leaseMillis);
+        for (int i = 0; i < batch.size(); i++) {
+            keys.add(batch.get(i).lockKey);
+            args[i + 1] = batch.get(i).lockValue;
+        }
+        try {
+            List<?> result = RedisClusterSupport.isCluster(stringRedisTemplate)
+                    ? renewPerKey(keys, args)
+                    : stringRedisTemplate.execute(RENEW_SCRIPT, keys, args);
+            for (int i = 0; i < batch.size(); i++) {
+                Lease lease = batch.get(i);
+                Object renewed = result == null ? null : result.get(i);
+                if (Long.valueOf(1L).equals(renewed)) {
+                    schedule(lease);
+                } else if (leases.remove(lease.lockKey, lease)) {
+                    // 锁已释放或被他人持有（如持有者停顿超过租期），停止续期
+                    lease.cancel();
+                    log.warn("缓存重建锁续期失败，锁已失效，lockKey: {}", lease.lockKey);
+                }
+            }
+        } catch (Exception e) {
+            // Redis异常：下个周期重试，锁剩余有效期仍有约2/3租期
+            log.warn("批量续期缓存重建锁异常，数量：{}", batch.size(), e);
+            batch.forEach(this::schedule);
+        }
+    }
+
+    /**
+     * 逐Key续期，结果换算成与整批调用相同的格式（与keys一一对应的0/1）
+     */
+    private List<Object> renewPerKey(List<String> keys, Object[] args) {
+        List<Object> results = RedisClusterSupport.evalPerKey(stringRedisTemplate, RENEW_SCRIPT, ReturnType.MULTI,
+                keys, i -> new String[]{(String) args[0], (String) args[i + 1]});
+        List<Object> renewed = new ArrayList<>(results.size());
+        for (Object result : results) {
+            renewed.add(result instanceof List && !((List<?>) result).isEmpty() ? ((List<?>) result).get(0) : 0L);
+        }
+        return renewed;
+    }
+
+    private static class Lease {
+        private final String lockKey;
+        private final String lockValue;
+        private volatile boolean cancelled;
+        private volatile Timeout timeout;
+
+        private Lease(String lockKey, String lockValue) {
+            this.lockKey = lockKey;
+            this.lockValue = lockValue;
+        }
+
+        private void cancel() {
+            cancelled = true;
+            Timeout current = timeout;
+            if (current != null) {
+                current.cancel();
+            }
+        }
+    }
+}
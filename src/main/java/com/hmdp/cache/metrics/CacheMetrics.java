@@ -0,0 +1,273 @@
+package com.hmdp.cache.metrics;
+
+import com.hmdp.cache.config.CacheClientProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 缓存指标：按Key前缀（Key中最后一个冒号及之前的部分，如 cache:shop:）统计
+ * cache.requests{result=hit|null_hit|miss}、cache.lock.retries、cache.rebuild.time、
+ * cache.rebuild.rejected{reason}、cache.stale.served，以及Redis读取耗时直方图 cache.redis.get.time{op=get|mget}
+ * 每个前缀的计量器只注册一次，之后的记录只有一次Map查找；前缀数量超过上限的归入 other，避免标签基数失控
+ * 压缩相关指标（cache.compression.*）也统一在这里注册
+ */
+public class CacheMetrics {
+
+    // 拒绝回源的原因
+    public static final String REJECT_DB_BUDGET = "db_budget";     // 数据库回源预算耗尽
+    public static final String REJECT_QUEUE_FULL = "queue_full";   // 重建队列已满
+    public static final String REJECT_LOCK_TIMEOUT = "lock_timeout"; // 抢锁重试次数用尽
+
+    private static final String DEFAULT_PREFIX = "default";
+    private static final String OTHER_PREFIX = "other";
+
+    private final boolean enabled;
+    private final int maxPrefixes;
+    private final MeterRegistry meterRegistry;
+    // 前缀 -> 该前缀的计量器
+    private final ConcurrentMap<String, PrefixMeters> prefixMeters = new ConcurrentHashMap<>();
+    // 压缩指标（按压缩配置的前缀）
+    private final ConcurrentMap<String, DistributionSummary> ratioSummaries = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Timer> compressTimers = new ConcurrentHashMap<>();
+    private final Timer decompressTimer;
+
+    public CacheMetrics(CacheClientProperties.Metrics metricsConfig, MeterRegistry meterRegistry) {
+        this.enabled = metricsConfig.isEnabled();
+        this.maxPrefixes = metricsConfig.getMaxPrefixes();
+        this.meterRegistry = meterRegistry;
+        this.decompressTimer = Timer.builder("cache.compression.decompress.time")
+                .description("缓存值解压耗时")
+                .register(meterRegistry);
+    }
+
+    public void recordHit(String key) {
+        if (enabled) {
+            meters(key).hit.increment();
+        }
+    }
+
+    /**
+     * 命中空值（数据库中不存在的数据）
+     */
+    public void recordNullHit(String key) {
+        if (enabled) {
+            meters(key).nullHit.increment();
+        }
+    }
+
+    public void recordMiss(String key) {
+        if (enabled) {
+            meters(key).miss.increment();
+        }
+    }
+
+    /**
+     * 批量查询的命中统计（以第一个Key的前缀计）
+     */
+    public void recordBatch(String sampleKey, int hits, int misses) {
+        if (!enabled) {
+            return;
+        }
+        PrefixMeters meters = meters(sampleKey);
+        if (hits > 0) {
+            meters.hit.increment(hits);
+        }
+        if (misses > 0) {
+            meters.miss.increment(misses);
+        }
+    }
+
+    /**
+     * 抢锁失败后的等待重试
+     */
+    public void recordLockRetry(String key, int count) {
+        if (enabled && count > 0) {
+            meters(key).lockRetry.increment(count);
+        }
+    }
+
+    /**
+     * 因过载放弃回源（同步路径快速失败，异步路径继续返回旧数据）
+     */
+    public void recordRebuildRejected(String key, String reason) {
+        if (enabled) {
+            meters(key).rejected(reason).increment();
+        }
+    }
+
+    /**
+     * 返回了已逻辑过期的旧数据
+     */
+    public void recordStale(String key, int count) {
+        if (enabled && count > 0) {
+            meters(key).stale.increment(count);
+        }
+    }
+
+    /**
+     * 记录一次重建（查库 + 写回）的耗时
+     */
+    public <T> T timeRebuild(String key, Supplier<T> rebuild) {
+        if (!enabled) {
+            return rebuild.get();
+        }
+        long start = System.nanoTime();
+        try {
+            return rebuild.get();
+        } finally {
+            meters(key).rebuildTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * 记录一次Redis读取的耗时
+     */
+    public <T> T timeGet(String key, Supplier<T> get) {
+        if (!enabled) {
+            return get.get();
+        }
+        long start = System.nanoTime();
+        try {
+            return get.get();
+        } finally {
+            recordGet(key, System.nanoTime() - start);
+        }
+    }
+
+    public <T> T timeMultiGet(String sampleKey, Supplier<T> multiGet) {
+        if (!enabled) {
+            return multiGet.get();
+        }
+        long start = System.nanoTime();
+        try {
+            return multiGet.get();
+        } finally {
+            recordMultiGet(sampleKey, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * 记录一次Redis读取的耗时（异步读取在响应回调中调用）
+     */
+    public void recordGet(String key, long nanos) {
+        if (enabled) {
+            meters(key).getTimer.record(nanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    public void recordMultiGet(String sampleKey, long nanos) {
+        if (enabled) {
+            meters(sampleKey).multiGetTimer.record(nanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 压缩指标：压缩率（压缩后/压缩前）和压缩耗时
+     * @param prefix 压缩配置中匹配到的前缀
+     */
+    public void recordCompression(String prefix, long nanos, double ratio) {
+        compressTimers.computeIfAbsent(prefix, p -> Timer.builder("cache.compression.compress.time")
+                .description("缓存值压缩耗时")
+                .tag("prefix", p)
+                .register(meterRegistry)).record(nanos, TimeUnit.NANOSECONDS);
+        ratioSummaries.computeIfAbsent(prefix, p -> DistributionSummary.builder("cache.compression.ratio")
+                .description("缓存值压缩率（压缩后/压缩前）")
+                .tag("prefix", p)
+                .register(meterRegistry)).record(ratio);
+    }
+
+    public void recordDecompression(long nanos) {
+        decompressTimer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    private PrefixMeters meters(String key) {
+        String prefix = prefixOf(key);
+        PrefixMeters meters = prefixMeters.get(prefix);
+        if (meters != null) {
+            return meters;
+        }
+        if (prefixMeters.size() >= maxPrefixes) {
+            prefix = OTHER_PREFIX;
+        }
+        return prefixMeters.computeIfAbsent(prefix, PrefixMeters::new);
+    }
+
+    private static String prefixOf(String key) {
+        int index = key == null ? -1 : key.lastIndexOf(':');
+        return index < 0 ? DEFAULT_PREFIX : key.substring(0, index + 1);
+    }
+
+    private final class PrefixMeters {
+        private final String prefix;
+        private final Counter hit;
+        private final Counter nullHit;
+        private final Counter miss;
+        private final Counter lockRetry;
+        private final Counter stale;
+        private final Timer rebuildTimer;
+        private final Timer getTimer;
+        private final Timer multiGetTimer;
+        private final ConcurrentMap<String, Counter> rejected = new ConcurrentHashMap<>();
+
+        private PrefixMeters(String prefix) {
+            this.prefix = prefix;
+            this.hit = requests("hit");
+            this.nullHit = requests("null_hit");
+            this.miss = requests("miss");
+            this.lockRetry = Counter.builder("cache.lock.retries")
+                    .description("抢锁失败后的等待重试次数")
+                    .tag("prefix", prefix)
+                    .register(meterRegistry);
+            this.stale = Counter.builder("cache.stale.served")
+                    .description("返回逻辑过期旧数据的次数")
+                    .tag("prefix", prefix)
+                    .register(meterRegistry);
+            this.rebuildTimer = Timer.builder("cache.rebuild.time")
+                    .description("缓存重建（查库+写回）耗时")
+                    .tag("prefix", prefix)
+                    .register(meterRegistry);
+            this.getTimer = redisGetTimer("get");
+            this.multiGetTimer = redisGetTimer("mget");
+        }
+
+        private Counter requests(String result) {
+            return Counter.builder("cache.requests")
+                    .description("缓存查询结果")
+                    .tag("prefix", prefix)
+                    .tag("result", result)
+                    .register(meterRegistry);
+        }
+
+        private Timer redisGetTimer(String op) {
+            // 固定范围的直方图桶（0.1ms ~ 1s），只做桶计数，不在本地计算百分位
+            return Timer.builder("cache.redis.get.time")
+                    .description("Redis读取耗时")
+                    .tag("prefix", prefix)
+                    .tag("op", op)
+                    .publishPercentileHistogram()
+                    .minimumExpectedValue(Duration.ofNanos(100_000))
+                    .maximumExpectedValue(Duration.ofSeconds(1))
+                    .register(meterRegistry);
+        }
+
+        private Counter rejected(String reason) {
+            return rejected.computeIfAbsent(reason, r -> Counter.builder("cache.rebuild.rejected")
+                    .description("因过载放弃回源的次数")
+                    .tag("prefix", prefix)
+                    .tag("reason", r)
+                    .register(meterRegistry));
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package com.hmdp.cache.near;
+
+import cn.hutool.core.util.StrUtil;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.hmdp.cache.config.CacheClientProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 近端缓存（L1）：进程内缓存已反序列化的对象，按容量 + TTL淘汰
+ * 热点Key额外保存一份固定副本（pin），不受容量淘汰，逻辑过期后由调用方异步刷新
+ * Key被重写或删除时，通过Redis发布/订阅通知其他实例失效本地副本
+ * 注意：缓存对象在线程间共享，调用方不应修改返回的对象
+ */
+@Slf4j
+public class NearCache implements MessageListener {
+
+    // 消息格式：实例ID|缓存Key1\n缓存Key2...
+    private static final String SEPARATOR = "|";
+    private static final String KEY_SEPARATOR = "\n";
+
+    private final boolean enabled;
+    private final List<String> prefixes;
+    private final String channel;
+    private final String instanceId;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final Cache<String, Object> cache;
+    // 热点Key的固定副本
+    private final ConcurrentMap<String, PinnedEntry> pinned = new ConcurrentHashMap<>();
+
+    public NearCache(CacheClientProperties.Near nearConfig, String instanceId, StringRedisTemplate stringRedisTemplate) {
+        this.enabled = nearConfig.isEnabled();
+        this.prefixes = nearConfig.getPrefixes();
+        this.channel = nearConfig.getChannel();
+        this.instanceId = instanceId;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(nearConfig.getMaximumSize())
+                .expireAfterWrite(nearConfig.getExpireAfterWriteSeconds(), TimeUnit.SECONDS)
+                .build();
+    }
+
+    /**
+     * 读取本地缓存（类型不匹配视为未命中）
+     */
+    public <T> T get(String key, Class<T> type) {
+        if (!isCacheable(key)) {
+            return null;
+        }
+        Object value = cache.getIfPresent(key);
+        return type.isInstance(value) ? type.cast(value) : null;
+    }
+
+    /**
+     * 写入本地缓存（仅当前实例）
+     */
+    public void put(String key, Object value) {
+        if (value == null || !isCacheable(key)) {
+            return;
+        }
+        cache.put(key, value);
+    }
+
+    /**
+     * Key被重写：本地更新为新值，通知其他实例失效
+     */
+    public void onWrite(String key, Object value) {
+        if (!isCacheable(key)) {
+            return;
+        }
+        if (value == null || "".equals(value)) {
+            cache.invalidate(key);
+            pinned.remove(key);
+        } else {
+            cache.put(key, value);
+            renewPinned(key, value);
+        }
+        publish(key);
+    }
+
+    /**
+     * 批量重写：本地更新为新值，合并成一条通知发给其他实例
+     */
+    public void onWrite(Map<String, Object> values) {
+        List<String> keys = new ArrayList<>();
+        for (Map.Entry<String, Object> entry : values.entrySet()) {
+            String key = entry.getKey();
+            if (!isCacheable(key)) {
+                continue;
+            }
+            Object value = entry.getValue();
+            if (value == null || "".equals(value)) {
+                cache.invalidate(key);
+                pinned.remove(key);
+            } else {
+                cache.put(key, value);
+                renewPinned(key, value);
+            }
+            keys.add(key);
+        }
+        if (!keys.isEmpty()) {
+            publish(String.join(KEY_SEPARATOR, keys));
+        }
+    }
+
+    /**
+     * Key被删除：本地失效，通知其他实例失效
+     */
+    public void evict(String key) {
+        if (!isCacheable(key)) {
+            return;
+        }
+        cache.invalidate(key);
+        pinned.remove(key);
+        publish(key);
+    }
+
+    /**
+     * 固定热点Key的副本（仅当前实例）
+     * @param ttlMillis 副本的逻辑过期时间，过期后仍可读取，由调用方异步刷新
+     */
+    public void pin(String key, Object value, long ttlMillis) {
+        if (value == null || "".equals(value) || !isCacheable(key)) {
+            return;
+        }
+        pinned.put(key, new PinnedEntry(value, ttlMillis));
+    }
+
+    /**
+     * 读取热点Key的固定副本（不存在返回null）
+     */
+    public PinnedEntry getPinned(String key) {
+        return enabled ? pinned.get(key) : null;
+    }
+
+    /**
+     * 取消固定（热点冷却）
+     */
+    public void unpin(String key) {
+        pinned.remove(key);
+    }
+
+    public int pinnedSize() {
+        return pinned.size();
+    }
+
+    /**
+     * 接收其他实例的失效通知
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int index = body.indexOf(SEPARATOR);
+        if (index < 0) {
+            return;
+        }
+        // 自己发出的通知忽略（本地已是最新值）
+        if (instanceId.equals(body.substring(0, index))) {
+            return;
+        }
+        List<String> keys = Arrays.asList(body.substring(index + 1).split(KEY_SEPARATOR));
+        cache.invalidateAll(keys);
+        keys.forEach(pinned::remove);
+        log.debug("收到近端缓存失效通知，keys: {}", keys);
+    }
+
+    public String getChannel() {
+        return channel;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    private boolean isCacheable(String key) {
+        if (!enabled || StrUtil.isBlank(key)) {
+            return false;
+        }
+        for (String prefix : prefixes) {
+            if (key.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Key被重写：已固定的副本更新为新值并重新计算逻辑过期时间
+    private void renewPinned(String key, Object value) {
+        pinned.computeIfPresent(key, (k, entry) -> new PinnedEntry(value, entry.ttlMillis));
+    }
+
+    private void publish(String keys) {
+        try {
+            stringRedisTemplate.convertAndSend(channel, instanceId + SEPARATOR + keys);
+        } catch (Exception e) {
+            // 通知失败只影响其他实例的一致性窗口（最长为本地TTL），不影响主流程
+            log.warn("发布近端缓存失效通知失败，keys: {}", keys, e);
+        }
+    }
+
+    /**
+     * 热点Key的固定副本：值 + 逻辑过期时间
+     */
+    public static final class PinnedEntry {
+        private final Object value;
+        private final long ttlMillis;
+        private final long expireAt;
+
+        private PinnedEntry(Object value, long ttlMillis) {
+            this.value = value;
+            this.ttlMillis = ttlMillis;
+            this.expireAt = System.currentTimeMillis() + ttlMillis;
+        }
+
+        public Object getValue() {
+            return value;
+        }
+
+        public boolean isExpired() {
+            return System.currentTimeMillis() >= expireAt;
+        }
+    }
+}
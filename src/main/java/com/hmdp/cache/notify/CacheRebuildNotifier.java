@@ -0,0 +1,109 @@
+package com.hmdp.cache.notify;
+
+import com.hmdp.cache.config.CacheClientProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 缓存重建通知：持锁者重建完成后发布"已重建"事件，抢锁失败的线程阻塞等待该事件（带超时），代替固定休眠轮询
+ * 同一Key在本实例内的等待者共享一个Future，每个Key只需一次订阅匹配
+ */
+@Slf4j
+public class CacheRebuildNotifier implements MessageListener {
+
+    private final boolean enabled;
+    private final String channel;
+    private final long timeoutMillis;
+    private final StringRedisTemplate stringRedisTemplate;
+    // 等待中的Key -> 重建完成信号
+    private final ConcurrentMap<String, CompletableFuture<Void>> waiters = new ConcurrentHashMap<>();
+
+    public CacheRebuildNotifier(CacheClientProperties.Mutex mutexConfig, StringRedisTemplate stringRedisTemplate) {
+        this.enabled = mutexConfig.getWaitMode() == CacheClientProperties.WaitMode.NOTIFY;
+        this.channel = mutexConfig.getChannel();
+        this.timeoutMillis = mutexConfig.getNotifyTimeoutMillis();
+        this.stringRedisTemplate = stringRedisTemplate;
+    }
+
+    /**
+     * 登记等待（必须在重查缓存之前登记，避免重建恰好在两者之间完成而错过通知）
+     */
+    public CompletableFuture<Void> register(String key) {
+        return waiters.computeIfAbsent(key, k -> new CompletableFuture<>());
+    }
+
+    /**
+     * 阻塞等待重建通知
+     * @return true：收到通知；false：超时（持锁者可能宕机或通知丢失，调用方应重新抢锁）
+     */
+    public boolean await(String key, CompletableFuture<Void> signal) throws InterruptedException {
+        try {
+            signal.get(timeoutMillis, TimeUnit.MILLISECONDS);
+            return true;
+        } catch (TimeoutException e) {
+            // 超时：移除本次信号，下次等待重新登记
+            waiters.remove(key, signal);
+            return false;
+        } catch (ExecutionException e) {
+            return true;
+        }
+    }
+
+    /**
+     * 等待超时（供非阻塞等待方使用）：移除并完成本次信号，等待方随后重查缓存或重新抢锁
+     */
+    public void expire(String key, CompletableFuture<Void> signal) {
+        waiters.remove(key, signal);
+        signal.complete(null);
+    }
+
+    /**
+     * 发布重建完成通知（本实例的等待者直接唤醒，其他实例通过频道唤醒）
+     */
+    public void publish(String key) {
+        if (!enabled) {
+            return;
+        }
+        wakeUp(key);
+        try {
+            stringRedisTemplate.convertAndSend(channel, key);
+        } catch (Exception e) {
+            // 通知失败：其他实例的等待者会在超时后重查缓存
+            log.warn("发布缓存重建通知失败，key: {}", key, e);
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        wakeUp(new String(message.getBody(), StandardCharsets.UTF_8));
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public String getChannel() {
+        return channel;
+    }
+
+    public long getTimeoutMillis() {
+        return timeoutMillis;
+    }
+
+    private void wakeUp(String key) {
+        CompletableFuture<Void> signal = waiters.remove(key);
+        if (signal != null) {
+            signal.complete(null);
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.hmdp.cache.rebuild;
+
+import com.hmdp.cache.config.CacheClientProperties;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * 缓存重建调度：按缓存Key去重、按热度排序、按分组合并批量查库
+ * 1. 同一Key在排队或重建期间重复提交直接丢弃（调用方释放锁、返回旧数据）
+ * 2. 队列按优先级（热点Key的估计访问次数）降序出队，同优先级先进先出
+ * 3. 出队时把队列中同一分组的其他任务一起取出，合并为一次批量重建
+ * 4. 待重建Key数量达到上限时丢弃新任务，不阻塞、也不占用请求线程查库
+ */
+@Slf4j
+public class CacheRebuildScheduler {
+
+    private final int queueCapacity;
+    private final int maxBatchSize;
+    private final PriorityBlockingQueue<RebuildTask<?>> queue;
+    // 排队或重建中的任务：缓存Key -> 任务
+    private final ConcurrentMap<String, RebuildTask<?>> pending = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicLong shedCount = new AtomicLong();
+    private final ExecutorService workers;
+
+    public CacheRebuildScheduler(CacheClientProperties.Rebuild rebuildConfig) {
+        this.queueCapacity = rebuildConfig.getQueueCapacity();
+        this.maxBatchSize = rebuildConfig.getMaxBatchSize();
+        this.queue = new PriorityBlockingQueue<>(64, Comparator
+                .comparingLong((RebuildTask<?> t) -> -t.priority)
+                .thenComparingLong(t -> t.seq));
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(rebuildConfig.getWorkers(), r -> {
+            Thread thread = new Thread(r, "cache-rebuild-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < rebuildConfig.getWorkers(); i++) {
+            workers.execute(this::runLoop);
+        }
+    }
+
+    /**
+     * 提交重建任务
+     * @param group 合并分组，同一分组的任务必须能用同一个批量重建回调处理（如 业务类型+DTO类型+过期时间）
+     * @param key 缓存Key（去重依据）
+     * @param payload 重建参数（通常是DTO）
+     * @param priority 优先级，越大越先重建
+     * @param rebuilder 批量重建回调，入参为同一分组合并后的参数列表
+     * @param onDone 重建结束（无论成功失败）后的回调，通常用于释放锁
+     * @return 是否已接受；重复提交或过载丢弃时返回false，由调用方自行收尾（不会调用onDone）
+     */
+    public <T> boolean submit(String group, String key, T payload, long priority,
+                              Consumer<List<T>> rebuilder, Runnable onDone) {
+        RebuildTask<T> task = new RebuildTask<>(group, key, payload, priority,
+                sequence.getAndIncrement(), rebuilder, onDone);
+        if (pending.putIfAbsent(key, task) != null) {
+            return false;
+        }
+        if (pending.size() > queueCapacity) {
+            pending.remove(key, task);
+            long shed = shedCount.incrementAndGet();
+            if (shed % 100 == 1) {
+                log.warn("缓存重建队列已满，丢弃重建任务，key: {}，累计丢弃：{}", key, shed);
+            }
+            return false;
+        }
+        queue.offer(task);
+        return true;
+    }
+
+    /**
+     * 当前排队和重建中的Key数量
+     */
+    public int pendingSize() {
+        return pending.size();
+    }
+
+    /**
+     * 因过载丢弃的重建任务数
+     */
+    public long getShedCount() {
+        return shedCount.get();
+    }
+
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    private void runLoop() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                RebuildTask<?> head = queue.take();
+                execute(collectBatch(head));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Throwable e) {
+                log.error("缓存重建线程异常", e);
+            }
+        }
+    }
+
+    /**
+     * 从队列中取出与队首同一分组的任务（按队列遍历顺序，最多maxBatchSize个）
+     */
+    private List<RebuildTask<?>> collectBatch(RebuildTask<?> head) {
+        List<RebuildTask<?>> batch = new ArrayList<>();
+        batch.add(head);
+        Iterator<RebuildTask<?>> iterator = queue.iterator();
+        while (batch.size() < maxBatchSize && iterator.hasNext()) {
+            RebuildTask<?> task = iterator.next();
+            if (head.group.equals(task.group) && queue.remove(task)) {
+                batch.add(task);
+            }
+        }
+        return batch;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> void execute(List<RebuildTask<?>> batch) {
+        RebuildTask<T> head = (RebuildTask<T>) batch.get(0);
+        List<T> payloads = new ArrayList<>(batch.size());
+        for (RebuildTask<?> task : batch) {
+            payloads.add(((RebuildTask<T>) task).payload);
+        }
+        try {
+            head.rebuilder.accept(payloads);
+        } catch (Exception e) {
+            log.error("缓存重建失败，分组：{}，数量：{}", head.group, batch.size(), e);
+        } finally {
+            for (RebuildTask<?> task : batch) {
+                pending.remove(task.key, task);
+                try {
+                    task.onDone.run();
+                } catch (Exception e) {
+                    log.warn("缓存重建收尾失败，key: {}", task.key, e);
+                }
+            }
+        }
+    }
+
+    private static final class RebuildTask<T> {
+        private final String group;
+        private final String key;
+        private final T payload;
+        private final long priority;
+        private final long seq;
+        private final Consumer<List<T>> rebuilder;
+        private final Runnable onDone;
+
+        private RebuildTask(String group, String key, T payload, long priority, long seq,
+                            Consumer<List<T>> rebuilder, Runnable onDone) {
+            this.group = group;
+            this.key = key;
+            this.payload = payload;
+            this.priority = priority;
+            this.seq = seq;
+            this.rebuilder = rebuilder;
+            this.onDone = onDone;
+        }
+    }
+}
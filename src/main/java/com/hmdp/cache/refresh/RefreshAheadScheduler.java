@@ -0,0 +1,126 @@
+package com.hmdp.cache.refresh;
+
+import com.hmdp.cache.config.CacheClientProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * 逻辑过期Key的提前刷新：写入逻辑过期数据时把Key记入ZSET（分数为逻辑过期时间戳），
+ * 后台定时领取即将过期的Key交给处理器批量重建，使读请求尽量读不到过期数据
+ * 领取时把分数推迟到租约到期，多实例不会重复刷新；刷新成功后重新写入会把分数更新为新的过期时间
+ */
+@Slf4j
+public class RefreshAheadScheduler {
+
+    @SuppressWarnings("rawtypes")
+    private static final DefaultRedisScript<List> CLAIM_SCRIPT;
+
+    static {
+        CLAIM_SCRIPT = new DefaultRedisScript<>();
+        CLAIM_SCRIPT.setLocation(new ClassPathResource("lua/refresh_ahead_claim.lua"));
+        CLAIM_SCRIPT.setResultType(List.class);
+    }
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final boolean enabled;
+    private final String zsetKey;
+    private final long lookaheadMillis;
+    private final int batchSize;
+    private final long claimMillis;
+    private final ScheduledExecutorService executor;
+    // 领取到的Key的处理器（由CacheClient注册）
+    private volatile Consumer<List<String>> handler;
+
+    public RefreshAheadScheduler(CacheClientProperties.RefreshAhead refreshAheadConfig,
+                                 StringRedisTemplate stringRedisTemplate) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.enabled = refreshAheadConfig.isEnabled();
+        this.zsetKey = refreshAheadConfig.getZsetKey();
+        this.lookaheadMillis = TimeUnit.SECONDS.toMillis(refreshAheadConfig.getLookaheadSeconds());
+        this.batchSize = refreshAheadConfig.getBatchSize();
+        this.claimMillis = TimeUnit.SECONDS.toMillis(refreshAheadConfig.getClaimSeconds());
+        if (enabled) {
+            this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "cache-refresh-ahead");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long interval = refreshAheadConfig.getIntervalMillis();
+            executor.scheduleWithFixedDelay(this::poll, interval, interval, TimeUnit.MILLISECONDS);
+        } else {
+            this.executor = null;
+        }
+    }
+
+    public void setHandler(Consumer<List<String>> handler) {
+        this.handler = handler;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public String getZsetKey() {
+        return zsetKey;
+    }
+
+    public long getLookaheadMillis() {
+        return lookaheadMillis;
+    }
+
+    /**
+     * 记录（或更新）Key的逻辑过期时间
+     */
+    public void track(String key, long expireAtMillis) {
+        stringRedisTemplate.opsForZSet().add(zsetKey, key, expireAtMillis);
+    }
+
+    /**
+     * 不再提前刷新（数据已删除或不再是逻辑过期数据）
+     */
+    public void untrack(Collection<String> keys) {
+        if (keys.isEmpty()) {
+            return;
+        }
+        stringRedisTemplate.opsForZSet().remove(zsetKey, keys.toArray());
+    }
+
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void poll() {
+        Consumer<List<String>> currentHandler = handler;
+        if (currentHandler == null) {
+            return;
+        }
+        try {
+            long now = System.currentTimeMillis();
+            List<String> keys = stringRedisTemplate.execute(
+                    CLAIM_SCRIPT,
+                    Collections.singletonList(zsetKey),
+                    String.valueOf(now + lookaheadMillis),
+                    String.valueOf(batchSize),
+                    String.valueOf(now + claimMillis)
+            );
+            if (keys != null && !keys.isEmpty()) {
+                currentHandler.accept(keys);
+            }
+        } catch (Exception e) {
+            log.error("提前刷新逻辑过期缓存异常", e);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.hmdp.cache.ttl;
+
+import com.hmdp.cache.config.CacheClientProperties;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 过期时间随机抖动：在原过期时长上随机增加 [0, 比例 * 过期时长]，比例按Key前缀配置（最长前缀优先），
+ * 使同一时刻批量写入的缓存分散过期，避免集中失效后同时回源数据库（缓存雪崩）
+ */
+public class TtlJitter {
+
+    private final boolean enabled;
+    private final double defaultRatio;
+    private final Map<String, Double> prefixRatios;
+
+    public TtlJitter(CacheClientProperties.Jitter jitterConfig) {
+        this.enabled = jitterConfig.isEnabled();
+        this.defaultRatio = jitterConfig.getDefaultRatio();
+        this.prefixRatios = jitterConfig.getPrefixRatios();
+    }
+
+    /**
+     * 物理过期时长（毫秒）加抖动
+     */
+    public long apply(String key, long ttlMillis) {
+        if (!enabled || ttlMillis <= 0) {
+            return ttlMillis;
+        }
+        long maxJitter = (long) (ttlMillis * ratio(key));
+        if (maxJitter <= 0) {
+            return ttlMillis;
+        }
+        return ttlMillis + ThreadLocalRandom.current().nextLong(maxJitter + 1);
+    }
+
+    /**
+     * 物理过期时长加抖动
+     */
+    public Duration apply(String key, Duration ttl) {
+        return Duration.ofMillis(apply(key, ttl.toMillis()));
+    }
+
+    /**
+     * 逻辑过期时间加抖动（按距当前的剩余时长计算）
+     */
+    public LocalDateTime apply(String key, LocalDateTime expireTime) {
+        if (!enabled || expireTime == null) {
+            return expireTime;
+        }
+        long ttlMillis = Duration.between(LocalDateTime.now(), expireTime).toMillis();
+        if (ttlMillis <= 0) {
+            return expireTime;
+        }
+        return expireTime.plusNanos((apply(key, ttlMillis) - ttlMillis) * 1_000_000L);
+    }
+
+    /**
+     * 匹配最长的已配置前缀，未匹配时使用默认比例
+     */
+    private double ratio(String key) {
+        String matched = null;
+        for (String prefix : prefixRatios.keySet()) {
+            if (key.startsWith(prefix) && (matched == null || prefix.length() > matched.length())) {
+                matched = prefix;
+            }
+        }
+        return matched == null ? defaultRatio : prefixRatios.get(matched);
+    }
+}
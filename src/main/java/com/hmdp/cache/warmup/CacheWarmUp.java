@@ -0,0 +1,241 @@
+package com.hmdp.cache.warmup;
+
+import com.hmdp.cache.config.CacheClientProperties;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 缓存预热：按注册顺序依次执行预热任务
+ * 1. 任务在预热线程中按主键游标分页读取数据库，每页的序列化和管道写入交给写入线程池并行执行
+ * 2. 写入线程池队列满时由预热线程自己写入，读取速度不会超过写入速度，内存中最多只有少量待写入的页
+ * 3. 首次预热结束前 isReady() 为false，由健康检查把实例标记为未就绪，避免冷缓存接入流量；
+ *    预热失败也会结束未就绪状态（记录错误），缓存未命中仍由数据库回源预算兜底
+ * 4. 活动开始前可再次触发预热，期间实例保持就绪
+ */
+@Slf4j
+public class CacheWarmUp {
+
+    private final boolean enabled;
+    private final int pageSize;
+    // 预热任务（按注册顺序执行）
+    private final Map<String, WarmUpTask> tasks = new LinkedHashMap<>();
+    private final ExecutorService coordinator;
+    private final ThreadPoolExecutor writers;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile boolean ready;
+    // 最近一次预热的进度
+    private volatile Map<String, TaskProgress> lastProgress = Collections.emptyMap();
+
+    public CacheWarmUp(CacheClientProperties.WarmUp warmUpConfig) {
+        this.enabled = warmUpConfig.isEnabled();
+        this.pageSize = warmUpConfig.getPageSize();
+        // 未启用预热时直接就绪
+        this.ready = !enabled;
+        if (enabled) {
+            this.coordinator = Executors.newSingleThreadExecutor(r -> {
+                Thread thread = new Thread(r, "cache-warmup");
+                thread.setDaemon(true);
+                return thread;
+            });
+            int threads = warmUpConfig.getWriterThreads();
+            AtomicInteger threadIndex = new AtomicInteger();
+            this.writers = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(threads),
+                    r -> {
+                        Thread thread = new Thread(r, "cache-warmup-writer-" + threadIndex.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    },
+                    new ThreadPoolExecutor.CallerRunsPolicy());
+        } else {
+            this.coordinator = null;
+            this.writers = null;
+        }
+    }
+
+    /**
+     * 注册预热任务（同名任务覆盖）
+     */
+    public void register(String name, WarmUpTask task) {
+        synchronized (tasks) {
+            tasks.put(name, task);
+        }
+    }
+
+    /**
+     * 在后台开始一次预热
+     * @return 是否已开始；未启用或上一次预热尚未结束时返回false
+     */
+    public boolean start() {
+        if (!enabled || !running.compareAndSet(false, true)) {
+            return false;
+        }
+        List<Map.Entry<String, WarmUpTask>> snapshot;
+        Map<String, TaskProgress> progress = new LinkedHashMap<>();
+        synchronized (tasks) {
+            snapshot = new ArrayList<>(tasks.entrySet());
+        }
+        for (Map.Entry<String, WarmUpTask> entry : snapshot) {
+            progress.put(entry.getKey(), new TaskProgress());
+        }
+        lastProgress = progress;
+        coordinator.execute(() -> {
+            long start = System.currentTimeMillis();
+            try {
+                for (Map.Entry<String, WarmUpTask> entry : snapshot) {
+                    runTask(entry.getKey(), entry.getValue(), progress.get(entry.getKey()));
+                }
+                log.info("缓存预热结束，耗时{}ms", System.currentTimeMillis() - start);
+            } finally {
+                ready = true;
+                running.set(false);
+            }
+        });
+        return true;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 首次预热是否已结束（未启用预热时始终为true）
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    /**
+     * 最近一次预热的进度：任务名 -> 状态、已写入条数、耗时、失败原因
+     */
+    public Map<String, Object> progress() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        for (Map.Entry<String, TaskProgress> entry : lastProgress.entrySet()) {
+            result.put(entry.getKey(), entry.getValue().toMap());
+        }
+        return result;
+    }
+
+    public void shutdown() {
+        if (coordinator != null) {
+            coordinator.shutdownNow();
+            writers.shutdownNow();
+        }
+    }
+
+    private void runTask(String name, WarmUpTask task, TaskProgress progress) {
+        progress.startTime = System.currentTimeMillis();
+        progress.status = Status.RUNNING;
+        Context context = new Context(progress);
+        try {
+            task.run(context);
+            context.await();
+            progress.finish(Status.DONE, null);
+            log.info("缓存预热完成：{}，共{}条，耗时{}ms", name, progress.written.get(), progress.elapsedMillis());
+        } catch (Exception e) {
+            progress.finish(Status.FAILED, e.toString());
+            log.error("缓存预热失败：{}，已写入{}条", name, progress.written.get(), e);
+        }
+    }
+
+    /**
+     * 预热任务的执行上下文
+     */
+    public final class Context {
+
+        private final TaskProgress progress;
+        private final List<CompletableFuture<Void>> pending = new ArrayList<>();
+
+        private Context(TaskProgress progress) {
+            this.progress = progress;
+        }
+
+        /**
+         * 每页读取的条数
+         */
+        public int getPageSize() {
+            return pageSize;
+        }
+
+        /**
+         * 记录已读取的条数
+         */
+        public void read(int count) {
+            progress.read.addAndGet(count);
+        }
+
+        /**
+         * 提交一页数据的写入（序列化 + 管道写入），写入线程池忙时在当前线程执行
+         * @param count 该页的条数（写入成功后计入进度）
+         */
+        public void write(int count, Runnable writer) {
+            pending.add(CompletableFuture.runAsync(() -> {
+                writer.run();
+                progress.written.addAndGet(count);
+            }, writers));
+        }
+
+        /**
+         * 等待已提交的写入全部结束，任一页写入失败时抛出异常
+         */
+        private void await() {
+            CompletableFuture.allOf(pending.toArray(new CompletableFuture[0])).join();
+        }
+    }
+
+    private enum Status {
+        PENDING, RUNNING, DONE, FAILED
+    }
+
+    private static final class TaskProgress {
+        private volatile Status status = Status.PENDING;
+        private final AtomicLong read = new AtomicLong();
+        private final AtomicLong written = new AtomicLong();
+        private volatile long startTime;
+        private volatile long endTime;
+        private volatile String error;
+
+        private void finish(Status finalStatus, String errorMessage) {
+            endTime = System.currentTimeMillis();
+            error = errorMessage;
+            status = finalStatus;
+        }
+
+        private long elapsedMillis() {
+            if (startTime == 0) {
+                return 0;
+            }
+            return (endTime == 0 ? System.currentTimeMillis() : endTime) - startTime;
+        }
+
+        private Map<String, Object> toMap() {
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("status", status);
+            result.put("read", read.get());
+            result.put("written", written.get());
+            result.put("elapsedMillis", elapsedMillis());
+            if (error != null) {
+                result.put("error", error);
+            }
+            return result;
+        }
+    }
+}
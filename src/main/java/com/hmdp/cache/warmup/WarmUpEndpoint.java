@@ -0,0 +1,40 @@
+package com.hmdp.cache.warmup;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 缓存预热端点：GET /actuator/warmup 查看进度，POST /actuator/warmup 触发预热（如活动开始前）
+ * 会全表扫描并批量写Redis，默认不通过Web暴露，只应在内网管理端口上开放
+ */
+@Endpoint(id = "warmup")
+public class WarmUpEndpoint {
+
+    private final CacheWarmUp cacheWarmUp;
+
+    public WarmUpEndpoint(CacheWarmUp cacheWarmUp) {
+        this.cacheWarmUp = cacheWarmUp;
+    }
+
+    @ReadOperation
+    public Map<String, Object> progress() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", cacheWarmUp.isEnabled());
+        result.put("ready", cacheWarmUp.isReady());
+        result.put("running", cacheWarmUp.isRunning());
+        result.put("tasks", cacheWarmUp.progress());
+        return result;
+    }
+
+    @WriteOperation
+    public Map<String, Object> start() {
+        boolean started = cacheWarmUp.start();
+        Map<String, Object> result = progress();
+        result.put("started", started);
+        return result;
+    }
+}
@@ -0,0 +1,26 @@
+package com.hmdp.cache.warmup;
+
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+
+/**
+ * 缓存预热健康检查：首次预热结束前返回 OUT_OF_SERVICE
+ * 加入 readiness 健康组后，预热中的实例不会接入流量
+ */
+public class WarmUpHealthIndicator implements HealthIndicator {
+
+    private final CacheWarmUp cacheWarmUp;
+
+    public WarmUpHealthIndicator(CacheWarmUp cacheWarmUp) {
+        this.cacheWarmUp = cacheWarmUp;
+    }
+
+    @Override
+    public Health health() {
+        Health.Builder builder = cacheWarmUp.isReady() ? Health.up() : Health.outOfService();
+        return builder
+                .withDetail("running", cacheWarmUp.isRunning())
+                .withDetail("tasks", cacheWarmUp.progress())
+                .build();
+    }
+}
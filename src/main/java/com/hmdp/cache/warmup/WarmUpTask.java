@@ -0,0 +1,10 @@
+package com.hmdp.cache.warmup;
+
+/**
+ * 缓存预热任务：在预热线程中按页读取数据库，每页通过 {@link CacheWarmUp.Context#write} 交给写入线程池
+ */
+@FunctionalInterface
+public interface WarmUpTask {
+
+    void run(CacheWarmUp.Context context) throws Exception;
+}
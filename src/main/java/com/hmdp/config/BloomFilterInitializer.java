@@ -0,0 +1,82 @@
+package com.hmdp.config;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.hmdp.cache.bloom.BloomFilterService;
+import com.hmdp.cache.config.CacheClientProperties;
+import com.hmdp.mapper.BlogMapper;
+import com.hmdp.mapper.ShopMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+import static com.hmdp.utils.RedisConstants.*;
+
+/**
+ * 启动时注册店铺/博客布隆过滤器，并从数据库按主键分页加载全部ID
+ * 加载在后台线程进行，完成前过滤器一律放行；新增数据由业务代码在插入后写入过滤器
+ */
+@Slf4j
+@Component
+public class BloomFilterInitializer implements ApplicationRunner {
+
+    @Autowired
+    private BloomFilterService bloomFilterService;
+    @Autowired
+    private CacheClientProperties cacheClientProperties;
+    @Autowired
+    private ShopMapper shopMapper;
+    @Autowired
+    private BlogMapper blogMapper;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!bloomFilterService.isEnabled()) {
+            return;
+        }
+        // 店铺过滤器绑定店铺缓存前缀，由CacheClient自动拦截；博客过滤器由业务代码直接判定
+        bloomFilterService.register(BLOOM_SHOP_KEY, CACHE_SHOP_KEY);
+        bloomFilterService.register(BLOOM_BLOG_KEY, null);
+
+        Thread loader = new Thread(() -> {
+            load(BLOOM_SHOP_KEY, shopMapper);
+            load(BLOOM_BLOG_KEY, blogMapper);
+        }, "bloom-filter-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    private <T> void load(String name, BaseMapper<T> mapper) {
+        int pageSize = cacheClientProperties.getBloom().getLoadPageSize();
+        long lastId = 0;
+        long total = 0;
+        try {
+            while (true) {
+                // 按主键游标分页，避免深分页
+                List<Object> ids = mapper.selectObjs(new QueryWrapper<T>()
+                        .select("id")
+                        .gt("id", lastId)
+                        .orderByAsc("id")
+                        .last("LIMIT " + pageSize));
+                if (ids.isEmpty()) {
+                    break;
+                }
+                bloomFilterService.addAll(name, ids);
+                total += ids.size();
+                lastId = ((Number) ids.get(ids.size() - 1)).longValue();
+                if (ids.size() < pageSize) {
+                    break;
+                }
+            }
+            bloomFilterService.markReady(name);
+            log.info("布隆过滤器加载完成：{}，共{}个ID", name, total);
+        } catch (Exception e) {
+            // 加载失败时保持未就绪（一律放行），穿透仍由缓存空值兜底
+            log.error("布隆过滤器加载失败：{}", name, e);
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package com.hmdp.config;
+
+import cn.hutool.json.JSONUtil;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.hmdp.cache.ttl.TtlJitter;
+import com.hmdp.cache.warmup.CacheWarmUp;
+import com.hmdp.entity.SeckillVoucher;
+import com.hmdp.entity.Shop;
+import com.hmdp.entity.ShopType;
+import com.hmdp.mapper.SeckillVoucherMapper;
+import com.hmdp.mapper.ShopMapper;
+import com.hmdp.mapper.ShopTypeMapper;
+import com.hmdp.utils.CacheClient;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.geo.Point;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static com.hmdp.utils.RedisConstants.*;
+
+/**
+ * 注册缓存预热任务，并在启动时开始预热：
+ * 1. 店铺：店铺缓存（SET NX PX，已有缓存不覆盖，带版本校验） + 按类型分组的GEO
+ * 2. 店铺类型：整体写入同槽位的临时Key后RENAME，读请求不会读到部分列表
+ * 3. 未结束的秒杀券库存：SET NX，不覆盖Redis中已预扣的库存
+ * 数据库均按主键游标分页读取，避免深分页
+ */
+@Slf4j
+@Component
+public class CacheWarmUpInitializer implements ApplicationRunner {
+
+    @Autowired
+    private CacheWarmUp cacheWarmUp;
+    @Autowired
+    private CacheClient cacheClient;
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+    @Autowired
+    private TtlJitter ttlJitter;
+    @Autowired
+    private ShopMapper shopMapper;
+    @Autowired
+    private ShopTypeMapper shopTypeMapper;
+    @Autowired
+    private SeckillVoucherMapper seckillVoucherMapper;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!cacheWarmUp.isEnabled()) {
+            return;
+        }
+        cacheWarmUp.register("shop", this::warmUpShops);
+        cacheWarmUp.register("shopType", this::warmUpShopTypes);
+        cacheWarmUp.register("seckillStock", this::warmUpSeckillStocks);
+        cacheWarmUp.start();
+    }
+
+    private void warmUpShops(CacheWarmUp.Context context) {
+        int pageSize = context.getPageSize();
+        long lastId = 0;
+        while (true) {
+            // 先只查本页ID并读取缓存版本号，再按ID查店铺：查询期间被更新的店铺写入时因版本变化被拒绝
+            List<Long> ids = shopMapper.selectList(new QueryWrapper<Shop>()
+                    .select("id")
+                    .gt("id", lastId)
+                    .orderByAsc("id")
+                    .last("LIMIT " + pageSize))
+                    .stream().map(Shop::getId).collect(Collectors.toList());
+            if (ids.isEmpty()) {
+                break;
+            }
+            Map<String, String> versions = cacheClient.readVersions(
+                    ids.stream().map(id -> CACHE_SHOP_KEY + id).collect(Collectors.toList()));
+            List<Shop> shops = shopMapper.selectBatchIds(ids);
+            context.read(shops.size());
+            context.write(shops.size(), () -> writeShops(shops, versions));
+            lastId = ids.get(ids.size() - 1);
+            if (ids.size() < pageSize) {
+                break;
+            }
+        }
+    }
+
+    private void writeShops(List<Shop> shops, Map<String, String> versions) {
+        Map<String, Shop> values = new LinkedHashMap<>(shops.size() * 2);
+        Map<String, Map<String, Point>> geoLocations = new HashMap<>();
+        for (Shop shop : shops) {
+            values.put(CACHE_SHOP_KEY + shop.getId(), shop);
+            if (shop.getX() != null && shop.getY() != null) {
+                geoLocations.computeIfAbsent(SHOP_GEO_KEY + shop.getTypeId(), k -> new HashMap<>())
+                        .put(shop.getId().toString(), new Point(shop.getX(), shop.getY()));
+            }
+        }
+        cacheClient.setAllIfAbsent(values, versions, CACHE_SHOP_TTL, TimeUnit.MINUTES);
+        // GEOADD对已有成员只更新坐标，重复预热是幂等的
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection stringConnection = (StringRedisConnection) connection;
+            for (Map.Entry<String, Map<String, Point>> entry : geoLocations.entrySet()) {
+                stringConnection.geoAdd(entry.getKey(), entry.getValue());
+            }
+            return null;
+        });
+    }
+
+    private void warmUpShopTypes(CacheWarmUp.Context context) {
+        int pageSize = context.getPageSize();
+        long lastId = 0;
+        List<ShopType> typeList = new ArrayList<>();
+        while (true) {
+            List<ShopType> types = shopTypeMapper.selectList(new QueryWrapper<ShopType>()
+                    .gt("id", lastId)
+                    .orderByAsc("id")
+                    .last("LIMIT " + pageSize));
+            if (types.isEmpty()) {
+                break;
+            }
+            context.read(types.size());
+            typeList.addAll(types);
+            lastId = types.get(types.size() - 1).getId();
+            if (types.size() < pageSize) {
+                break;
+            }
+        }
+        if (typeList.isEmpty()) {
+            return;
+        }
+        context.write(typeList.size(), () -> writeShopTypes(typeList));
+    }
+
+    private void writeShopTypes(List<ShopType> typeList) {
+        // 与ShopTypeServiceImpl一致：成员为JSON，分数为sort
+        String key = CACHE_SHOP_TYPE_KEY;
+        // 临时Key以正式Key为hash tag，集群模式下两者同槽位才能RENAME
+        String tempKey = "{" + key + "}:warmup";
+        long ttlSeconds = ttlJitter.apply(key, Duration.ofMinutes(CACHE_SHOP_TYPE_TTL)).getSeconds();
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection stringConnection = (StringRedisConnection) connection;
+            stringConnection.del(tempKey);
+            for (ShopType shopType : typeList) {
+                stringConnection.zAdd(tempKey, shopType.getSort(), JSONUtil.toJsonStr(shopType));
+            }
+            stringConnection.rename(tempKey, key);
+            stringConnection.expire(key, ttlSeconds);
+            return null;
+        });
+    }
+
+    private void warmUpSeckillStocks(CacheWarmUp.Context context) {
+        int pageSize = context.getPageSize();
+        long lastId = 0;
+        LocalDateTime now = LocalDateTime.now();
+        while (true) {
+            List<SeckillVoucher> vouchers = seckillVoucherMapper.selectList(new QueryWrapper<SeckillVoucher>()
+                    .gt("voucher_id", lastId)
+                    .gt("end_time", now)
+                    .orderByAsc("voucher_id")
+                    .last("LIMIT " + pageSize));
+            if (vouchers.isEmpty()) {
+                break;
+            }
+            context.read(vouchers.size());
+            context.write(vouchers.size(), () -> writeSeckillStocks(vouchers));
+            lastId = vouchers.get(vouchers.size() - 1).getVoucherId();
+            if (vouchers.size() < pageSize) {
+                break;
+            }
+        }
+    }
+
+    private void writeSeckillStocks(List<SeckillVoucher> vouchers) {
+        // Redis中的库存是预扣后的库存，已存在时不能用数据库库存覆盖
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection stringConnection = (StringRedisConnection) connection;
+            for (SeckillVoucher voucher : vouchers) {
+                stringConnection.setNX(SECKILL_STOCK_KEY + voucher.getVoucherId(), voucher.getStock().toString());
+            }
+            return null;
+        });
+    }
+}
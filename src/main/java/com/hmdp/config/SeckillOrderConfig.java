@@ -0,0 +1,17 @@
+package com.hmdp.config;
+
+import com.hmdp.service.IVoucherService;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(SeckillOrderProperties.class)
+public class SeckillOrderConfig {
+
+    // 秒杀券补货端点（运营操作，只在内网管理端口上开放）
+    @Bean
+    public SeckillRestockEndpoint seckillRestockEndpoint(IVoucherService voucherService) {
+        return new SeckillRestockEndpoint(voucherService);
+    }
+}
@@ -0,0 +1,41 @@
+package com.hmdp.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import javax.validation.constraints.Min;
+
+@Data
+@ConfigurationProperties(prefix = "seckill.order")
+@Validated // 启用配置校验
+public class SeckillOrderProperties {
+
+    @Min(value = 1, message = "单次拉取的订单消息数至少为1")
+    private int batchSize = 100; // 单次XREADGROUP拉取的消息数，同一批订单在一个事务中落库
+
+    @Min(value = 100, message = "拉取消息的阻塞时间至少为100毫秒")
+    private long blockMillis = 2000; // 没有消息时XREADGROUP的阻塞时间（毫秒）
+
+    // 分区数：订单按优惠券ID写入 streams:order:{voucherId % partitions}；Stream中还有未消费的消息时不要修改
+    @Min(value = 1, message = "订单Stream分区数至少为1")
+    private int partitions = 8;
+
+    @Min(value = 1, message = "订单消费线程数至少为1")
+    private int workers = 4; // 每个实例的消费线程数，每个线程是一个独立的消费者，领取若干分区
+
+    @Min(value = 3000, message = "订单分区租约至少为3秒")
+    private long leaseMillis = 10000; // 分区租约（毫秒），每1/3租约续期一次，消费者宕机后由其他消费者接管
+
+    @Min(value = 1000, message = "PendingList回收间隔至少为1秒")
+    private long reclaimIntervalMillis = 5000; // 扫描各分区PendingList的间隔（毫秒）
+
+    @Min(value = 1000, message = "回收消息的最小空闲时间至少为1秒")
+    private long reclaimMinIdleMillis = 30000; // 未确认超过该时间（毫秒）的消息被回收重试，也是失败消息的重试间隔
+
+    @Min(value = 1, message = "最大投递次数至少为1")
+    private int maxDeliveries = 5; // 投递次数达到上限仍失败的消息转入死信队列 streams:order:dlq
+
+    @Min(value = 1, message = "本地售罄标记的过期时间至少为1秒")
+    private long soldOutTtlSeconds = 60; // 本地售罄标记的过期时间（秒），过期后重新由Lua判定
+}
@@ -0,0 +1,26 @@
+package com.hmdp.config;
+
+import com.hmdp.dto.Result;
+import com.hmdp.service.IVoucherService;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+
+/**
+ * 秒杀券补货端点：POST /actuator/seckillrestock/{voucherId}，请求体 {"count": 补货数量}
+ * 补货是运营操作，不放在用户接口中（登录校验不等于授权）；默认不通过Web暴露，只应在内网管理端口上开放
+ */
+@Endpoint(id = "seckillrestock")
+public class SeckillRestockEndpoint {
+
+    private final IVoucherService voucherService;
+
+    public SeckillRestockEndpoint(IVoucherService voucherService) {
+        this.voucherService = voucherService;
+    }
+
+    @WriteOperation
+    public Result restock(@Selector Long voucherId, Integer count) {
+        return voucherService.restockSeckillVoucher(voucherId, count);
+    }
+}
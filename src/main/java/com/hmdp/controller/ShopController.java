@@ -12,6 +12,7 @@ import org.springframework.web.bind.annotation.*;
 import javax.annotation.Resource;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * <p>
@@ -34,9 +35,9 @@ public class ShopController {
      * @return 商铺详情数据
      */
     @GetMapping("/{id}")
-    public Result queryShopById(@PathVariable("id") Long id) {
-        Shop shop = shopService.queryShopById(id);
-        return Result.ok(shop);
+    public CompletableFuture<Result> queryShopById(@PathVariable("id") Long id) {
+        // 异步查询：等待Redis和数据库期间不占用Web容器线程
+        return shopService.queryShopByIdAsync(id).thenApply(Result::ok);
     }
 
     /**
@@ -46,10 +47,10 @@ public class ShopController {
      */
     @PostMapping
     public Result saveShop(@RequestBody Shop shop) {
-        // 写入数据库
-        shopService.save(shop);
+        // 写入数据库（同时写入布隆过滤器）
+        Long id = shopService.saveShop(shop);
         // 返回店铺id
-        return Result.ok(shop.getId());
+        return Result.ok(id);
     }
 
     /**
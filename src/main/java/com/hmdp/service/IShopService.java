@@ -4,6 +4,8 @@ import com.hmdp.entity.Shop;
 import com.baomidou.mybatisplus.extension.service.IService;
 
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * <p>
@@ -22,6 +24,34 @@ public interface IShopService extends IService<Shop> {
      */
     Shop queryShopById(Long id);
 
+    /**
+     * 根据id异步查询店铺信息（不阻塞Web容器线程）
+     * @param id
+     * @return
+     */
+    CompletableFuture<Shop> queryShopByIdAsync(Long id);
+
+    /**
+     * 根据id查询热点店铺信息（逻辑过期）
+     * @param id
+     * @return
+     */
+    Shop queryHotShopById(Long id);
+
+    /**
+     * 根据id批量查询店铺信息
+     * @param ids
+     * @return 店铺id -> 店铺
+     */
+    Map<Long, Shop> queryShopByIds(List<Long> ids);
+
+    /**
+     * 新增店铺信息
+     * @param shop
+     * @return 店铺id
+     */
+    Long saveShop(Shop shop);
+
     /**
      * 更新店铺信息
      * @param shop
@@ -3,6 +3,8 @@ package com.hmdp.service;
 import com.hmdp.entity.VoucherOrder;
 import com.baomidou.mybatisplus.extension.service.IService;
 
+import java.util.List;
+
 /**
  * <p>
  *  服务类
@@ -21,4 +23,11 @@ public interface IVoucherOrderService extends IService<VoucherOrder> {
     Long seckillVoucher(Long voucherId) throws Exception;
 
     void createVoucherOrder(VoucherOrder voucherOrder);
+
+    /**
+     * 批量创建订单：按优惠券多行插入订单、按插入数扣减库存，在同一个事务中完成
+     * 批内有重复订单时抛出DuplicateKeyException，整批回滚，由调用方逐条处理
+     * @return 创建的订单数
+     */
+    int createVoucherOrders(List<VoucherOrder> voucherOrders);
 }
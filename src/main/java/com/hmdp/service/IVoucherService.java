@@ -17,4 +17,12 @@ public interface IVoucherService extends IService<Voucher> {
     Result queryVoucherOfShop(Long shopId);
 
     void addSeckillVoucher(Voucher voucher);
+
+    /**
+     * 秒杀券补货：增加数据库和Redis中的库存，并清除各实例的本地售罄标记
+     * @param voucherId 秒杀券id
+     * @param count 增加的库存数量
+     * @return 数据库已提交但Redis库存未同步时返回失败及原因
+     */
+    Result restockSeckillVoucher(Long voucherId, Integer count);
 }
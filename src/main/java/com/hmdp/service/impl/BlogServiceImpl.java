@@ -5,6 +5,7 @@ import cn.hutool.core.util.BooleanUtil;
 import cn.hutool.core.util.StrUtil;
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.hmdp.cache.bloom.BloomFilterService;
 import com.hmdp.dto.Result;
 import com.hmdp.dto.ScrollResult;
 import com.hmdp.dto.UserDTO;
@@ -30,6 +31,7 @@ import java.util.*;
 import java.util.stream.Collectors;
 
 import static com.hmdp.utils.RedisConstants.BLOG_LIKED_KEY;
+import static com.hmdp.utils.RedisConstants.BLOOM_BLOG_KEY;
 import static com.hmdp.utils.RedisConstants.FEED_KEY;
 
 /**
@@ -51,6 +53,8 @@ public class BlogServiceImpl extends ServiceImpl<BlogMapper, Blog> implements IB
     private IFollowService followService;
     @Autowired
     private StringRedisTemplate stringRedisTemplate;
+    @Autowired
+    private BloomFilterService bloomFilterService;
 
     @Override
     public List<Blog> queryHotBlog(Integer current) {
@@ -71,14 +75,18 @@ public class BlogServiceImpl extends ServiceImpl<BlogMapper, Blog> implements IB
 
     @Override
     public Blog queryBlog(Long id) {
-        // 1.查询blog
+        // 1.布隆过滤器判定一定不存在，直接返回
+        if (!bloomFilterService.mightContain(BLOOM_BLOG_KEY, id)) {
+            throw new RuntimeException("博客不存在");
+        }
+        // 2.查询blog
         Blog blog = getById(id);
         if (blog == null) {
             throw new RuntimeException("博客不存在");
         }
-        // 2.查询blog有关的用户
+        // 3.查询blog有关的用户
         queryBlogUser(blog);
-        // 3.查询blog是否被当前用户点赞
+        // 4.查询blog是否被当前用户点赞
         isBlogLiked(blog);
         return blog;
     }
@@ -160,6 +168,8 @@ public class BlogServiceImpl extends ServiceImpl<BlogMapper, Blog> implements IB
         if (!isSuccess) {
             throw new RuntimeException("新增笔记失败!");
         }
+        // 2.1.写入布隆过滤器
+        bloomFilterService.add(BLOOM_BLOG_KEY, blog.getId());
         // 3.获取笔记作者的所有粉丝，select * from tb_follow where follow_user_id = ?
         List<Follow> follows = followService.query().eq("follow_user_id", user.getId()).list();
         // 4.推送笔记id给所有粉丝
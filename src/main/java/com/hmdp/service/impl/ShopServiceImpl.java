@@ -1,25 +1,17 @@
 package com.hmdp.service.impl;
 
+import cn.hutool.core.bean.BeanUtil;
 import cn.hutool.core.collection.CollUtil;
-import cn.hutool.core.lang.TypeReference;
-import cn.hutool.core.net.NetUtil;
-import cn.hutool.core.util.BooleanUtil;
-import cn.hutool.core.util.IdUtil;
-import cn.hutool.core.util.RandomUtil;
-import cn.hutool.core.util.StrUtil;
-import cn.hutool.json.JSONObject;
-import cn.hutool.json.JSONUtil;
-import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
-import com.hmdp.dto.Result;
-import com.hmdp.dto.ShopQueryTestDTO;
+import com.hmdp.cache.annotation.CacheStrategy;
+import com.hmdp.cache.annotation.HmdpCached;
+import com.hmdp.cache.annotation.HmdpEvict;
+import com.hmdp.cache.bloom.BloomFilterService;
 import com.hmdp.entity.Shop;
 import com.hmdp.mapper.ShopMapper;
 import com.hmdp.service.IShopService;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.hmdp.utils.CacheClient;
-import com.hmdp.utils.RedisData;
-import com.hmdp.utils.SnowflakeIdGenerator;
 import com.hmdp.utils.SystemConstants;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.geo.Distance;
@@ -27,18 +19,14 @@ import org.springframework.data.geo.GeoResult;
 import org.springframework.data.geo.GeoResults;
 import org.springframework.data.redis.connection.RedisGeoCommands;
 import org.springframework.data.redis.core.StringRedisTemplate;
-import org.springframework.data.redis.core.script.DefaultRedisScript;
 import org.springframework.data.redis.domain.geo.GeoReference;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import javax.servlet.http.HttpServletResponse;
+import javax.annotation.PostConstruct;
 
-import java.time.Duration;
-import java.time.LocalDateTime;
 import java.util.*;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
@@ -59,301 +47,104 @@ public class ShopServiceImpl extends ServiceImpl<ShopMapper, Shop> implements IS
     private StringRedisTemplate stringRedisTemplate;
     @Autowired
     private CacheClient cacheClient;
+    @Autowired
+    private BloomFilterService bloomFilterService;
+    @Autowired
+    private IShopService thisProxy;
+
+    // ========== 注册店铺的批量加载器：逻辑过期重建时多个店铺合并为一次批量查库 ==========
+    @PostConstruct
+    public void registerBatchLoader() {
+        cacheClient.registerBatchLoader(Shop.class, Long.class, ids -> listByIds(ids).stream()
+                .collect(Collectors.toMap(Shop::getId, shop -> shop)));
+        // 逻辑过期写入的热点店铺缓存在过期前由后台提前刷新（cache:shop: 由互斥锁策略读写，不能注册）
+        cacheClient.registerRefreshAhead(CACHE_HOT_SHOP_KEY, Shop.class, Long::valueOf, CACHE_SHOP_TTL, TimeUnit.MINUTES);
+    }
 
     /**
      * 根据id查询店铺信息
      * @param id
      * @return
      */
+    @HmdpCached(strategy = CacheStrategy.MUTEX, prefix = CACHE_SHOP_KEY, ttl = 30, timeUnit = TimeUnit.MINUTES)
     public Shop queryShopById(Long id) {
-        // 缓存穿透
-//        return queryWithPassThrough(id);
-        // 缓存击穿（互斥锁）
-//        return queryWithMutex(id, 1); // 初始重试次数1
-        // 缓存击穿（逻辑过期）
-//        return queryWithLogicalExpire(id); // 初始重试次数1
-        // 缓存穿透
-        /*return cacheClient.queryWithPassThrough(
-                CACHE_SHOP_KEY,
-                id,
-                Shop.class,
-                this::getById,
-                CACHE_SHOP_TTL,
-                TimeUnit.MINUTES
-        );*/
-        /*ShopQueryTestDTO shopQueryTestDTO = new ShopQueryTestDTO();
-        shopQueryTestDTO.setId(id);
-        shopQueryTestDTO.setShopName("遍历店");
-        return cacheClient.queryWithPassThrough(
-                (d) -> CACHE_SHOP_KEY + d.getId(),
-                shopQueryTestDTO,
-                Shop.class,
-                (d) -> getById(d.getId()),
-                CACHE_SHOP_TTL,
-                TimeUnit.SECONDS
-        );*/
-        // 缓存击穿（过期时间）
-        /*return cacheClient.queryWithLogicalExpire(
-                CACHE_SHOP_KEY,
-                id,
-                Shop.class,
-                this::getById,
-                CACHE_SHOP_TTL,
-                TimeUnit.SECONDS
-        );*/
-
-        /*ShopQueryTestDTO shopQueryTestDTO = new ShopQueryTestDTO();
-        shopQueryTestDTO.setId(id);
-        shopQueryTestDTO.setShopName("遍历店");
-        return cacheClient.queryWithLogicalExpire(
-                (d) -> CACHE_SHOP_KEY + d.getId(),
-                shopQueryTestDTO,
-                Shop.class,
-                (d) -> getById(d.getId()),
-                CACHE_SHOP_TTL,
-                TimeUnit.SECONDS
-        );*/
-        // 5位（0-31）
-
-        /*// 自定义机器ID（0-31）、数据中心ID（0-31）
-        long workerId = NetUtil.ipv4ToLong(NetUtil.getLocalhostStr()) % 32; // 基于IP生成唯一机器ID
-        long datacenterId = RandomUtil.randomLong(0, 31); // 数据中心ID（也可配置化）
-        long snowflakeId = IdUtil.createSnowflake(workerId, datacenterId).nextId();
-        System.out.println("雪花ID：" + snowflakeId);*/
-
-        /*String orderSn = SnowflakeIdGenerator.generateOrderSn();
-        String preOrderSn = SnowflakeIdGenerator.generatePreOrderSn();
-        System.out.println("orderSn：" + orderSn);
-        System.out.println("preOrderSn：" + preOrderSn);*/
-
-        // 缓存击穿（锁机制）
-        return cacheClient.queryWithMutex(
-                CACHE_SHOP_KEY,
-                id,
-                Shop.class,
-                this::getById,
-                CACHE_SHOP_TTL,
-                TimeUnit.MINUTES
-        );
+        // 缓存击穿（锁机制）：由切面交给CacheClient.queryWithMutex，方法体即数据库查询回调
+        return getById(id);
     }
 
     /**
-     * 逻辑过期，解决热点key问题
+     * 根据id异步查询店铺信息（互斥锁策略，抢锁失败时非阻塞等待）
      * @param id
      * @return
      */
-    /*private Shop queryWithLogicalExpire(Long id) {
-        // 1.从redis中查询店铺
-        String shopJson = stringRedisTemplate.opsForValue().get(CACHE_SHOP_KEY + id);
-        // 2.判断店铺是否存在
-        if (StrUtil.isBlank(shopJson)) {
-            // 若未命中，直接返回null
-            return null;
-        }
-
-        // 3.反序列化shopJson,获取shop对象和过期时间
-        RedisData<Shop> redisData = JSONUtil.toBean(
-                shopJson,
-                new TypeReference<RedisData<Shop>>() {},
-                false
-        );
-        Shop shop = redisData.getData();
-        LocalDateTime expireTime = redisData.getExpireTime();
-
-        // 4.判断是否过期
-        if (expireTime.isBefore(LocalDateTime.now())) {
-            // 4.1.过期，获取互斥锁
-            String lockKey = LOCK_SHOP_KEY + id;
-            String lockValue = UUID.randomUUID().toString(); // 用UUID标识线程
-            boolean isLock = tryLock(lockKey, lockValue);
-
-            if (isLock) {
-                // 4.2.再次检测redis缓存是否过期（判断其它线程是否已重建，避免重复构建）
-                String newShopJson = stringRedisTemplate.opsForValue().get(CACHE_SHOP_KEY + id);
-                RedisData<Shop> newRedisData = JSONUtil.toBean(
-                        newShopJson,
-                        new TypeReference<RedisData<Shop>>() {},
-                        false
-                );
-                if (newRedisData.getExpireTime().isAfter(LocalDateTime.now())) {
-                    // 4.2.1释放锁
-                    unlock(lockKey, lockValue);
-                    // 4.2.2返回新数据
-                    return newRedisData.getData();
-                }
-
-                // 4.3.线程池异步重建缓存
-                CACHE_REBUILD_EXECUTOR.submit(() -> {
-                    // 4.3.1.重建缓存
-                    try {
-                        this.saveShop2Redis(id, 20L);
-                    } catch (InterruptedException e) {
-                        throw new RuntimeException(e);
-                    } finally {
-                        // 4.3.2.释放锁
-                        unlock(lockKey, lockValue);
-                    }
-                });
-            }
-        }
-        // 4.2.直接返回旧的shop数据
-        return shop;
-    }*/
+    @HmdpCached(strategy = CacheStrategy.MUTEX, prefix = CACHE_SHOP_KEY, ttl = 30, timeUnit = TimeUnit.MINUTES)
+    public CompletableFuture<Shop> queryShopByIdAsync(Long id) {
+        // 由切面交给AsyncCacheClient.queryWithMutex，方法体即数据库查询回调（在加载线程池中执行）
+        return CompletableFuture.completedFuture(getById(id));
+    }
 
     /**
-     * 互斥锁解决热点key
-     * @param id
-     * @param retryCount
-     * @return
+     * 根据id批量查询店铺信息
+     * @param ids
+     * @return 店铺id -> 店铺，数据库中不存在的店铺不在结果中
      */
-    /*private Shop queryWithMutex(Long id, int retryCount) {
-        // 1.从redis中查询店铺
-        String key = CACHE_SHOP_KEY + id;
-        String shopJson = stringRedisTemplate.opsForValue().get(key);
-        // 2.判断店铺是否存在
-        if (StrUtil.isNotBlank(shopJson)) {
-            // 若命中，直接返回
-            Shop shop = JSONUtil.toBean(shopJson, Shop.class);
-            return shop;
-        }
-
-        // redis内容不为空，说明数据库中不存在该数据
-        if (shopJson != null) {
-            throw new RuntimeException("店铺不存在");
-        }
-        String lockKey = LOCK_SHOP_KEY + id;
-        String lockValue = UUID.randomUUID().toString(); // 用UUID标识线程
-        Shop shop = null;
-
-        try {
-            // 3.缓存重建
-            // 3.1.获取锁
-            // 3.2.判断是否获取到锁
-            boolean isLock = tryLock(lockKey, lockValue);
-            if (!isLock) {
-                if (retryCount >= MAX_RETRY) {
-                    throw new RuntimeException("获取锁失败，请稍后重试");
-                }
-                Thread.sleep(50);
-                return queryWithMutex(id, retryCount + 1);
-            }
-            // 3.3.成功，根据id查询数据库
-            shop = getById(id);
-            // 模拟重建的延迟
-            Thread.sleep(200);
-            // 4.数据库中不存在，写入空值，报错
-            if (shop == null) {
-                // redis中缓存空值
-                stringRedisTemplate.opsForValue().set(key, "", Duration.ofMinutes(CACHE_NULL_TTL));
-                // 报错
-                throw new RuntimeException("店铺不存在");
-            }
-            // 5.存在，写入redis中
-            String jsonStr = JSONUtil.toJsonStr(shop);
-            stringRedisTemplate.opsForValue().set(key, jsonStr, Duration.ofMinutes(CACHE_SHOP_TTL));
-        } catch (InterruptedException e) {
-            throw new RuntimeException(e);
-        } finally {
-            // 6.释放锁
-            unlock(lockKey, lockValue);
-        }
-
-        // 7.返回
-        return shop;
-    }*/
+    @HmdpCached(strategy = CacheStrategy.MUTEX, prefix = CACHE_SHOP_KEY, ttl = 30, timeUnit = TimeUnit.MINUTES, batch = true)
+    public Map<Long, Shop> queryShopByIds(List<Long> ids) {
+        // 由切面交给CacheClient.batchQueryWithMutex，方法体只会收到未命中缓存的id
+        return listByIds(ids).stream().collect(Collectors.toMap(Shop::getId, shop -> shop));
+    }
 
     /**
-     * 常规方案，不设置逻辑过期时间和加锁
+     * 根据id查询热点店铺信息（需先通过saveShop2Redis预热）
      * @param id
      * @return
      */
-/*    private Shop queryWithPassThrough(Long id) {
-        // 1.从redis中查询店铺
-        String shopJson = stringRedisTemplate.opsForValue().get(CACHE_SHOP_KEY + id);
-        // 2.判断店铺是否存在
-        if (StrUtil.isNotBlank(shopJson)) {
-            // 若命中，直接返回
-            Shop shop = JSONUtil.toBean(shopJson, Shop.class);
-            return shop;
-        }
-
-        // redis内容不为空，说明数据库中不存在该数据
-        if (shopJson != null) {
-            throw new RuntimeException("店铺不存在");
-        }
-
-        // 3.未命中，查询数据库
-        Shop shop = getById(id);
-        // 4.数据库中不存在，写入空值，报错
-        if (shop == null) {
-            // redis中缓存空值
-            stringRedisTemplate.opsForValue().set(CACHE_SHOP_KEY + id, "", Duration.ofMinutes(CACHE_NULL_TTL));
-            // 报错
-            throw new RuntimeException("店铺不存在");
-        }
-        // 5.存在，写入redis中
-        String jsonStr = JSONUtil.toJsonStr(shop);
-        stringRedisTemplate.opsForValue().set(CACHE_SHOP_KEY + id, jsonStr, Duration.ofMinutes(CACHE_SHOP_TTL));
-        // 6.返回
-        return shop;
-    }*/
+    @HmdpCached(strategy = CacheStrategy.LOGICAL_EXPIRE, prefix = CACHE_HOT_SHOP_KEY, ttl = 30, timeUnit = TimeUnit.MINUTES)
+    public Shop queryHotShopById(Long id) {
+        // 逻辑过期：由切面交给CacheClient.queryWithLogicalExpire，过期时返回旧数据并异步重建
+        return getById(id);
+    }
 
     /**
      * 创建热点key数据（可过期）
      */
-    public void saveShop2Redis(Long id, Long expireSeconds) throws InterruptedException {
+    public void saveShop2Redis(Long id, Long expireSeconds) {
         // 1.查询店铺数据
         Shop shop = getById(id);
-        Thread.sleep(80);
-        // 2.封装逻辑过期时间
-        RedisData<Shop> redisData = new RedisData<>();
-        redisData.setData(shop);
-        redisData.setExpireTime(LocalDateTime.now().plusSeconds(expireSeconds));
-        // 3.写入到缓存中
-        stringRedisTemplate.opsForValue().set(CACHE_SHOP_KEY + id, JSONUtil.toJsonStr(redisData));
+        // 2.写入逻辑过期缓存（同时登记提前刷新）
+        cacheClient.setWithLogicalExpire(CACHE_HOT_SHOP_KEY + id, shop, expireSeconds, TimeUnit.SECONDS);
     }
 
     /**
-     * 获取分布式锁（带唯一value）
-     *//*
-    private boolean tryLock(String key, String value) {
-        // value取随机值，删除线程时，用于区分线程归属
-        Boolean isLock = stringRedisTemplate.opsForValue().setIfAbsent(key, value, Duration.ofSeconds(LOCK_SHOP_TTL));
-        return BooleanUtil.isTrue(isLock);
+     * 新增店铺信息
+     * @param shop
+     * @return 店铺id
+     */
+    @Override
+    @HmdpEvict(prefix = CACHE_SHOP_KEY, key = "#shop.id")
+    public Long saveShop(Shop shop) {
+        // 1.写入数据库
+        save(shop);
+        // 2.写入布隆过滤器；返回后由@HmdpEvict清除该id可能残留的缓存空值
+        bloomFilterService.add(BLOOM_SHOP_KEY, shop.getId());
+        return shop.getId();
     }
 
-    *//**
-     * 释放分布式锁（Lua脚本保证原子性）
-     *//*
-    private void unlock(String key, String value) {
-        // 可能误删其它线程
-//        stringRedisTemplate.delete(key);
-        String luaScript = "if redis.call('get', KEYS[1]) == ARGV[1] then " +
-                "return redis.call('del', KEYS[1]) " +
-                "else " +
-                "return 0 " +
-                "end";
-        stringRedisTemplate.execute(
-                new DefaultRedisScript<>(luaScript, Long.class),
-                Collections.singletonList(key),
-                value
-        );
-    }*/
-
     /**
      * 更新店铺信息
      * @param shop
      */
     @Transactional
+    @HmdpEvict(prefix = CACHE_SHOP_KEY, key = "#shop.id")
     public void update(Shop shop) {
         Long id = shop.getId();
         if(id == null){
             throw new RuntimeException("店铺id不能为空");
         }
-        // 1.更新数据库
+        // 更新数据库；返回后由@HmdpEvict在事务提交后递增缓存版本并删除缓存（同时通知各实例失效近端缓存）
         updateById(shop);
-        // 2.redis中删除缓存
-        stringRedisTemplate.delete(CACHE_SHOP_KEY + id);
+        // 热点店铺缓存同样在事务提交后删除，下次查询重新加载
+        cacheClient.invalidate(CACHE_HOT_SHOP_KEY + id);
     }
 
     @Override
@@ -404,12 +195,19 @@ public class ShopServiceImpl extends ServiceImpl<ShopMapper, Shop> implements IS
                         geoResult -> Long.valueOf(geoResult.getContent().getName()),
                         geoResult -> geoResult.getDistance()
                 ));
-        // 7.根据ids查询shops
-        String shopIdStr = StrUtil.join(",", ids);
-        List<Shop> shopList = list(new QueryWrapper<Shop>().in("id", ids).last("ORDER BY FIELD(id, " + shopIdStr + ")"));
-        // 8.给每个Shop对象设置距离（从映射Map中取）
-        for(Shop shop : shopList){
-            shop.setDistance(id2DistanceMap.get(shop.getId()).getValue());
+        // 7.根据ids批量查询shops（走店铺缓存）
+        Map<Long, Shop> shopMap = thisProxy.queryShopByIds(ids);
+        // 8.按GEO结果的顺序组装，给每个Shop对象设置距离（从映射Map中取）
+        // 缓存中的对象可能被近端缓存共享，复制后再设置距离
+        List<Shop> shopList = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Shop shop = shopMap.get(id);
+            if (shop == null) {
+                continue;
+            }
+            Shop result = BeanUtil.copyProperties(shop, Shop.class);
+            result.setDistance(id2DistanceMap.get(id).getValue());
+            shopList.add(result);
         }
         // 9.封装返回数据
         return shopList;
@@ -4,6 +4,7 @@ import cn.hutool.core.bean.BeanUtil;
 import cn.hutool.core.collection.CollUtil;
 import cn.hutool.json.JSONUtil;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.hmdp.cache.ttl.TtlJitter;
 import com.hmdp.entity.ShopType;
 import com.hmdp.mapper.ShopTypeMapper;
 import com.hmdp.service.IShopTypeService;
@@ -36,6 +37,8 @@ public class ShopTypeServiceImpl extends ServiceImpl<ShopTypeMapper, ShopType> i
     private StringRedisTemplate stringRedisTemplate;
     @Autowired
     private HttpServletResponse httpServletResponse;
+    @Autowired
+    private TtlJitter ttlJitter;
 
     /**
      * 查询店铺类型列表
@@ -83,7 +86,7 @@ public class ShopTypeServiceImpl extends ServiceImpl<ShopTypeMapper, ShopType> i
         }
         try {
             stringRedisTemplate.opsForZSet().add(key, zSetTuples);
-            stringRedisTemplate.expire(key, Duration.ofMinutes(CACHE_SHOP_TYPE_TTL));
+            stringRedisTemplate.expire(key, ttlJitter.apply(key, Duration.ofMinutes(CACHE_SHOP_TYPE_TTL)));
         } catch (Exception e) {
             log.error("写入店铺类型缓存失败", e); // 记录日志即可，不影响接口返回
         }
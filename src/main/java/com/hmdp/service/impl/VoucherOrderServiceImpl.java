@@ -1,6 +1,7 @@
 package com.hmdp.service.impl;
 
 import cn.hutool.core.bean.BeanUtil;
+import com.hmdp.config.SeckillOrderProperties;
 import com.hmdp.dto.UserDTO;
 import com.hmdp.entity.SeckillVoucher;
 import com.hmdp.entity.VoucherOrder;
@@ -10,15 +11,21 @@ import com.hmdp.mapper.VoucherOrderMapper;
 import com.hmdp.service.ISeckillVoucherService;
 import com.hmdp.service.IVoucherOrderService;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.hmdp.utils.PartitionLeaseManager;
 import com.hmdp.utils.RedisIdWorker;
+import com.hmdp.utils.SeckillSoldOutRegistry;
 import com.hmdp.utils.SimpleRedisLock;
 import com.hmdp.utils.UserHolder;
 import lombok.extern.slf4j.Slf4j;
-import org.redisson.api.RLock;
-import org.redisson.api.RedissonClient;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.NestedExceptionUtils;
 import org.springframework.core.io.ClassPathResource;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.StringRedisConnection;
 import org.springframework.data.redis.connection.stream.*;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.data.redis.core.script.DefaultRedisScript;
 import org.springframework.stereotype.Service;
@@ -28,10 +35,14 @@ import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * <p>
@@ -56,23 +67,71 @@ public class VoucherOrderServiceImpl extends ServiceImpl<VoucherOrderMapper, Vou
     @Autowired
     private StringRedisTemplate stringRedisTemplate;
     @Autowired
-    private RedissonClient redissonClient;
+    private SeckillOrderProperties seckillOrderProperties;
+
+    @Autowired
+    private PartitionLeaseManager partitionLeaseManager;
+    @Autowired
+    private SeckillSoldOutRegistry seckillSoldOutRegistry;
+    @Autowired
+    @Qualifier("instanceUUID")
+    private String instanceId;
 
     // 定义RedisScript对象（封装Lua脚本）
     private final static DefaultRedisScript<Long> SECKILL_SCRIPT;
-    private static final ExecutorService SECKILL_ORDER_EXECUTOR = Executors.newSingleThreadExecutor();
-    // Stream名称
-    private static final String STREAM_KEY = "streams:order";
+    // 订单消费线程池（每个线程是一个独立的消费者）
+    private ExecutorService seckillOrderExecutor;
+    // PendingList回收线程
+    private ScheduledExecutorService pendingReclaimExecutor;
+    private volatile boolean running = true;
+    // Stream名称前缀：streams:order:{分区}，分区 = voucherId % 分区数（在seckill.lua中计算）
+    private static final String STREAM_KEY_PREFIX = "streams:order:";
+    // 分区前的旧Stream：升级后seckill.lua不再写入，剩余消息（含PendingList）由回收任务处理完
+    private static final String LEGACY_STREAM_KEY = "streams:order";
+    // 死信队列：超过最大投递次数的订单消息
+    private static final String DLQ_STREAM_KEY = "streams:order:dlq";
     // 消费组名称
     private static final String GROUP_NAME = "order-process-group";
-    // 消费者名称（可动态生成，比如机器IP+线程ID）
-    private static final String CONSUMER_NAME = "consumer-1";
+    // 订单消息字段缺失时的死信原因
+    private static final String INVALID_ORDER_REASON = "订单消息缺少id、userId或voucherId";
+    // 一人一单唯一索引名称
+    private static final String UNIQUE_USER_VOUCHER = "uk_user_voucher";
 
     // ========== 项目启动时初始化消费者线程 ==========
     @PostConstruct
     public void init() {
-        // 启动消费者线程，循环消费队列订单
-        SECKILL_ORDER_EXECUTOR.submit(new VoucherOrderHandler());
+        // 1.创建各分区的消费组（Stream不存在时一并创建）
+        for (int p = 0; p < seckillOrderProperties.getPartitions(); p++) {
+            createGroupIfAbsent(STREAM_KEY_PREFIX + p);
+        }
+        // 2.启动消费者线程：消费者名称 = 实例ID-线程序号，集群内唯一
+        int workers = seckillOrderProperties.getWorkers();
+        AtomicInteger threadIndex = new AtomicInteger();
+        seckillOrderExecutor = Executors.newFixedThreadPool(workers, r ->
+                new Thread(r, "seckill-order-" + threadIndex.incrementAndGet()));
+        for (int i = 0; i < workers; i++) {
+            seckillOrderExecutor.submit(new VoucherOrderHandler(instanceId + "-" + i));
+        }
+        // 3.定时回收PendingList（宕机消费者、处理失败的消息），启动后立即执行一次，同时处理完旧Stream中的消息
+        pendingReclaimExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "seckill-order-reclaim");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = seckillOrderProperties.getReclaimIntervalMillis();
+        pendingReclaimExecutor.scheduleWithFixedDelay(this::reclaimPending, 0, interval, TimeUnit.MILLISECONDS);
+    }
+
+    private void createGroupIfAbsent(String streamKey) {
+        try {
+            stringRedisTemplate.opsForStream().createGroup(streamKey, ReadOffset.from("0"), GROUP_NAME);
+        } catch (Exception e) {
+            // 消费组已存在
+            String message = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+            if (message == null || !message.contains("BUSYGROUP")) {
+                throw e;
+            }
+        }
     }
 
     /*// 阻塞队列：存放秒杀下单任务（设置容量为10000，避免OOM）
@@ -88,7 +147,7 @@ public class VoucherOrderServiceImpl extends ServiceImpl<VoucherOrderMapper, Vou
                     // 1. 从阻塞队列中取出秒杀订单（阻塞等待，直到有订单）
                     VoucherOrder voucherOrder = orderTasks.take();
                     // 2. 处理订单：扣减库存、生成订单、写入数据库
-                    handleVoucherOrder(voucherOrder);
+                    thisProxy.createVoucherOrder(voucherOrder);
                 } catch (InterruptedException e) {
                     log.error("消费者线程被中断：{}", e.getMessage());
                     Thread.currentThread().interrupt(); // 重置中断标记，让循环退出
@@ -99,74 +158,290 @@ public class VoucherOrderServiceImpl extends ServiceImpl<VoucherOrderMapper, Vou
         }
     }*/
 
-    // 消费者任务：处理秒杀订单
+    // 消费者任务：处理秒杀订单（领取分区，批量拉取、批量落库）
     private class VoucherOrderHandler implements Runnable {
 
+        private final String consumerName;
+        // 当前持有的分区
+        private final List<Integer> partitions = new ArrayList<>();
+        private long nextRebalanceTime;
+
+        private VoucherOrderHandler(String consumerName) {
+            this.consumerName = consumerName;
+        }
+
         @Override
         public void run() {
-            // 循环消费：一直从队列取订单，直到线程池关闭
-            while (!Thread.currentThread().isInterrupted()) {
-                try {
-                    // 1.拉取消息：消费组模式，阻塞2秒（避免永久阻塞）
-                    List<MapRecord<String, Object, Object>> records = stringRedisTemplate.opsForStream().read(
-                            Consumer.from(GROUP_NAME, CONSUMER_NAME),
-                            StreamReadOptions.empty().count(1).block(Duration.ofMillis(2000)),
-                            StreamOffset.create(STREAM_KEY, ReadOffset.lastConsumed())
-                    );
-                    // 2.无消息则继续循环
-                    if (records == null || records.isEmpty()) {
-                        continue;
+            try {
+                // 循环消费：一直从队列取订单，直到线程池关闭
+                while (running && !Thread.currentThread().isInterrupted()) {
+                    try {
+                        // 1.定期续期租约，按份额领取或释放分区
+                        if (System.currentTimeMillis() >= nextRebalanceTime) {
+                            rebalance();
+                            nextRebalanceTime = System.currentTimeMillis() + seckillOrderProperties.getLeaseMillis() / 3;
+                        }
+                        if (partitions.isEmpty()) {
+                            Thread.sleep(seckillOrderProperties.getBlockMillis());
+                            continue;
+                        }
+                        // 2.拉取消息：一次XREADGROUP读取持有的全部分区，一次最多batchSize条，阻塞等待（避免永久阻塞）
+                        List<MapRecord<String, Object, Object>> records = stringRedisTemplate.opsForStream().read(
+                                Consumer.from(GROUP_NAME, consumerName),
+                                StreamReadOptions.empty()
+                                        .count(seckillOrderProperties.getBatchSize())
+                                        .block(Duration.ofMillis(seckillOrderProperties.getBlockMillis())),
+                                streamOffsets()
+                        );
+                        // 3.无消息则继续循环
+                        if (records == null || records.isEmpty()) {
+                            continue;
+                        }
+                        // 4.按分区处理：每个分区一个事务落库、一次XACK
+                        Map<String, List<MapRecord<String, Object, Object>>> streamRecords = new LinkedHashMap<>();
+                        for (MapRecord<String, Object, Object> record : records) {
+                            streamRecords.computeIfAbsent(record.getStream(), k -> new ArrayList<>()).add(record);
+                        }
+                        for (Map.Entry<String, List<MapRecord<String, Object, Object>>> entry : streamRecords.entrySet()) {
+                            handleRecords(entry.getKey(), entry.getValue());
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } catch (Exception e) {
+                        log.error("处理订单异常：{}", e.getMessage(), e);
                     }
-                    // 3.解析消息中的订单信息
-                    MapRecord<String, Object, Object> record = records.get(0);
-                    Map<Object, Object> values = record.getValue();
-                    VoucherOrder voucherOrder = BeanUtil.fillBeanWithMap(values, new VoucherOrder(), true);
-                    // 4.处理消息
-                    handleVoucherOrder(voucherOrder);
-                    // 5.ACK确认：消息处理完成，从Pending列表移除
-                    stringRedisTemplate.opsForStream().acknowledge(GROUP_NAME, record);
-                } catch (Exception e) {
-                    // 处理订单异常 -- PendingList
-                    log.error("处理订单异常：{}", e.getMessage(), e);
-                    handlePendingList();
                 }
+            } finally {
+                releasePartitions();
+            }
+        }
+
+        /**
+         * 续期租约；持有的分区超出份额时释放（未确认的消息由回收任务接管），不足时领取空闲分区
+         */
+        private void rebalance() {
+            partitions.removeAll(partitionLeaseManager.renew(consumerName, partitions));
+            int quota = partitionLeaseManager.quota(consumerName);
+            while (partitions.size() > quota) {
+                partitionLeaseManager.release(consumerName, partitions.remove(partitions.size() - 1));
+            }
+            if (partitions.size() < quota) {
+                partitions.addAll(partitionLeaseManager.claim(consumerName, quota - partitions.size(), partitions));
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private StreamOffset<String>[] streamOffsets() {
+            StreamOffset<String>[] offsets = new StreamOffset[partitions.size()];
+            for (int i = 0; i < offsets.length; i++) {
+                offsets[i] = StreamOffset.create(STREAM_KEY_PREFIX + partitions.get(i), ReadOffset.lastConsumed());
+            }
+            return offsets;
+        }
+
+        /**
+         * 退出前释放分区，其他消费者无需等待租约过期即可接管
+         */
+        private void releasePartitions() {
+            try {
+                for (Integer partition : partitions) {
+                    partitionLeaseManager.release(consumerName, partition);
+                }
+                partitionLeaseManager.leave(consumerName);
+            } catch (Exception e) {
+                log.warn("释放订单分区失败，consumer: {}，分区：{}", consumerName, partitions, e);
             }
         }
     }
 
-    private void handlePendingList() {
-        // 循环消费：一直从队列取订单，直到线程池关闭
-        while (!Thread.currentThread().isInterrupted()) {
+    /**
+     * 处理同一分区的一批消息：整批在一个事务中落库，一次XACK确认
+     */
+    private void handleRecords(String streamKey, List<MapRecord<String, Object, Object>> records) {
+        // 1.解析消息中的订单信息：字段缺失的消息重试也不会成功，直接转入死信队列
+        List<MapRecord<String, Object, Object>> validRecords = new ArrayList<>(records.size());
+        List<VoucherOrder> voucherOrders = new ArrayList<>(records.size());
+        for (MapRecord<String, Object, Object> record : records) {
+            VoucherOrder voucherOrder = parseVoucherOrder(record.getValue());
+            if (voucherOrder == null) {
+                deadLetter(streamKey, record, 1, INVALID_ORDER_REASON);
+                continue;
+            }
+            validRecords.add(record);
+            voucherOrders.add(voucherOrder);
+        }
+        if (voucherOrders.isEmpty()) {
+            return;
+        }
+        try {
+            // 2.整批在一个事务中落库
+            thisProxy.createVoucherOrders(voucherOrders);
+            // 3.一次XACK确认整批消息
+            String[] recordIds = validRecords.stream().map(record -> record.getId().getValue()).toArray(String[]::new);
+            stringRedisTemplate.opsForStream().acknowledge(streamKey, GROUP_NAME, recordIds);
+        } catch (Exception e) {
+            // 整批落库失败（事务已回滚，包括批内有重复订单）：逐条处理，隔离有问题的消息
+            log.error("处理订单异常：{}", e.getMessage(), e);
+            handleOneByOne(streamKey, validRecords);
+        }
+    }
+
+    /**
+     * 逐条处理一批消息（整批落库失败时调用），每条只尝试一次
+     * 失败的消息留在PendingList中，由回收任务延迟重试，超过最大投递次数后转入死信队列，主流程不会卡在同一条消息上
+     */
+    private void handleOneByOne(String streamKey, List<MapRecord<String, Object, Object>> records) {
+        for (MapRecord<String, Object, Object> record : records) {
             try {
-                // 1.拉取消息：消费组模式，阻塞2秒（避免永久阻塞）
+                VoucherOrder voucherOrder = parseVoucherOrder(record.getValue());
+                if (voucherOrder == null) {
+                    deadLetter(streamKey, record, 1, INVALID_ORDER_REASON);
+                    continue;
+                }
+                thisProxy.createVoucherOrder(voucherOrder);
+                stringRedisTemplate.opsForStream().acknowledge(streamKey, GROUP_NAME, record.getId());
+            } catch (Exception e) {
+                log.warn("订单处理失败，等待回收重试，stream: {}，id: {}，原因：{}", streamKey, record.getId(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 回收PendingList：扫描全部分区中空闲超过minIdle的消息（消费者宕机、或处理失败后未确认），
+     * XCLAIM到本实例的回收消费者后重试；投递次数达到上限的消息转入死信队列并确认
+     * 多个实例同时回收时，XCLAIM的最小空闲时间保证同一条消息只会被一个实例领取
+     */
+    private void reclaimPending() {
+        String reclaimer = instanceId + "-reclaim";
+        Duration minIdle = Duration.ofMillis(seckillOrderProperties.getReclaimMinIdleMillis());
+        for (int p = 0; p < seckillOrderProperties.getPartitions() && running; p++) {
+            reclaimStream(STREAM_KEY_PREFIX + p, reclaimer, minIdle);
+        }
+        // 旧Stream：先读完未投递的消息，再回收它的PendingList
+        if (running && drainLegacyStream(reclaimer)) {
+            reclaimStream(LEGACY_STREAM_KEY, reclaimer, minIdle);
+        }
+    }
+
+    private void reclaimStream(String streamKey, String reclaimer, Duration minIdle) {
+        try {
+            PendingMessages pendingMessages = stringRedisTemplate.opsForStream().pending(
+                    streamKey, GROUP_NAME, Range.unbounded(), seckillOrderProperties.getBatchSize());
+            for (PendingMessage pendingMessage : pendingMessages) {
+                if (pendingMessage.getElapsedTimeSinceLastDelivery().compareTo(minIdle) >= 0) {
+                    reclaim(streamKey, reclaimer, minIdle, pendingMessage);
+                }
+            }
+            removeIdleConsumers(streamKey);
+        } catch (Exception e) {
+            log.error("回收订单PendingList异常，stream: {}", streamKey, e);
+        }
+    }
+
+    /**
+     * 处理分区前的旧Stream（streams:order）中尚未投递的消息，直到读空
+     * 滚动升级期间旧版本实例仍可能写入旧Stream，所以每次回收都检查一次，而不是只在启动时处理
+     * @return 旧Stream是否存在
+     */
+    private boolean drainLegacyStream(String consumerName) {
+        try {
+            if (!Boolean.TRUE.equals(stringRedisTemplate.hasKey(LEGACY_STREAM_KEY))) {
+                return false;
+            }
+            createGroupIfAbsent(LEGACY_STREAM_KEY);
+            while (running) {
+                // 不阻塞：读空即返回
                 List<MapRecord<String, Object, Object>> records = stringRedisTemplate.opsForStream().read(
-                        Consumer.from(GROUP_NAME, CONSUMER_NAME),
-                        StreamReadOptions.empty().count(1).block(Duration.ofMillis(2000)),
-                        StreamOffset.create(STREAM_KEY, ReadOffset.from("0"))
+                        Consumer.from(GROUP_NAME, consumerName),
+                        StreamReadOptions.empty().count(seckillOrderProperties.getBatchSize()),
+                        StreamOffset.create(LEGACY_STREAM_KEY, ReadOffset.lastConsumed())
                 );
-                // 2.无消息，说明没有异常消息，退出循环
                 if (records == null || records.isEmpty()) {
                     break;
                 }
-                // 3.解析消息中的订单信息
-                MapRecord<String, Object, Object> record = records.get(0);
-                Map<Object, Object> values = record.getValue();
-                VoucherOrder voucherOrder = BeanUtil.fillBeanWithMap(values, new VoucherOrder(), true);
-                // 4.处理消息
-                handleVoucherOrder(voucherOrder);
-                // 5.ACK确认：消息处理完成，从Pending列表移除
-                stringRedisTemplate.opsForStream().acknowledge(GROUP_NAME, record);
-            } catch (Exception e) {
-                try {
-                    Thread.sleep(20);
-                } catch (InterruptedException ex) {
-                    ex.printStackTrace();
-                }
-                log.error("处理订单异常：{}", e.getMessage(), e);
+                handleRecords(LEGACY_STREAM_KEY, records);
             }
+            return true;
+        } catch (Exception e) {
+            log.error("处理旧订单Stream异常，stream: {}", LEGACY_STREAM_KEY, e);
+            return false;
         }
     }
 
+    private void reclaim(String streamKey, String reclaimer, Duration minIdle, PendingMessage pendingMessage) {
+        // StreamOperations没有XCLAIM的封装，直接在连接上执行
+        List<StringRecord> claimed = stringRedisTemplate.execute((RedisCallback<List<StringRecord>>) connection ->
+                ((StringRedisConnection) connection).xClaim(streamKey, GROUP_NAME, reclaimer, minIdle, pendingMessage.getId()));
+        if (claimed == null || claimed.isEmpty()) {
+            // 已被其他实例领取，或消息已被删除（XCLAIM不会返回已删除的消息）
+            return;
+        }
+        StringRecord record = claimed.get(0);
+        // XCLAIM会把投递次数加一
+        long deliveryCount = pendingMessage.getTotalDeliveryCount() + 1;
+        int maxDeliveries = seckillOrderProperties.getMaxDeliveries();
+        if (deliveryCount > maxDeliveries) {
+            deadLetter(streamKey, record, deliveryCount, "超过最大投递次数：" + maxDeliveries);
+            return;
+        }
+        VoucherOrder voucherOrder = parseVoucherOrder(record.getValue());
+        if (voucherOrder == null) {
+            deadLetter(streamKey, record, deliveryCount, INVALID_ORDER_REASON);
+            return;
+        }
+        try {
+            thisProxy.createVoucherOrder(voucherOrder);
+            stringRedisTemplate.opsForStream().acknowledge(streamKey, GROUP_NAME, record.getId());
+        } catch (Exception e) {
+            if (deliveryCount >= maxDeliveries) {
+                deadLetter(streamKey, record, deliveryCount, e.toString());
+            } else {
+                log.warn("订单重试失败，stream: {}，id: {}，第{}次投递，原因：{}",
+                        streamKey, record.getId(), deliveryCount, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 解析消息中的订单
+     * @return 订单ID、用户ID、优惠券ID任一缺失（或无法解析为数字）时返回null
+     */
+    private static VoucherOrder parseVoucherOrder(Map<?, ?> fields) {
+        VoucherOrder voucherOrder = BeanUtil.fillBeanWithMap(fields, new VoucherOrder(), true);
+        if (voucherOrder.getId() == null || voucherOrder.getUserId() == null || voucherOrder.getVoucherId() == null) {
+            return null;
+        }
+        return voucherOrder;
+    }
+
+    /**
+     * 转入死信队列：保留原消息字段，附加来源、投递次数和失败原因，再确认原消息
+     */
+    private void deadLetter(String streamKey, Record<String, ? extends Map<?, ?>> record, long deliveryCount, String reason) {
+        Map<String, String> fields = new LinkedHashMap<>();
+        record.getValue().forEach((field, value) -> fields.put(String.valueOf(field), String.valueOf(value)));
+        fields.put("stream", streamKey);
+        fields.put("messageId", record.getId().getValue());
+        fields.put("deliveryCount", String.valueOf(deliveryCount));
+        fields.put("reason", reason);
+        stringRedisTemplate.opsForStream().add(StreamRecords.string(fields).withStreamKey(DLQ_STREAM_KEY));
+        stringRedisTemplate.opsForStream().acknowledge(streamKey, GROUP_NAME, record.getId());
+        log.error("订单消息转入死信队列，stream: {}，id: {}，投递次数：{}，原因：{}",
+                streamKey, record.getId(), deliveryCount, reason);
+    }
+
+    /**
+     * 删除没有待确认消息、且长时间空闲的消费者（实例重启后消费者名称会变化，旧名称不再使用）
+     */
+    private void removeIdleConsumers(String streamKey) {
+        long maxIdleMillis = seckillOrderProperties.getLeaseMillis() * 10;
+        stringRedisTemplate.opsForStream().consumers(streamKey, GROUP_NAME).forEach(consumer -> {
+            if (consumer.pendingCount() == 0 && consumer.idleTimeMs() > maxIdleMillis) {
+                stringRedisTemplate.opsForStream().deleteConsumer(streamKey, Consumer.from(GROUP_NAME, consumer.consumerName()));
+            }
+        });
+    }
+
     // 初始化Lua脚本（项目启动时加载）
     static {
         SECKILL_SCRIPT = new DefaultRedisScript<>();
@@ -178,14 +453,17 @@ public class VoucherOrderServiceImpl extends ServiceImpl<VoucherOrderMapper, Vou
     @PreDestroy
     public void destroy() {
         log.info("开始关闭秒杀订单处理线程池");
-        SECKILL_ORDER_EXECUTOR.shutdown();
+        // 消费者处理完当前批次、释放分区后退出
+        running = false;
+        pendingReclaimExecutor.shutdownNow();
+        seckillOrderExecutor.shutdown();
         try {
             // 等待30秒，若仍未关闭则强制终止
-            if (!SECKILL_ORDER_EXECUTOR.awaitTermination(30, TimeUnit.SECONDS)) {
-                SECKILL_ORDER_EXECUTOR.shutdownNow();
+            if (!seckillOrderExecutor.awaitTermination(30, TimeUnit.SECONDS)) {
+                seckillOrderExecutor.shutdownNow();
             }
         } catch (InterruptedException e) {
-            SECKILL_ORDER_EXECUTOR.shutdownNow();
+            seckillOrderExecutor.shutdownNow();
         }
         log.info("秒杀订单处理线程池已关闭");
     }
@@ -200,6 +478,10 @@ public class VoucherOrderServiceImpl extends ServiceImpl<VoucherOrderMapper, Vou
         // ------------- 抢单业务 -----------------
         // 0. 获取用户ID
         Long userId = UserHolder.getUser().getId();
+        // 本地已标记售罄：不生成订单ID、不执行Lua，直接拒绝
+        if (seckillSoldOutRegistry.isSoldOut(voucherId)) {
+            throw new RuntimeException("库存不足");
+        }
         // 预生成订单ID
         Long orderId = redisIdWorker.nextId("order");
 
@@ -209,12 +491,17 @@ public class VoucherOrderServiceImpl extends ServiceImpl<VoucherOrderMapper, Vou
                 Collections.emptyList(),
                 voucherId.toString(),
                 userId.toString(),
-                orderId.toString()
+                orderId.toString(),
+                String.valueOf(seckillOrderProperties.getPartitions())
         );
 
         // 2.判断结果是否为0
         // 2.1.不为0，代表没有购买资格
         if (result != 0) {
+            if (result == 1) {
+                // 库存不足：本地标记售罄并通知其他实例
+                seckillSoldOutRegistry.markSoldOut(voucherId);
+            }
             String msg = result == 1 ? "库存不足" : "请勿重复下单";
             throw new RuntimeException(msg);
         }
@@ -333,45 +620,58 @@ public class VoucherOrderServiceImpl extends ServiceImpl<VoucherOrderMapper, Vou
 
     @Transactional
     public void createVoucherOrder(VoucherOrder voucherOrder) {
-        // 1.一人一单
-        Long userId = voucherOrder.getUserId();
-        Long voucherId = voucherOrder.getVoucherId();
-        Integer count = query().eq("user_id", userId).eq("voucher_id", voucherId).count();
-        if (count > 0) {
-            // 用户已经购买过了
-            throw new RuntimeException("用户已经购买过一次！");
+        // 1.创建订单：唯一索引(user_id, voucher_id)保证一人一单
+        try {
+            getBaseMapper().insertBatch(Collections.singletonList(voucherOrder));
+        } catch (DuplicateKeyException e) {
+            // 只有违反一人一单唯一索引才是重复订单（重复投递的消息或用户已经购买过），幂等返回；
+            // 主键冲突等其他重复说明订单ID有问题，继续抛出，由回收任务重试后转入死信队列
+            String message = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+            if (message == null || !message.contains(UNIQUE_USER_VOUCHER)) {
+                throw e;
+            }
+            log.warn("跳过重复订单，userId: {}，voucherId: {}", voucherOrder.getUserId(), voucherOrder.getVoucherId());
+            return;
         }
 
         // 2.扣减库存
         boolean success = seckillVoucherServiceImpl.update()
                 .setSql("stock = stock - 1")
-                .eq("voucher_id", voucherId)
+                .eq("voucher_id", voucherOrder.getVoucherId())
                 .gt("stock", 0) // 乐观锁解决超卖问题
                 .update();
         if (!success) {
-            // 扣减失败
+            // 扣减失败（回滚已插入的订单）
             throw new RuntimeException("扣减失败");
         }
-
-        // 2.创建订单
-        save(voucherOrder);
     }
 
-    private void handleVoucherOrder(VoucherOrder voucherOrder) {
-
-        Long userId = voucherOrder.getUserId();
-        // 用redis分布式锁执行秒杀
-        RLock lock = redissonClient.getLock("lock:order:" + userId);
-        boolean isLock = lock.tryLock();
-        if (!isLock) {
-            throw new RuntimeException("不允许重复下单");
+    @Override
+    @Transactional
+    public int createVoucherOrders(List<VoucherOrder> voucherOrders) {
+        // 1.按优惠券分组（按优惠券ID顺序处理，避免并发事务间死锁）
+        Map<Long, List<VoucherOrder>> voucherOrderMap = new TreeMap<>();
+        for (VoucherOrder voucherOrder : voucherOrders) {
+            voucherOrderMap.computeIfAbsent(voucherOrder.getVoucherId(), k -> new ArrayList<>()).add(voucherOrder);
         }
-
-        try {
-            thisProxy.createVoucherOrder(voucherOrder);
-        } finally {
-            lock.unlock();
+        int total = 0;
+        for (Map.Entry<Long, List<VoucherOrder>> entry : voucherOrderMap.entrySet()) {
+            List<VoucherOrder> orders = entry.getValue();
+            // 2.多行插入订单：有任一重复订单时抛出DuplicateKeyException，整批回滚后逐条处理
+            int inserted = getBaseMapper().insertBatch(orders);
+            // 3.按插入的订单数扣减库存
+            boolean success = seckillVoucherServiceImpl.update()
+                    .setSql("stock = stock - " + inserted)
+                    .eq("voucher_id", entry.getKey())
+                    .ge("stock", inserted) // 乐观锁解决超卖问题
+                    .update();
+            if (!success) {
+                // 扣减失败：整批回滚，逐条重试
+                throw new RuntimeException("扣减失败，voucherId: " + entry.getKey());
+            }
+            total += inserted;
         }
+        return total;
     }
 
     /*private void testReentrantLock() {
@@ -7,9 +7,13 @@ import com.hmdp.mapper.VoucherMapper;
 import com.hmdp.entity.SeckillVoucher;
 import com.hmdp.service.ISeckillVoucherService;
 import com.hmdp.service.IVoucherService;
+import com.hmdp.utils.SeckillSoldOutRegistry;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import javax.annotation.Resource;
 import java.util.List;
@@ -24,6 +28,7 @@ import static com.hmdp.utils.RedisConstants.SECKILL_STOCK_KEY;
  * @author 虎哥
  * @since 2021-12-22
  */
+@Slf4j
 @Service
 public class VoucherServiceImpl extends ServiceImpl<VoucherMapper, Voucher> implements IVoucherService {
 
@@ -31,6 +36,8 @@ public class VoucherServiceImpl extends ServiceImpl<VoucherMapper, Voucher> impl
     private ISeckillVoucherService seckillVoucherService;
     @Resource
     private StringRedisTemplate stringRedisTemplate;
+    @Resource
+    private SeckillSoldOutRegistry seckillSoldOutRegistry;
 
     @Override
     public Result queryVoucherOfShop(Long shopId) {
@@ -59,4 +66,45 @@ public class VoucherServiceImpl extends ServiceImpl<VoucherMapper, Voucher> impl
                 voucher.getStock().toString()
         );
     }
+
+    @Override
+    @Transactional
+    public Result restockSeckillVoucher(Long voucherId, Integer count) {
+        if (count == null || count <= 0) {
+            throw new RuntimeException("补货数量必须大于0");
+        }
+        // 1.增加数据库库存
+        boolean success = seckillVoucherService.update()
+                .setSql("stock = stock + " + count)
+                .eq("voucher_id", voucherId)
+                .update();
+        if (!success) {
+            throw new RuntimeException("秒杀券不存在");
+        }
+        // 2.事务提交后再修改Redis：回滚时Redis库存不会多出，提交前也不会放行超出数据库库存的下单
+        // afterCommit在代理方法返回前执行，失败时直接改写返回结果
+        Result result = Result.ok();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                try {
+                    // 2.1.增加Redis库存（Lua脚本按Redis库存判定下单资格）
+                    stringRedisTemplate.opsForValue().increment(SECKILL_STOCK_KEY + voucherId, count);
+                } catch (Exception e) {
+                    // 数据库已提交，不能重试整个补货（异常也不会回滚），需要人工补齐Redis库存
+                    log.error("秒杀券补货已提交，但增加Redis库存失败，voucherId: {}，数量：{}", voucherId, count, e);
+                    result.setSuccess(false);
+                    result.setErrorMsg("数据库库存已增加，Redis库存增加失败，需要人工补齐，voucherId: " + voucherId + "，数量：" + count);
+                } finally {
+                    // 2.2.清除各实例的本地售罄标记（Redis库存未补齐时也要清除，否则数据库已补的库存被本地标记挡住）
+                    try {
+                        seckillSoldOutRegistry.reset(voucherId);
+                    } catch (Exception e) {
+                        log.error("清除秒杀券售罄标记失败，voucherId: {}", voucherId, e);
+                    }
+                }
+            }
+        });
+        return result;
+    }
 }
@@ -0,0 +1,662 @@
+package com.hmdp.utils;
+
+import cn.hutool.core.collection.CollectionUtil;
+import cn.hutool.core.util.StrUtil;
+import com.hmdp.cache.config.CacheClientProperties;
+import com.hmdp.cache.hotkey.HotKeyDetector;
+import com.hmdp.cache.hotkey.HotKeyReplicas;
+import com.hmdp.cache.lock.LockRenewalWatchdog;
+import com.hmdp.cache.metrics.CacheMetrics;
+import com.hmdp.cache.near.NearCache;
+import com.hmdp.cache.notify.CacheRebuildNotifier;
+import io.lettuce.core.KeyValue;
+import io.lettuce.core.SetArgs;
+import io.lettuce.core.cluster.api.async.RedisClusterAsyncCommands;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 异步缓存客户端：与CacheClient的查询语义一致，返回CompletableFuture，不阻塞调用线程
+ * 1. 读缓存、抢锁、等待重建都基于Lettuce异步命令，命中时在Redis响应回调中直接完成
+ * 2. 抢锁失败不休眠：定时器延迟重查或等待重建通知后再重新抢锁
+ * 3. 查库（JDBC本身是阻塞的）以及持锁后的双重检查、写回、释放锁在独立的加载线程池中执行，
+ *    复用CacheClient的版本校验、热点副本、近端缓存同步等逻辑；同一JVM内同一Key的并发未命中共享一次加载
+ * 4. 批量查询：近端缓存和一次异步MGET命中的直接返回，其余交给CacheClient对应的批量方法在加载线程池中处理
+ * 5. 热点Key与同步客户端一致：先读近端缓存中的固定副本，读到的数据固定到近端缓存
+ * 布隆过滤器的存在性判断在加载线程中查库或抢锁前进行，命中路径只有一次GET
+ * 注意：Redis响应回调运行在Lettuce的事件循环线程上，回调中只做解析和本地操作，同步Redis命令一律交给加载线程或定时器
+ */
+@Slf4j
+@Component
+public class AsyncCacheClient {
+
+    // 批量查询中需要交给同步引擎处理的标记
+    private static final Object MISS = new Object();
+    // 抢锁失败后的轮询间隔（未启用重建通知时）
+    private static final long WAIT_INTERVAL_MILLIS = 50;
+
+    @Autowired
+    private CacheClient cacheClient;
+    @Autowired
+    private RedisConnectionFactory connectionFactory;
+    @Autowired
+    private NearCache nearCache;
+    @Autowired
+    private HotKeyDetector hotKeyDetector;
+    @Autowired
+    private HotKeyReplicas hotKeyReplicas;
+    @Autowired
+    private LockRenewalWatchdog lockWatchdog;
+    @Autowired
+    private CacheRebuildNotifier rebuildNotifier;
+    @Autowired
+    private CacheClientProperties properties;
+    @Autowired
+    private CacheMetrics metrics;
+
+    // 查库、持锁重建线程池
+    private ThreadPoolExecutor loaderExecutor;
+    // 延迟重查、等待超时的定时器
+    private ScheduledExecutorService timer;
+    // 加载中的Key -> 共享结果
+    private final ConcurrentMap<String, CompletableFuture<Object>> inflight = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        // 异步命令直接使用共享的原生连接，独占连接（连接池）模式下归还连接会中断进行中的命令
+        if (!(connectionFactory instanceof LettuceConnectionFactory)
+                || !((LettuceConnectionFactory) connectionFactory).getShareNativeConnection()) {
+            throw new IllegalStateException("AsyncCacheClient需要共享原生连接的LettuceConnectionFactory");
+        }
+        CacheClientProperties.Async asyncConfig = properties.getAsync();
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.loaderExecutor = new ThreadPoolExecutor(
+                asyncConfig.getLoaderThreads(), asyncConfig.getLoaderThreads(),
+                60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(asyncConfig.getLoaderQueueCapacity()),
+                r -> {
+                    Thread thread = new Thread(r, "async-cache-loader-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.timer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "async-cache-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        timer.shutdownNow();
+        loaderExecutor.shutdownNow();
+    }
+
+    /**
+     * 解决缓存穿透问题（异步）
+     */
+    public <D, ID> CompletableFuture<D> queryWithPassThrough(
+            String keyPrefix,
+            ID id,
+            Class<D> type,
+            Function<ID, D> dbFallback,
+            Long time,
+            TimeUnit timeUnit
+    ) {
+        return queryWithPassThrough((d) -> keyPrefix + d, id, type, dbFallback, time, timeUnit);
+    }
+
+    /**
+     * 解决缓存穿透问题（异步，支持 DTO 传参 + 自定义 Key 生成）
+     * @return 业务数据的Future，数据库无数据则结果为null
+     */
+    public <D, DTO> CompletableFuture<D> queryWithPassThrough(
+            Function<DTO, String> keyGenerator,
+            DTO dto,
+            Class<D> type,
+            Function<DTO, D> dbFallback,
+            Long time,
+            TimeUnit timeUnit
+    ) {
+        String key = checkAndBuildKey(keyGenerator, dto, type, dbFallback);
+        boolean hot = hotKeyDetector.record(key);
+        D localData = getLocal(key, hot, dto, type, dbFallback, time, timeUnit);
+        if (localData != null) {
+            return CompletableFuture.completedFuture(localData);
+        }
+        return readWithReplica(key, hot).thenCompose(json -> {
+            if (json != null) {
+                try {
+                    // parseCachedValue同时写入近端缓存
+                    D data = cacheClient.parseCachedValue(key, json, type);
+                    recordCached(key, json);
+                    return CompletableFuture.completedFuture(cacheClient.pinIfHot(hot, key, data));
+                } catch (Exception e) {
+                    // 反序列化失败：删除损坏的缓存后重新加载
+                    return load(key, () -> {
+                        cacheClient.delete(key);
+                        return cacheClient.loadFromDb(key, dto, dbFallback, time, timeUnit);
+                    }).thenApply(data -> cacheClient.pinIfHot(hot, key, data));
+                }
+            }
+            metrics.recordMiss(key);
+            return load(key, () -> cacheClient.mightExist(key)
+                    ? cacheClient.loadFromDb(key, dto, dbFallback, time, timeUnit)
+                    : null).thenApply(data -> cacheClient.pinIfHot(hot, key, data));
+        });
+    }
+
+    /**
+     * 互斥锁策略（异步），默认重试次数5次
+     */
+    public <D, ID> CompletableFuture<D> queryWithMutex(
+            String keyPrefix,
+            ID id,
+            Class<D> type,
+            Function<ID, D> dbFallback,
+            Long time,
+            TimeUnit timeUnit
+    ) {
+        return queryWithMutex((d) -> keyPrefix + d, id, type, dbFallback, time, timeUnit, 5);
+    }
+
+    /**
+     * 互斥锁策略（异步）：抢锁失败时不阻塞线程，延迟或收到重建通知后重查缓存，仍未命中再重新抢锁
+     * @param retryCount 获取锁失败的重试次数，耗尽后结果以异常完成
+     */
+    public <D, DTO> CompletableFuture<D> queryWithMutex(
+            Function<DTO, String> keyGenerator,
+            DTO dto,
+            Class<D> type,
+            Function<DTO, D> dbFallback,
+            Long time,
+            TimeUnit timeUnit,
+            int retryCount
+    ) {
+        String key = checkAndBuildKey(keyGenerator, dto, type, dbFallback);
+        boolean hot = hotKeyDetector.record(key);
+        D localData = getLocal(key, hot, dto, type, dbFallback, time, timeUnit);
+        if (localData != null) {
+            return CompletableFuture.completedFuture(localData);
+        }
+        return readWithReplica(key, hot).thenCompose(json -> {
+            if (json != null) {
+                try {
+                    // parseCachedValue同时写入近端缓存
+                    D data = cacheClient.parseCachedValue(key, json, type);
+                    recordCached(key, json);
+                    return CompletableFuture.completedFuture(cacheClient.pinIfHot(hot, key, data));
+                } catch (Exception e) {
+                    // 反序列化失败：在加载线程中删除损坏的缓存，再走重建流程
+                    return share(key, () -> supplyOnLoader(() -> {
+                        cacheClient.delete(key);
+                        return null;
+                    }, () -> { }).thenCompose(v -> rebuildWithMutex(key, dto, type, dbFallback, time, timeUnit, retryCount)))
+                            .thenApply(data -> cacheClient.pinIfHot(hot, key, data));
+                }
+            }
+            // 同一Key的并发未命中只由一个请求抢锁重建；布隆过滤器判定不存在时不抢锁、不查库
+            metrics.recordMiss(key);
+            return share(key, () -> supplyOnLoader(() -> cacheClient.mightExist(key), () -> { })
+                    .thenCompose(exists -> exists
+                            ? rebuildWithMutex(key, dto, type, dbFallback, time, timeUnit, retryCount)
+                            : CompletableFuture.<D>completedFuture(null)))
+                    .thenApply(data -> cacheClient.pinIfHot(hot, key, data));
+        });
+    }
+
+    /**
+     * 逻辑过期策略（异步）：过期时在加载线程池中抢锁并提交重建调度，当前请求直接返回旧数据
+     */
+    public <D, ID> CompletableFuture<D> queryWithLogicalExpire(
+            String keyPrefix,
+            ID id,
+            Class<D> type,
+            Function<ID, D> dbFallback,
+            Long time,
+            TimeUnit timeUnit
+    ) {
+        return queryWithLogicalExpire((d) -> keyPrefix + d, id, type, dbFallback, time, timeUnit);
+    }
+
+    public <D, DTO> CompletableFuture<D> queryWithLogicalExpire(
+            Function<DTO, String> keyGenerator,
+            DTO dto,
+            Class<D> type,
+            Function<DTO, D> dbFallback,
+            Long time,
+            TimeUnit timeUnit
+    ) {
+        String key = checkAndBuildKey(keyGenerator, dto, type, dbFallback);
+        hotKeyDetector.record(key);
+        RedisData<D> localRedisData = cacheClient.getLocalRedisData(key, type);
+        if (localRedisData != null && localRedisData.getExpireTime().isAfter(LocalDateTime.now())) {
+            metrics.recordHit(key);
+            return CompletableFuture.completedFuture(localRedisData.getData());
+        }
+        return get(key).thenCompose(json -> {
+            // 空值：数据库中不存在该数据
+            if (json != null && json.isEmpty()) {
+                metrics.recordNullHit(key);
+                return CompletableFuture.completedFuture(null);
+            }
+            if (StrUtil.isBlank(json)) {
+                metrics.recordMiss(key);
+                return load(key, () -> cacheClient.mightExist(key)
+                        ? cacheClient.loadLogicalExpire(key, dto, dbFallback, time, timeUnit)
+                        : null);
+            }
+            RedisData<D> redisData = cacheClient.decodeRedisData(json, type);
+            if (redisData == null || redisData.getData() == null) {
+                // 缓存数据损坏：删除后查数据库兜底
+                metrics.recordMiss(key);
+                return load(key, () -> {
+                    cacheClient.delete(key);
+                    return cacheClient.loadLogicalExpire(key, dto, dbFallback, time, timeUnit);
+                });
+            }
+            metrics.recordHit(key);
+            if (redisData.getExpireTime().isAfter(LocalDateTime.now())) {
+                nearCache.put(key, redisData);
+            } else {
+                metrics.recordStale(key, 1);
+                // 已过期：抢锁、二次校验、提交重建都在加载线程中进行，不等待结果
+                try {
+                    loaderExecutor.execute(() -> cacheClient.triggerLogicalRebuild(key, dto, type, dbFallback, time, timeUnit));
+                } catch (RejectedExecutionException e) {
+                    log.warn("异步加载线程池已满，放弃本次逻辑过期重建，key: {}", key);
+                }
+            }
+            return CompletableFuture.completedFuture(redisData.getData());
+        });
+    }
+
+    /**
+     * 批量查询：缓存穿透处理（异步）
+     */
+    public <D, DTO> CompletableFuture<Map<DTO, D>> batchQueryWithPassThrough(
+            Function<DTO, String> keyGenerator,
+            List<DTO> dtos,
+            Class<D> type,
+            Function<List<DTO>, Map<DTO, D>> batchDbFallback,
+            Long time,
+            TimeUnit timeUnit
+    ) {
+        return batchQuery(keyGenerator, dtos, key -> nearCache.get(key, type), (key, json) -> decodeValue(key, json, type),
+                missDtos -> cacheClient.batchQueryWithPassThrough(keyGenerator, missDtos, type, batchDbFallback, time, timeUnit));
+    }
+
+    /**
+     * 互斥锁策略：批量查询（异步），默认重试次数5次
+     */
+    public <D, DTO> CompletableFuture<Map<DTO, D>> batchQueryWithMutex(
+            Function<DTO, String> keyGenerator,
+            List<DTO> dtos,
+            Class<D> type,
+            Function<List<DTO>, Map<DTO, D>> batchDbFallback,
+            Long time,
+            TimeUnit timeUnit
+    ) {
+        return batchQueryWithMutex(keyGenerator, dtos, type, batchDbFallback, time, timeUnit, 5);
+    }
+
+    public <D, DTO> CompletableFuture<Map<DTO, D>> batchQueryWithMutex(
+            Function<DTO, String> keyGenerator,
+            List<DTO> dtos,
+            Class<D> type,
+            Function<List<DTO>, Map<DTO, D>> batchDbFallback,
+            Long time,
+            TimeUnit timeUnit,
+            int retryCount
+    ) {
+        return batchQuery(keyGenerator, dtos, key -> nearCache.get(key, type), (key, json) -> decodeValue(key, json, type),
+                missDtos -> cacheClient.batchQueryWithMutex(keyGenerator, missDtos, type, batchDbFallback, time, timeUnit, retryCount));
+    }
+
+    /**
+     * 逻辑过期策略：批量查询（异步），未过期的直接返回，过期和未命中的交给同步引擎（返回旧数据并异步重建）
+     */
+    public <D, DTO> CompletableFuture<Map<DTO, D>> batchQueryWithLogicalExpire(
+            Function<DTO, String> keyGenerator,
+            List<DTO> dtos,
+            Class<D> type,
+            Function<List<DTO>, Map<DTO, D>> batchDbFallback,
+            Long time,
+            TimeUnit timeUnit
+    ) {
+        return batchQuery(keyGenerator, dtos,
+                key -> {
+                    RedisData<D> redisData = cacheClient.getLocalRedisData(key, type);
+                    return redisData != null && redisData.getExpireTime().isAfter(LocalDateTime.now())
+                            ? redisData.getData() : null;
+                },
+                (key, json) -> {
+                    RedisData<D> redisData = StrUtil.isBlank(json) ? null : cacheClient.decodeRedisData(json, type);
+                    if (redisData == null || redisData.getData() == null
+                            || !redisData.getExpireTime().isAfter(LocalDateTime.now())) {
+                        return MISS;
+                    }
+                    nearCache.put(key, redisData);
+                    return redisData.getData();
+                },
+                missDtos -> cacheClient.batchQueryWithLogicalExpire(keyGenerator, missDtos, type, batchDbFallback, time, timeUnit));
+    }
+
+    /**
+     * 互斥锁重建：异步SET NX PX抢锁，成功后在加载线程中持锁查库；失败则等待后重查，仍未命中再抢锁
+     */
+    private <D, DTO> CompletableFuture<D> rebuildWithMutex(
+            String key,
+            DTO dto,
+            Class<D> type,
+            Function<DTO, D> dbFallback,
+            Long time,
+            TimeUnit timeUnit,
+            int retryCount
+    ) {
+        String lockKey = CacheClient.LOCK_PREFIX + key;
+        String lockValue = UUID.randomUUID().toString(); // 用UUID标识本次加锁
+        SetArgs lockArgs = SetArgs.Builder.nx().px(TimeUnit.SECONDS.toMillis(CacheClient.LOCK_TTL));
+        return commands().set(bytes(lockKey), bytes(lockValue), lockArgs).toCompletableFuture().thenCompose(reply -> {
+            if ("OK".equals(reply)) {
+                lockWatchdog.watch(lockKey, lockValue);
+                // 加载线程池已满时在定时器线程中释放锁（不能在Redis响应回调中执行同步命令）
+                return supplyOnLoader(() -> cacheClient.loadUnderLock(
+                        key, lockKey, lockValue, dto, type, dbFallback, time, timeUnit),
+                        () -> timer.execute(() -> cacheClient.unlock(lockKey, lockValue)));
+            }
+            if (retryCount <= 0) {
+                return failed(new RuntimeException("获取锁失败，请稍后重试"));
+            }
+            return waitForRebuild(key).thenCompose(json -> json != null
+                    ? CompletableFuture.completedFuture(cacheClient.parseCachedValue(key, json, type))
+                    : rebuildWithMutex(key, dto, type, dbFallback, time, timeUnit, retryCount - 1));
+        });
+    }
+
+    /**
+     * 抢锁失败后等待重建，返回重查到的缓存值（仍未命中为null）
+     * SLEEP模式由定时器延迟50ms后重查；NOTIFY模式等待持锁者的重建通知，超时后由定时器完成信号
+     */
+    private CompletableFuture<String> waitForRebuild(String key) {
+        if (!rebuildNotifier.isEnabled()) {
+            CompletableFuture<Void> delay = new CompletableFuture<>();
+            timer.schedule(() -> delay.complete(null), WAIT_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+            return delay.thenCompose(v -> get(key));
+        }
+        CompletableFuture<Void> signal = rebuildNotifier.register(key);
+        // 登记后先重查一次，避免重建恰好在抢锁失败与登记之间完成而错过通知
+        return get(key).thenCompose(json -> {
+            if (json != null) {
+                return CompletableFuture.completedFuture(json);
+            }
+            ScheduledFuture<?> timeout = timer.schedule(
+                    () -> rebuildNotifier.expire(key, signal), rebuildNotifier.getTimeoutMillis(), TimeUnit.MILLISECONDS);
+            return signal.thenCompose(v -> {
+                timeout.cancel(false);
+                return get(key);
+            });
+        });
+    }
+
+    /**
+     * 批量查询的公共流程：近端缓存 -> 一次异步MGET -> 未命中的交给同步引擎在加载线程中处理
+     * @param localLookup 近端缓存查询（未命中返回null）
+     * @param remoteDecoder 解析Redis中的值，返回MISS表示需要交给同步引擎
+     * @param engine CacheClient对应的批量查询方法
+     */
+    @SuppressWarnings("unchecked")
+    private <D, DTO> CompletableFuture<Map<DTO, D>> batchQuery(
+            Function<DTO, String> keyGenerator,
+            List<DTO> dtos,
+            Function<String, D> localLookup,
+            RemoteDecoder remoteDecoder,
+            Function<List<DTO>, Map<DTO, D>> engine
+    ) {
+        if (keyGenerator == null) {
+            throw new IllegalArgumentException("Key生成器不能为空");
+        }
+        if (CollectionUtil.isEmpty(dtos)) {
+            throw new IllegalArgumentException("批量查询的DTO列表不能为空");
+        }
+        Map<DTO, D> resultMap = new LinkedHashMap<>(); // 保留入参顺序
+        List<DTO> remoteDtos = new ArrayList<>();
+        List<String> remoteKeys = new ArrayList<>();
+        for (DTO dto : dtos) {
+            String key = keyGenerator.apply(dto);
+            if (StrUtil.isBlank(key)) {
+                throw new IllegalArgumentException("DTO生成的缓存Key不能为空：" + dto);
+            }
+            D localData = localLookup.apply(key);
+            resultMap.put(dto, localData);
+            if (localData == null) {
+                remoteDtos.add(dto);
+                remoteKeys.add(key);
+            }
+        }
+        if (remoteDtos.isEmpty()) {
+            metrics.recordBatch(keyGenerator.apply(dtos.get(0)), dtos.size(), 0);
+            return CompletableFuture.completedFuture(resultMap);
+        }
+        byte[][] rawKeys = new byte[remoteKeys.size()][];
+        for (int i = 0; i < rawKeys.length; i++) {
+            rawKeys[i] = bytes(remoteKeys.get(i));
+        }
+        long start = System.nanoTime();
+        return commands().mget(rawKeys).toCompletableFuture().thenCompose(values -> {
+            metrics.recordMultiGet(remoteKeys.get(0), System.nanoTime() - start);
+            List<DTO> missDtos = new ArrayList<>();
+            for (int i = 0; i < remoteDtos.size(); i++) {
+                KeyValue<byte[], byte[]> keyValue = values.get(i);
+                String json = keyValue.hasValue() ? string(keyValue.getValue()) : null;
+                Object decoded = remoteDecoder.decode(remoteKeys.get(i), json);
+                if (decoded == MISS) {
+                    missDtos.add(remoteDtos.get(i));
+                } else {
+                    resultMap.put(remoteDtos.get(i), (D) decoded);
+                }
+            }
+            // 未命中的由同步引擎处理并统计，这里只统计命中
+            metrics.recordBatch(remoteKeys.get(0), dtos.size() - missDtos.size(), 0);
+            if (missDtos.isEmpty()) {
+                return CompletableFuture.completedFuture(resultMap);
+            }
+            return supplyOnLoader(() -> engine.apply(missDtos), () -> { }).thenApply(loaded -> {
+                resultMap.putAll(loaded);
+                return resultMap;
+            });
+        });
+    }
+
+    /**
+     * 解析普通缓存值：未命中或损坏返回MISS，空值返回null
+     */
+    private Object decodeValue(String key, String json, Class<?> type) {
+        if (json == null) {
+            return MISS;
+        }
+        try {
+            return cacheClient.parseCachedValue(key, json, type);
+        } catch (Exception e) {
+            // 损坏的缓存由同步引擎删除并重建
+            return MISS;
+        }
+    }
+
+    /**
+     * 同一Key的并发调用共享同一个结果（结果完成后移除）
+     */
+    @SuppressWarnings("unchecked")
+    private <D> CompletableFuture<D> share(String key, Supplier<CompletableFuture<D>> task) {
+        CompletableFuture<Object> created = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inflight.putIfAbsent(key, created);
+        if (existing != null) {
+            return (CompletableFuture<D>) existing;
+        }
+        try {
+            task.get().whenComplete((data, e) -> {
+                inflight.remove(key, created);
+                if (e != null) {
+                    created.completeExceptionally(e);
+                } else {
+                    created.complete(data);
+                }
+            });
+        } catch (Throwable e) {
+            inflight.remove(key, created);
+            created.completeExceptionally(e);
+        }
+        return (CompletableFuture<D>) created;
+    }
+
+    /**
+     * 在加载线程中查库（同一Key的并发加载共享结果）
+     */
+    private <D> CompletableFuture<D> load(String key, Supplier<D> loader) {
+        return share(key, () -> supplyOnLoader(loader, () -> { }));
+    }
+
+    /**
+     * 提交到加载线程池，线程池已满时执行onRejected并以异常完成
+     */
+    private <T> CompletableFuture<T> supplyOnLoader(Supplier<T> supplier, Runnable onRejected) {
+        try {
+            return CompletableFuture.supplyAsync(supplier, loaderExecutor);
+        } catch (RejectedExecutionException e) {
+            onRejected.run();
+            return failed(new RuntimeException("缓存加载繁忙，请稍后重试"));
+        }
+    }
+
+    /**
+     * 读取普通缓存，启用副本的热点Key先随机读一个副本，副本缺失再读主Key
+     */
+    private CompletableFuture<String> readWithReplica(String key, boolean hot) {
+        if (hot && hotKeyReplicas.isReplicated(key)) {
+            return get(hotKeyReplicas.randomReplicaKey(key))
+                    .thenCompose(json -> json != null ? CompletableFuture.completedFuture(json) : get(key));
+        }
+        return get(key);
+    }
+
+    /**
+     * 读取本地数据：热点Key先读固定副本（副本逻辑过期时返回旧值并提交刷新），再读近端缓存，命中计入指标
+     * 只有本地操作，在调用线程中执行
+     */
+    private <D, DTO> D getLocal(String key, boolean hot, DTO dto, Class<D> type,
+                                Function<DTO, D> dbFallback, Long time, TimeUnit timeUnit) {
+        if (hot) {
+            D pinnedData = cacheClient.getPinned(key, dto, type, dbFallback, time, timeUnit);
+            if (pinnedData != null) {
+                metrics.recordHit(key);
+                return pinnedData;
+            }
+        }
+        D localData = nearCache.get(key, type);
+        if (localData != null) {
+            metrics.recordHit(key);
+            return cacheClient.pinIfHot(hot, key, localData);
+        }
+        return null;
+    }
+
+    private CompletableFuture<String> get(String key) {
+        long start = System.nanoTime();
+        return commands().get(bytes(key)).toCompletableFuture().thenApply(value -> {
+            metrics.recordGet(key, System.nanoTime() - start);
+            return string(value);
+        });
+    }
+
+    /**
+     * 记录普通缓存的命中（空值计为空值命中）
+     */
+    private void recordCached(String key, String json) {
+        if (json.isEmpty()) {
+            metrics.recordNullHit(key);
+        } else {
+            metrics.recordHit(key);
+        }
+    }
+
+    /**
+     * 共享的Lettuce原生异步连接（线程安全，关闭Spring的连接包装不会关闭共享连接）
+     */
+    @SuppressWarnings("unchecked")
+    private RedisClusterAsyncCommands<byte[], byte[]> commands() {
+        RedisConnection connection = connectionFactory.getConnection();
+        try {
+            return (RedisClusterAsyncCommands<byte[], byte[]>) connection.getNativeConnection();
+        } finally {
+            connection.close();
+        }
+    }
+
+    private static <D, DTO> String checkAndBuildKey(
+            Function<DTO, String> keyGenerator, DTO dto, Class<D> type, Function<DTO, D> dbFallback) {
+        if (keyGenerator == null) {
+            throw new IllegalArgumentException("Key生成器不能为空");
+        }
+        if (dto == null) {
+            throw new IllegalArgumentException("DTO参数不能为空");
+        }
+        if (type == null) {
+            throw new IllegalArgumentException("业务数据类型不能为空");
+        }
+        if (dbFallback == null) {
+            throw new IllegalArgumentException("数据库查询回调不能为空");
+        }
+        String key = keyGenerator.apply(dto);
+        if (StrUtil.isBlank(key)) {
+            throw new IllegalArgumentException("生成的缓存Key不能为空");
+        }
+        return key;
+    }
+
+    private static <T> CompletableFuture<T> failed(Throwable e) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        future.completeExceptionally(e);
+        return future;
+    }
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String string(byte[] bytes) {
+        return bytes == null ? null : new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @FunctionalInterface
+    private interface RemoteDecoder {
+        Object decode(String key, String json);
+    }
+}
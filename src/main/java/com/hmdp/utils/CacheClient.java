@@ -3,48 +3,166 @@ package com.hmdp.utils;
 import cn.hutool.core.collection.CollectionUtil;
 import cn.hutool.core.util.BooleanUtil;
 import cn.hutool.core.util.StrUtil;
-import cn.hutool.json.JSONUtil;
+import com.hmdp.cache.bloom.BloomFilterService;
+import com.hmdp.cache.codec.CacheCodecRegistry;
+import com.hmdp.cache.config.CacheClientProperties;
+import com.hmdp.cache.flight.SingleFlight;
+import com.hmdp.cache.hotkey.HotKeyDetector;
+import com.hmdp.cache.hotkey.HotKeyReplicas;
+import com.hmdp.cache.limit.DbLoadLimiter;
+import com.hmdp.cache.lock.LockRenewalWatchdog;
+import com.hmdp.cache.metrics.CacheMetrics;
+import com.hmdp.cache.near.NearCache;
+import com.hmdp.cache.rebuild.CacheRebuildScheduler;
+import com.hmdp.cache.refresh.RefreshAheadScheduler;
+import com.hmdp.cache.ttl.TtlJitter;
+import com.hmdp.cache.notify.CacheRebuildNotifier;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.types.Expiration;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import javax.annotation.PostConstruct;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.*;
 import java.util.concurrent.*;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
 
+@Slf4j
 @Component
 public class CacheClient {
 
     @Autowired
     private StringRedisTemplate stringRedisTemplate;
+    @Autowired
+    private NearCache nearCache;
+    @Autowired
+    private CacheRebuildNotifier rebuildNotifier;
+    @Autowired
+    private BloomFilterService bloomFilterService;
+    @Autowired
+    private CacheCodecRegistry codec;
+    @Autowired
+    private HotKeyDetector hotKeyDetector;
+    @Autowired
+    private HotKeyReplicas hotKeyReplicas;
+    @Autowired
+    private LockRenewalWatchdog lockWatchdog;
+    @Autowired
+    private TtlJitter ttlJitter;
+    @Autowired
+    private DbLoadLimiter dbLoadLimiter;
+    @Autowired
+    private CacheClientProperties properties;
+    @Autowired
+    private CacheRebuildScheduler rebuildScheduler;
+    @Autowired
+    private RefreshAheadScheduler refreshAheadScheduler;
+    @Autowired
+    private CacheMetrics metrics;
+
+    // 同一Key的并发未命中合并为一次加载
+    private final SingleFlight singleFlight = new SingleFlight();
+    // 已注册的批量加载器：业务类型|DTO类型 -> 批量查库回调
+    private final ConcurrentMap<String, Function<List<?>, Map<?, ?>>> batchLoaders = new ConcurrentHashMap<>();
+    // 已注册提前刷新的Key前缀 -> 刷新配置
+    private final ConcurrentMap<String, RefreshAheadRegistration<?, ?>> refreshRegistrations = new ConcurrentHashMap<>();
+    // 未注册批量加载器的批量查询，每次调用单独成组
+    private static final AtomicLong BATCH_GROUP_SEQ = new AtomicLong();
+    // 业务类型 -> RedisData<业务类型>的Type缓存
+    private static final ConcurrentMap<Class<?>, Type> REDIS_DATA_TYPES = new ConcurrentHashMap<>();
 
     public static final Long CACHE_NULL_TTL = 2L;
     public static final String LOCK_PREFIX = "lock:";
+    public static final String VERSION_PREFIX = "version:";
     public static final Long LOCK_TTL = 10L;
-
-    // 缓存重建线程池（明确配置，避免任务丢失）
-    private static final ExecutorService CACHE_REBUILD_EXECUTOR = new ThreadPoolExecutor(
-            5, // 核心线程数（根据业务调整）
-            10, // 最大线程数
-            60L, // 空闲线程存活时间
-            TimeUnit.SECONDS,
-            new ArrayBlockingQueue<>(100), // 任务队列（有界，避免内存溢出）
-            Executors.defaultThreadFactory(),
-            new ThreadPoolExecutor.CallerRunsPolicy() // 拒绝策略：调用者线程执行（避免任务丢失）
-    );
+    // 提前刷新策略的默认提前系数
+    public static final double EARLY_REFRESH_BETA = 1.0;
+
+    // 释放锁脚本（校验锁标识后删除）
+    private static final DefaultRedisScript<Long> UNLOCK_SCRIPT;
+    // 批量加锁脚本（返回成功获取的锁下标）
+    @SuppressWarnings("rawtypes")
+    private static final DefaultRedisScript<List> BATCH_LOCK_SCRIPT;
+    // 批量释放锁脚本
+    private static final DefaultRedisScript<Long> BATCH_UNLOCK_SCRIPT;
+    // 带版本校验的写入脚本
+    private static final DefaultRedisScript<Long> VERSION_SET_SCRIPT;
 
     static {
-        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
-            CACHE_REBUILD_EXECUTOR.shutdown();
-        }));
+        UNLOCK_SCRIPT = new DefaultRedisScript<>();
+        UNLOCK_SCRIPT.setLocation(new ClassPathResource("lua/unlock.lua"));
+        UNLOCK_SCRIPT.setResultType(Long.class);
+        BATCH_LOCK_SCRIPT = new DefaultRedisScript<>();
+        BATCH_LOCK_SCRIPT.setLocation(new ClassPathResource("lua/batch_lock.lua"));
+        BATCH_LOCK_SCRIPT.setResultType(List.class);
+        BATCH_UNLOCK_SCRIPT = new DefaultRedisScript<>();
+        BATCH_UNLOCK_SCRIPT.setLocation(new ClassPathResource("lua/batch_unlock.lua"));
+        BATCH_UNLOCK_SCRIPT.setResultType(Long.class);
+        VERSION_SET_SCRIPT = new DefaultRedisScript<>();
+        VERSION_SET_SCRIPT.setLocation(new ClassPathResource("lua/version_set.lua"));
+        VERSION_SET_SCRIPT.setResultType(Long.class);
+    }
+
+    /**
+     * 注册批量加载器：逻辑过期数据的异步重建中，同一业务类型、同一DTO类型的Key合并为一次批量查库
+     * 同一业务类型和DTO类型只能对应一种查库语义（通常是按ID批量查询）
+     * @param type 业务数据类型（如Shop.class）
+     * @param dtoType DTO类型（如Long.class）
+     * @param batchDbFallback 批量查询数据库的回调
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public <D, DTO> void registerBatchLoader(Class<D> type, Class<DTO> dtoType, Function<List<DTO>, Map<DTO, D>> batchDbFallback) {
+        if (type == null || dtoType == null || batchDbFallback == null) {
+            throw new IllegalArgumentException("业务数据类型、DTO类型和批量查询回调不能为空");
+        }
+        batchLoaders.put(loaderKey(type, dtoType), (Function) batchDbFallback);
+    }
+
+    /**
+     * 注册提前刷新：该前缀下以逻辑过期方式写入的Key，在即将过期时由后台通过已注册的批量加载器提前重建
+     * @param keyPrefix Key前缀（如cache:shop:）
+     * @param type 业务数据类型（需已通过registerBatchLoader注册批量加载器）
+     * @param dtoParser 从Key去掉前缀后的部分解析出DTO（如Long::valueOf），解析失败的Key不再刷新
+     * @param time 刷新后的逻辑过期时间
+     * @param timeUnit 时间单位
+     */
+    public <D, DTO> void registerRefreshAhead(
+            String keyPrefix,
+            Class<D> type,
+            Function<String, DTO> dtoParser,
+            Long time,
+            TimeUnit timeUnit
+    ) {
+        if (StrUtil.isBlank(keyPrefix) || type == null || dtoParser == null || timeUnit == null) {
+            throw new IllegalArgumentException("Key前缀、业务数据类型、DTO解析器和时间单位不能为空");
+        }
+        if (time == null || time <= 0) {
+            throw new IllegalArgumentException("逻辑过期时间必须大于0");
+        }
+        refreshRegistrations.put(keyPrefix, new RefreshAheadRegistration<>(keyPrefix, type, dtoParser, time, timeUnit));
+    }
+
+    @PostConstruct
+    public void init() {
+        refreshAheadScheduler.setHandler(this::refreshAhead);
     }
 
     /**
@@ -56,7 +174,24 @@ public class CacheClient {
      * @param <T>
      */
     public <T> void set(String key, T value, Long expireTime, TimeUnit timeUnit) {
-        stringRedisTemplate.opsForValue().set(key, JSONUtil.toJsonStr(value), expireTime, timeUnit);
+        String encoded = codec.encode(key, value);
+        // 过期时间随机抖动，避免同时写入的缓存同时过期
+        long ttlMillis = ttlJitter.apply(key, timeUnit.toMillis(expireTime));
+        if (isReplicatedHotKey(key)) {
+            // 热点Key：主Key和全部副本一次管道写入
+            stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection stringConnection = (StringRedisConnection) connection;
+                stringConnection.pSetEx(key, ttlMillis, encoded);
+                for (String replicaKey : hotKeyReplicas.replicaKeys(key)) {
+                    stringConnection.pSetEx(replicaKey, ttlMillis, encoded);
+                }
+                return null;
+            });
+        } else {
+            stringRedisTemplate.opsForValue().set(key, encoded, ttlMillis, TimeUnit.MILLISECONDS);
+        }
+        // 同步近端缓存，并通知其他实例失效
+        nearCache.onWrite(key, value);
     }
 
     /**
@@ -70,8 +205,97 @@ public class CacheClient {
     public <T> void setWithLogicalExpire(String key, T value, Long expireTime, TimeUnit timeUnit) {
         RedisData<T> redisData = new RedisData<>();
         redisData.setData(value);
-        redisData.setExpireTime(LocalDateTime.now().plusSeconds(timeUnit.toSeconds(expireTime)));
-        stringRedisTemplate.opsForValue().set(key, JSONUtil.toJsonStr(redisData));
+        redisData.setExpireTime(ttlJitter.apply(key, LocalDateTime.now().plusSeconds(timeUnit.toSeconds(expireTime))));
+        stringRedisTemplate.opsForValue().set(key, codec.encode(key, redisData));
+        // 已注册提前刷新的Key记录过期时间
+        if (isRefreshAheadKey(key)) {
+            refreshAheadScheduler.track(key, toEpochMilli(redisData.getExpireTime()));
+        }
+        // 同步近端缓存，并通知其他实例失效
+        nearCache.onWrite(key, redisData);
+    }
+
+    /**
+     * 预热写入：一次管道批量写入不存在的Key（SET NX PX），已有的缓存保持不变
+     * 启用版本号的Key通过版本校验脚本写入（NX），读取数据后被更新过的Key不写入旧数据
+     * 编码在管道外完成，可由多个线程并行调用；不写近端缓存，也不广播失效通知
+     * @param values 缓存Key -> 缓存对象
+     * @param versions 查库前通过readVersions读取的版本号
+     */
+    public <T> void setAllIfAbsent(Map<String, T> values, Map<String, String> versions, Long expireTime, TimeUnit timeUnit) {
+        if (values.isEmpty()) {
+            return;
+        }
+        List<CacheEntry> entries = new ArrayList<>(values.size());
+        List<String> encodedValues = new ArrayList<>(values.size());
+        long[] ttls = new long[values.size()];
+        long ttlMillis = timeUnit.toMillis(expireTime);
+        for (Map.Entry<String, T> entry : values.entrySet()) {
+            ttls[entries.size()] = ttlJitter.apply(entry.getKey(), ttlMillis);
+            entries.add(new CacheEntry(entry.getKey(), entry.getValue(), ttlMillis));
+            encodedValues.add(codec.encode(entry.getKey(), entry.getValue()));
+        }
+        writeIfVersions(entries, encodedValues, ttls, versions, true);
+        // 未启用版本号的Key直接SET NX
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection stringConnection = (StringRedisConnection) connection;
+            for (int i = 0; i < entries.size(); i++) {
+                if (versions.containsKey(entries.get(i).key)) {
+                    continue;
+                }
+                stringConnection.set(entries.get(i).key, encodedValues.get(i),
+                        Expiration.milliseconds(ttls[i]), RedisStringCommands.SetOption.ifAbsent());
+            }
+            return null;
+        });
+    }
+
+    /**
+     * 删除缓存（同时失效所有实例的近端缓存）
+     * @param key
+     */
+    public void delete(String key) {
+        deleteWithReplicas(key);
+        nearCache.evict(key);
+    }
+
+    /**
+     * 数据更新后失效缓存：先递增版本号再删除缓存（含副本），之前读取了旧版本的重建写入都会被拒绝，
+     * 不再需要延迟双删。在事务中调用时于事务提交后执行，避免重建读到新版本号和未提交的旧数据
+     * 未启用版本号的Key等同于delete
+     * @param key
+     */
+    public void invalidate(String key) {
+        if (!isVersioned(key)) {
+            delete(key);
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    doInvalidate(key);
+                }
+            });
+        } else {
+            doInvalidate(key);
+        }
+    }
+
+    private void doInvalidate(String key) {
+        // 同一管道内按顺序执行：版本号先于删除生效
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection stringConnection = (StringRedisConnection) connection;
+            stringConnection.incr(versionKey(key));
+            stringConnection.del(key);
+            if (hotKeyReplicas.isReplicated(key)) {
+                for (String replicaKey : hotKeyReplicas.replicaKeys(key)) {
+                    stringConnection.del(replicaKey);
+                }
+            }
+            return null;
+        });
+        nearCache.evict(key);
     }
 
     /**
@@ -144,35 +368,46 @@ public class CacheClient {
         if (StrUtil.isBlank(key)) {
             throw new IllegalArgumentException("生成的缓存Key不能为空");
         }
-        // 3.从redis中查询数据
-        String json = stringRedisTemplate.opsForValue().get(key);
+        // 热点Key：优先读取近端缓存中的固定副本（副本逻辑过期时返回旧值并异步刷新）
+        boolean hot = hotKeyDetector.record(key);
+        if (hot) {
+            D pinnedData = getPinned(key, dto, type, dbFallback, time, timeUnit);
+            if (pinnedData != null) {
+                metrics.recordHit(key);
+                return pinnedData;
+            }
+        }
+        // 3.先查近端缓存
+        D localData = nearCache.get(key, type);
+        if (localData != null) {
+            metrics.recordHit(key);
+            return pinIfHot(hot, key, localData);
+        }
+        // 3.1.从redis中查询数据（热点Key随机读副本；布隆过滤器判定不存在时返回空值，不再读缓存和数据库）
+        String json = readWithReplica(key, hot);
         // 4.判断数据是否存在
         if (StrUtil.isNotBlank(json)) {
             try {
-                return JSONUtil.toBean(json, type);
+                D data = codec.decode(json, type);
+                nearCache.put(key, data);
+                metrics.recordHit(key);
+                return pinIfHot(hot, key, data);
             } catch (Exception e) {
-                // 反序列化失败：删除损坏的缓存，后续走数据库兜底
-                stringRedisTemplate.delete(key);
+                // 反序列化失败：删除损坏的缓存（含副本），后续走数据库兜底
+                deleteWithReplicas(key);
             }
         }
 
         // redis内容为空值，说明数据库中不存在该数据
         if (json != null) {
+            metrics.recordNullHit(key);
             return null;
         }
 
-        // 4.未命中，查询数据库
-        D data = dbFallback.apply(dto);
-        // 5.数据库中不存在，写入空值，报错
-        if (data == null) {
-            // redis中缓存空值
-            set(key, "", CACHE_NULL_TTL, TimeUnit.MINUTES);
-            // 返回空值
-            return null;
-        }
-        // 6.数据库有数据：写入缓存并返回
-        set(key, data, time, timeUnit);
-        return data;
+        // 4.未命中，查询数据库并写入缓存（数据库中不存在则缓存空值）
+        metrics.recordMiss(key);
+        D data = loadFromDb(key, dto, dbFallback, time, timeUnit);
+        return pinIfHot(hot, key, data);
     }
 
 
@@ -196,50 +431,46 @@ public class CacheClient {
             Long time,
             TimeUnit timeUnit
     ) {
-        // 1. 批量查询Redis缓存
+        // 1. 批量查询缓存（近端缓存 + 一次MGET）
         Map<String, D> cacheMap = new HashMap<>();
         Map<DTO, String> dtoKeyMap = new HashMap<>();
         for (DTO dto : dtos) {
-            String key = keyGenerator.apply(dto);
-            dtoKeyMap.put(dto, key);
-            String json = stringRedisTemplate.opsForValue().get(key);
-            if (StrUtil.isNotBlank(json)) {
-                cacheMap.put(key, JSONUtil.toBean(json, type));
-            }
+            dtoKeyMap.put(dto, keyGenerator.apply(dto));
         }
+        multiGetCache(dtoKeyMap.values(), type, cacheMap);
 
         // 2. 筛选未命中的DTO
         List<DTO> missDtos = dtos.stream()
                 .filter(dto -> !cacheMap.containsKey(dtoKeyMap.get(dto)))
                 .collect(Collectors.toList());
+        String sampleKey = dtos.isEmpty() ? null : dtoKeyMap.get(dtos.get(0));
+        metrics.recordBatch(sampleKey, dtos.size() - missDtos.size(), missDtos.size());
         if (CollectionUtil.isEmpty(missDtos)) {
             // 全部命中，转换为DTO->D映射
-            return dtos.stream().collect(Collectors.toMap(
-                    Function.identity(),
-                    dto -> cacheMap.get(dtoKeyMap.get(dto))
-            ));
+            return buildResultMap(dtos, dtoKeyMap, cacheMap);
         }
 
-        // 3. 批量查询数据库（多SQL聚合逻辑写在batchDbFallback中）
-        Map<DTO, D> dbMap = batchDbFallback.apply(missDtos);
+        // 3. 批量查询数据库（多SQL聚合逻辑写在batchDbFallback中），查库前记录版本号
+        acquireDbLoad(sampleKey);
+        Map<String, String> versions = readVersions(missDtos.stream().map(dtoKeyMap::get).collect(Collectors.toList()));
+        Map<DTO, D> dbMap = metrics.timeRebuild(sampleKey, () -> batchDbFallback.apply(missDtos));
 
-        // 4. 批量写入缓存（空值处理）
+        // 4. 批量写入缓存（空值处理，一次管道往返）
+        List<CacheEntry> entries = new ArrayList<>(missDtos.size());
         for (DTO dto : missDtos) {
             String key = dtoKeyMap.get(dto);
             D data = dbMap.get(dto);
             if (data == null) {
-                set(key, "", CACHE_NULL_TTL, TimeUnit.MINUTES);
+                entries.add(CacheEntry.ofNull(key));
             } else {
-                set(key, data, time, timeUnit);
-                cacheMap.put(key, data);
+                entries.add(CacheEntry.of(key, data, time, timeUnit));
             }
+            cacheMap.put(key, data);
         }
+        multiSet(entries, versions);
 
         // 5. 组装结果返回
-        return dtos.stream().collect(Collectors.toMap(
-                Function.identity(),
-                dto -> cacheMap.getOrDefault(dtoKeyMap.get(dto), null)
-        ));
+        return buildResultMap(dtos, dtoKeyMap, cacheMap);
     }
 
     /**
@@ -342,72 +573,364 @@ public class CacheClient {
             throw new IllegalArgumentException("生成的缓存Key不能为空");
         }
 
-        String json = stringRedisTemplate.opsForValue().get(key);
+        // 热点Key：优先读取近端缓存中的固定副本（副本逻辑过期时返回旧值并异步刷新）
+        boolean hot = hotKeyDetector.record(key);
+        if (hot) {
+            D pinnedData = getPinned(key, dto, type, dbFallback, time, timeUnit);
+            if (pinnedData != null) {
+                metrics.recordHit(key);
+                return pinnedData;
+            }
+        }
+
+        // 先查近端缓存
+        D localData = nearCache.get(key, type);
+        if (localData != null) {
+            metrics.recordHit(key);
+            return pinIfHot(hot, key, localData);
+        }
+
+        // 热点Key随机读副本；布隆过滤器判定不存在时返回空值，不再读缓存和数据库
+        String json = readWithReplica(key, hot);
         // 3.判断店铺是否存在
         if (StrUtil.isNotBlank(json)) {
             // 若命中，直接返回
-            D data = JSONUtil.toBean(json, type);
-            return data;
+            try {
+                D data = codec.decode(json, type);
+                nearCache.put(key, data);
+                metrics.recordHit(key);
+                return pinIfHot(hot, key, data);
+            } catch (Exception e) {
+                // 反序列化失败（如编码格式或类结构变化）：删除损坏的缓存（含副本），走重建流程
+                deleteWithReplicas(key);
+                json = null;
+            }
         }
 
         // redis内容为空值，说明数据库中不存在该数据
         if (json != null) {
+            metrics.recordNullHit(key);
             return null;
         }
+        metrics.recordMiss(key);
+
+        // 3.缓存重建：同一JVM内同一Key的并发未命中共享一次加载，只有领头线程去竞争Redis互斥锁
+        D data = singleFlight.execute(key, () -> rebuildWithMutex(key, dto, type, dbFallback, time, timeUnit, retryCount));
+        return pinIfHot(hot, key, data);
+    }
+
+    /**
+     * 互斥锁重建缓存（由single-flight的领头线程执行）
+     */
+    private <D, DTO> D rebuildWithMutex(
+            String key,
+            DTO dto,
+            Class<D> type,
+            Function<DTO, D> dbFallback,
+            Long time,
+            TimeUnit timeUnit,
+            int retryCount
+    ) {
         String lockKey = LOCK_PREFIX + key;
         String lockValue = UUID.randomUUID().toString(); // 用UUID标识线程
-        D data = null;
-        // 原子引用一个续期任务的Future（用于后续取消）
-        AtomicReference<Future<?>> renewalFutureRef = new AtomicReference<>();
-
         try {
-            // 3.缓存重建
-            // 3.1.获取锁
-            // 3.2.判断是否获取到锁
-            boolean isLock = tryLock(lockKey, lockValue);
-            if (!isLock) {
-                if (retryCount <= 0) {
+            // 3.1.获取锁，失败则等待后重查缓存（其他实例可能已完成重建）
+            while (!tryLock(lockKey, lockValue)) {
+                if (retryCount-- <= 0) {
+                    metrics.recordRebuildRejected(key, CacheMetrics.REJECT_LOCK_TIMEOUT);
                     throw new RuntimeException("获取锁失败，请稍后重试");
                 }
-                Thread.sleep(50);
-                return queryWithMutex(
-                        keyGenerator,
-                        dto,
-                        type,
-                        dbFallback,
-                        time,
-                        timeUnit,
-                        retryCount - 1
-                );
-            }
-
-            // 用set()方法存储续期任务的Future
-            renewalFutureRef.set(startLockRenewal(lockKey, lockValue));
-
-            // 3.3.成功，根据id查询数据库
-            data = dbFallback.apply(dto);
-            // 4.数据库中不存在，写入空值，报错
-            if (data == null) {
-                // redis中缓存空值
-                set(key, "", CACHE_NULL_TTL, TimeUnit.MINUTES);
-                // 返回空值
-                return null;
+                metrics.recordLockRetry(key, 1);
+                String json = waitForRebuild(key);
+                if (json != null) {
+                    return parseCachedValue(key, json, type);
+                }
             }
-            // 5.存在，写入redis中
-            set(key, data, time, timeUnit);
         } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
             throw new RuntimeException(e);
+        }
+        return loadUnderLock(key, lockKey, lockValue, dto, type, dbFallback, time, timeUnit);
+    }
+
+    /**
+     * 持锁重建：双重检查缓存后查库写入，结束后释放锁并通知等待者（同步与异步客户端共用）
+     */
+    <D, DTO> D loadUnderLock(
+            String key,
+            String lockKey,
+            String lockValue,
+            DTO dto,
+            Class<D> type,
+            Function<DTO, D> dbFallback,
+            Long time,
+            TimeUnit timeUnit
+    ) {
+        try {
+            // 3.2.双重检查缓存（等锁期间其他线程可能已写入）
+            String json = stringRedisTemplate.opsForValue().get(key);
+            if (json != null) {
+                return parseCachedValue(key, json, type);
+            }
+            // 3.3.成功，查询数据库并写入缓存（数据库中不存在则缓存空值）
+            return loadFromDb(key, dto, dbFallback, time, timeUnit);
         } finally {
-            // 6.释放锁
+            // 4.释放锁
             unlock(lockKey, lockValue);
-            // 用get()方法获取Future，判断非空后取消
-            Future<?> renewalFuture = renewalFutureRef.get();
-            if (renewalFuture != null && !renewalFuture.isCancelled()) {
-                renewalFuture.cancel(true); // 允许中断正在执行的续期任务
+            // 5.通知等待者（重建失败时也通知，让等待者立即重新抢锁）
+            rebuildNotifier.publish(key);
+        }
+    }
+
+    /**
+     * 辅助方法：查询数据库并写入缓存，数据库中不存在时缓存空值
+     * 查库前先记录版本号，期间数据被更新则放弃写入
+     */
+    <D, DTO> D loadFromDb(String key, DTO dto, Function<DTO, D> dbFallback, Long time, TimeUnit timeUnit) {
+        acquireDbLoad(key);
+        String version = readVersion(key);
+        D data = metrics.timeRebuild(key, () -> dbFallback.apply(dto));
+        if (data == null) {
+            // redis中缓存空值
+            setIfVersion(key, "", version, CACHE_NULL_TTL, TimeUnit.MINUTES);
+            return null;
+        }
+        setIfVersion(key, data, version, time, timeUnit);
+        return data;
+    }
+
+    /**
+     * 辅助方法：布隆过滤器判定Key对应的数据是否可能存在（未受保护的Key返回true）
+     */
+    boolean mightExist(String key) {
+        return bloomFilterService.mightContainKeys(Collections.singletonList(key)).get(0);
+    }
+
+    /**
+     * 辅助方法：抢锁失败后等待重建，返回重查到的缓存值（仍未命中返回null）
+     * SLEEP模式固定休眠50ms；NOTIFY模式阻塞等待持锁者的重建通知，超时后返回由调用方重新抢锁
+     */
+    private String waitForRebuild(String key) throws InterruptedException {
+        if (!rebuildNotifier.isEnabled()) {
+            Thread.sleep(50);
+            return stringRedisTemplate.opsForValue().get(key);
+        }
+        CompletableFuture<Void> signal = rebuildNotifier.register(key);
+        // 登记后先重查一次，避免重建恰好在抢锁失败与登记之间完成而错过通知
+        String json = stringRedisTemplate.opsForValue().get(key);
+        if (json != null) {
+            return json;
+        }
+        rebuildNotifier.await(key, signal);
+        return stringRedisTemplate.opsForValue().get(key);
+    }
+
+    /**
+     * 辅助方法：读取热点Key在近端缓存中的固定副本
+     * 副本逻辑过期时仍返回旧值，并提交重建调度异步查库刷新Redis和副本（同一Key同时只有一个刷新任务），
+     * 相当于把热点Key从物理过期策略切换为逻辑过期策略（同步与异步客户端共用）
+     */
+    <D, DTO> D getPinned(String key, DTO dto, Class<D> type, Function<DTO, D> dbFallback, Long time, TimeUnit timeUnit) {
+        NearCache.PinnedEntry entry = nearCache.getPinned(key);
+        if (entry == null || !type.isInstance(entry.getValue())) {
+            return null;
+        }
+        if (entry.isExpired()) {
+            metrics.recordStale(key, 1);
+            // 同一Key刷新期间的重复提交由调度器去重
+            rebuildScheduler.submit(key, key, dto, hotKeyDetector.estimate(key), dtos -> {
+                // 回源预算耗尽：放弃本次刷新，继续返回旧数据
+                if (!tryDbLoad(key)) {
+                    return;
+                }
+                String version = readVersion(key);
+                D data = metrics.timeRebuild(key, () -> dbFallback.apply(dto));
+                if (data != null) {
+                    // 写入Redis（查库期间数据被更新则放弃），同时更新本实例的副本并通知其他实例失效
+                    setIfVersion(key, data, version, time, timeUnit);
+                } else {
+                    delete(key);
+                }
+            }, () -> { });
+        }
+        return type.cast(entry.getValue());
+    }
+
+    /**
+     * 辅助方法：查库前读取版本号（未启用版本号的Key返回null，没有版本号时返回""）
+     */
+    private String readVersion(String key) {
+        if (!isVersioned(key)) {
+            return null;
+        }
+        String version = stringRedisTemplate.opsForValue().get(versionKey(key));
+        return version == null ? "" : version;
+    }
+
+    /**
+     * 批量查库前一次MGET读取版本号，结果只包含启用版本号的Key（没有版本号时为""）
+     * 供批量写入（含预热）在写入时校验查库期间数据是否被更新
+     */
+    public Map<String, String> readVersions(Collection<String> keys) {
+        List<String> versionedKeys = keys.stream().filter(this::isVersioned).distinct().collect(Collectors.toList());
+        if (versionedKeys.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        List<String> versions = stringRedisTemplate.opsForValue().multiGet(
+                versionedKeys.stream().map(CacheClient::versionKey).collect(Collectors.toList()));
+        Map<String, String> result = new HashMap<>(versionedKeys.size() * 2);
+        for (int i = 0; i < versionedKeys.size(); i++) {
+            String version = versions == null ? null : versions.get(i);
+            result.put(versionedKeys.get(i), version == null ? "" : version);
+        }
+        return result;
+    }
+
+    /**
+     * 辅助方法：版本号Key以缓存Key作为hash tag（缓存Key本身不含{}），两者在集群模式下落在同一槽位，
+     * 可以在一个Lua脚本中完成校验和写入
+     */
+    private static String versionKey(String key) {
+        return VERSION_PREFIX + "{" + key + "}";
+    }
+
+    /**
+     * 辅助方法：带版本校验的写入（含热点副本），版本号已变化说明查库期间数据被更新，放弃写入旧数据
+     * @param version 查库前读取的版本号，为null时直接写入
+     */
+    private <T> void setIfVersion(String key, T value, String version, Long time, TimeUnit timeUnit) {
+        if (version == null) {
+            set(key, value, time, timeUnit);
+            return;
+        }
+        writeIfVersion(key, value, codec.encode(key, value), version, ttlJitter.apply(key, timeUnit.toMillis(time)));
+    }
+
+    /**
+     * 辅助方法：Lua脚本只校验版本并写入主Key（版本号Key与主Key同槽位）；
+     * 热点副本分布在其他槽位，写入成功后再用管道写入，写完重读版本号，期间数据被更新则删除刚写入的副本
+     * @param ttlMillis 已抖动的过期时间
+     * @return 是否写入
+     */
+    private boolean writeIfVersion(String key, Object value, String encoded, String version, long ttlMillis) {
+        Long written = stringRedisTemplate.execute(VERSION_SET_SCRIPT,
+                Arrays.asList(versionKey(key), key), version, encoded, String.valueOf(ttlMillis));
+        if (written == null || written != 1L) {
+            log.debug("缓存版本已变化，放弃写入旧数据，key: {}", key);
+            return false;
+        }
+        if (isReplicatedHotKey(key)) {
+            stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection stringConnection = (StringRedisConnection) connection;
+                for (String replicaKey : hotKeyReplicas.replicaKeys(key)) {
+                    stringConnection.pSetEx(replicaKey, ttlMillis, encoded);
+                }
+                return null;
+            });
+            // 失效先递增版本再删除副本：此时版本未变，之后的失效会删除这些副本
+            if (!version.equals(readVersion(key))) {
+                deleteWithReplicas(key);
+                return false;
+            }
+        }
+        // 同步近端缓存，并通知其他实例失效
+        nearCache.onWrite(key, value);
+        return true;
+    }
+
+    private boolean isVersioned(String key) {
+        CacheClientProperties.Version version = properties.getVersion();
+        if (!version.isEnabled()) {
+            return false;
+        }
+        for (String prefix : version.getPrefixes()) {
+            if (key.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 辅助方法：获取数据库回源许可（同步回源路径没有旧数据可返回，预算耗尽时快速失败）
+     */
+    private void acquireDbLoad(String key) {
+        if (!tryDbLoad(key)) {
+            throw new RuntimeException("数据库繁忙，请稍后重试");
+        }
+    }
+
+    /**
+     * 辅助方法：尝试获取数据库回源许可（异步重建路径，失败时继续返回旧数据），失败计入指标
+     */
+    private boolean tryDbLoad(String key) {
+        if (dbLoadLimiter.acquire()) {
+            return true;
+        }
+        metrics.recordRebuildRejected(key, CacheMetrics.REJECT_DB_BUDGET);
+        return false;
+    }
+
+    /**
+     * 辅助方法：读取普通缓存，启用副本的热点Key先随机读一个副本，副本缺失再读主Key
+     */
+    private String readWithReplica(String key, boolean hot) {
+        return metrics.timeGet(key, () -> {
+            if (hot && hotKeyReplicas.isReplicated(key)) {
+                String json = stringRedisTemplate.opsForValue().get(hotKeyReplicas.randomReplicaKey(key));
+                if (json != null) {
+                    return json;
+                }
+            }
+            return bloomFilterService.guardedGet(key);
+        });
+    }
+
+    /**
+     * 辅助方法：当前为热点且启用副本的Key
+     */
+    private boolean isReplicatedHotKey(String key) {
+        return hotKeyReplicas.isReplicated(key) && hotKeyDetector.isHot(key);
+    }
+
+    /**
+     * 辅助方法：删除Redis中的缓存及其全部副本（Key冷却后副本可能仍未过期，因此不判断是否为热点）
+     * 副本分布在不同槽位，逐个DEL放在同一管道中，而不是一条多Key的DEL
+     */
+    private void deleteWithReplicas(String key) {
+        if (!hotKeyReplicas.isReplicated(key)) {
+            stringRedisTemplate.delete(key);
+            return;
+        }
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection stringConnection = (StringRedisConnection) connection;
+            stringConnection.del(key);
+            for (String replicaKey : hotKeyReplicas.replicaKeys(key)) {
+                stringConnection.del(replicaKey);
             }
+            return null;
+        });
+    }
+
+    /**
+     * 辅助方法：热点Key的数据固定到近端缓存（同步与异步客户端共用）
+     */
+    <D> D pinIfHot(boolean hot, String key, D data) {
+        if (hot && data != null) {
+            nearCache.pin(key, data, hotKeyDetector.getPinTtlMillis());
         }
+        return data;
+    }
 
-        // 7.返回
+    /**
+     * 辅助方法：解析缓存中的普通值（空值""返回null），命中写入近端缓存
+     */
+    <D> D parseCachedValue(String key, String json, Class<D> type) {
+        if (StrUtil.isBlank(json)) {
+            return null;
+        }
+        D data = codec.decode(json, type);
+        nearCache.put(key, data);
         return data;
     }
 
@@ -467,7 +990,7 @@ public class CacheClient {
             throw new IllegalArgumentException("缓存时间单位不能为空");
         }
 
-        // 2. 批量查询Redis缓存，构建DTO→Key/缓存数据映射
+        // 2. 批量查询缓存（近端缓存 + 一次MGET），构建DTO→Key/缓存数据映射
         Map<String, D> cacheMap = new HashMap<>();
         Map<DTO, String> dtoKeyMap = new HashMap<>();
         for (DTO dto : dtos) {
@@ -476,120 +999,121 @@ public class CacheClient {
                 throw new IllegalArgumentException("DTO生成的缓存Key不能为空：" + dto);
             }
             dtoKeyMap.put(dto, cacheKey);
-            String json = stringRedisTemplate.opsForValue().get(cacheKey);
-            if (StrUtil.isNotBlank(json)) {
-                try {
-                    cacheMap.put(cacheKey, JSONUtil.toBean(json, type));
-                } catch (Exception e) {
-                    // 反序列化失败：删除损坏缓存，后续走数据库兜底
-                    stringRedisTemplate.delete(cacheKey);
-                }
-            } else if (json != null) {
-                // 缓存空值（""），直接标记为null，避免穿透
-                cacheMap.put(cacheKey, null);
-            }
         }
+        multiGetCache(dtoKeyMap.values(), type, cacheMap);
 
         // 3. 筛选未命中缓存的DTO（缓存无数据/反序列化失败）
         List<DTO> missDtos = dtos.stream()
                 .filter(dto -> !cacheMap.containsKey(dtoKeyMap.get(dto)))
+                .distinct()
                 .collect(Collectors.toList());
+        String sampleKey = dtoKeyMap.get(dtos.get(0));
+        metrics.recordBatch(sampleKey, dtos.size() - missDtos.size(), missDtos.size());
         if (CollectionUtil.isEmpty(missDtos)) {
             // 全部命中，直接组装结果返回
-            return dtos.stream().collect(Collectors.toMap(
-                    Function.identity(),
-                    dto -> cacheMap.get(dtoKeyMap.get(dto)),
-                    (oldValue, newValue) -> oldValue, // 处理重复DTO
-                    LinkedHashMap::new // 保留入参顺序
-            ));
+            return buildResultMap(dtos, dtoKeyMap, cacheMap);
         }
 
         // 4. 构建未命中DTO的锁映射（每个DTO对应独立锁，避免批量锁阻塞）
         Map<DTO, String> dtoLockKeyMap = new HashMap<>();
         Map<DTO, String> dtoLockValueMap = new HashMap<>();
-        Map<DTO, Future<?>> renewalFutureMap = new HashMap<>();
         for (DTO dto : missDtos) {
             String cacheKey = dtoKeyMap.get(dto);
             dtoLockKeyMap.put(dto, LOCK_PREFIX + cacheKey);
             dtoLockValueMap.put(dto, UUID.randomUUID().toString());
         }
 
-        // 5. 批量获取互斥锁（失败则重试，释放已获取的锁）
-        boolean isAllLockSuccess = false;
+        // 5. 批量获取互斥锁（一次Lua调用，拿到多少处理多少），未拿到锁的Key等待持锁者重建后重查缓存
+        List<DTO> pendingDtos = missDtos;
         try {
-            while (retryCount >= 0) {
-                isAllLockSuccess = true;
-                // 逐个获取锁，全部成功才继续
-                for (DTO dto : missDtos) {
-                    String lockKey = dtoLockKeyMap.get(dto);
-                    String lockValue = dtoLockValueMap.get(dto);
-                    boolean isLock = tryLock(lockKey, lockValue);
-                    if (!isLock) {
-                        isAllLockSuccess = false;
-                        // 释放已获取的锁，避免部分锁残留
-                        releaseBatchLock(missDtos, dtoLockKeyMap, dtoLockValueMap, renewalFutureMap);
-                        retryCount--;
-                        if (retryCount < 0) {
-                            throw new RuntimeException("批量获取锁失败，重试次数用尽：剩余重试次数=" + retryCount);
-                        }
-                        Thread.sleep(50); // 重试间隔50ms，降低并发冲突
-                        break;
+            while (true) {
+                List<DTO> lockedDtos = tryLockBatch(pendingDtos, dtoLockKeyMap, dtoLockValueMap);
+                if (!lockedDtos.isEmpty()) {
+                    try {
+                        // 6. 获取到锁的Key：双重检查后查库重建
+                        loadLockedBatch(lockedDtos, dtoKeyMap, cacheMap, type, batchDbFallback, time, timeUnit);
+                    } finally {
+                        // 7. 释放本轮获取的锁（无论成功/失败，必须释放）
+                        releaseBatchLock(lockedDtos, dtoLockKeyMap, dtoLockValueMap);
                     }
-                    // 获取锁成功，启动锁续期任务
-                    Future<?> renewalFuture = startLockRenewal(lockKey, lockValue);
-                    renewalFutureMap.put(dto, renewalFuture);
                 }
-                if (isAllLockSuccess) {
+
+                // 8. 其余Key正由其他线程重建：等待后重查缓存，仍未命中的进入下一轮抢锁
+                Set<DTO> lockedSet = new HashSet<>(lockedDtos);
+                List<DTO> waitingDtos = pendingDtos.stream()
+                        .filter(dto -> !lockedSet.contains(dto))
+                        .collect(Collectors.toList());
+                if (waitingDtos.isEmpty()) {
                     break;
                 }
-            }
-
-            // 6. 双重检查缓存（避免加锁期间其他线程已写入缓存）
-            refreshCacheMap(missDtos, dtoKeyMap, cacheMap, type);
-
-            // 7. 筛选仍未命中的DTO（双重检查后仍无数据）
-            List<DTO> finalMissDtos = missDtos.stream()
-                    .filter(dto -> !cacheMap.containsKey(dtoKeyMap.get(dto)))
-                    .collect(Collectors.toList());
-
-            // 8. 批量查询数据库（仅查询最终未命中的DTO）
-            Map<DTO, D> dbResultMap = new HashMap<>();
-            if (!CollectionUtil.isEmpty(finalMissDtos)) {
-                dbResultMap = batchDbFallback.apply(finalMissDtos);
-                // 9. 批量写入缓存（包括空值处理，避免缓存穿透）
-                for (DTO dto : finalMissDtos) {
-                    String cacheKey = dtoKeyMap.get(dto);
-                    D data = dbResultMap.getOrDefault(dto, null);
-                    if (data == null) {
-                        set(cacheKey, "", CACHE_NULL_TTL, TimeUnit.MINUTES);
-                        cacheMap.put(cacheKey, null);
-                    } else {
-                        set(cacheKey, data, time, timeUnit);
-                        cacheMap.put(cacheKey, data);
-                    }
+                if (retryCount-- <= 0) {
+                    metrics.recordRebuildRejected(sampleKey, CacheMetrics.REJECT_LOCK_TIMEOUT);
+                    throw new RuntimeException("批量获取锁失败，重试次数用尽：未获取锁的数量=" + waitingDtos.size());
+                }
+                metrics.recordLockRetry(sampleKey, waitingDtos.size());
+                Thread.sleep(50); // 重试间隔50ms，降低并发冲突
+                refreshCacheMap(waitingDtos, dtoKeyMap, cacheMap, type);
+                pendingDtos = waitingDtos.stream()
+                        .filter(dto -> !cacheMap.containsKey(dtoKeyMap.get(dto)))
+                        .collect(Collectors.toList());
+                if (pendingDtos.isEmpty()) {
+                    break;
                 }
             }
 
-            // 10. 组装最终结果返回（保留入参顺序）
-            return dtos.stream().collect(Collectors.toMap(
-                    Function.identity(),
-                    dto -> cacheMap.getOrDefault(dtoKeyMap.get(dto), null),
-                    (oldValue, newValue) -> oldValue,
-                    LinkedHashMap::new
-            ));
+            // 9. 组装最终结果返回（保留入参顺序）
+            return buildResultMap(dtos, dtoKeyMap, cacheMap);
 
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
             throw new RuntimeException("批量查询获取锁时线程中断", e);
-        } finally {
-            // 11. 释放所有锁 + 取消续期任务（无论成功/失败，必须释放）
-            releaseBatchLock(missDtos, dtoLockKeyMap, dtoLockValueMap, renewalFutureMap);
         }
     }
 
     /**
-     * 逻辑过期，解决热点key问题
-     * @param keyPrefix
+     * 辅助方法：已持有锁的Key双重检查缓存，仍未命中的批量查库并写回缓存（含空值）
+     */
+    private <D, DTO> void loadLockedBatch(
+            List<DTO> lockedDtos,
+            Map<DTO, String> dtoKeyMap,
+            Map<String, D> cacheMap,
+            Class<D> type,
+            Function<List<DTO>, Map<DTO, D>> batchDbFallback,
+            Long time,
+            TimeUnit timeUnit
+    ) {
+        // 双重检查缓存（避免加锁期间其他线程已写入缓存）
+        refreshCacheMap(lockedDtos, dtoKeyMap, cacheMap, type);
+        List<DTO> finalMissDtos = lockedDtos.stream()
+                .filter(dto -> !cacheMap.containsKey(dtoKeyMap.get(dto)))
+                .collect(Collectors.toList());
+        if (CollectionUtil.isEmpty(finalMissDtos)) {
+            return;
+        }
+
+        // 批量查询数据库（仅查询最终未命中的DTO）
+        String sampleKey = dtoKeyMap.get(finalMissDtos.get(0));
+        acquireDbLoad(sampleKey);
+        Map<String, String> versions = readVersions(finalMissDtos.stream().map(dtoKeyMap::get).collect(Collectors.toList()));
+        Map<DTO, D> dbResultMap = metrics.timeRebuild(sampleKey, () -> batchDbFallback.apply(finalMissDtos));
+        // 批量写入缓存（包括空值处理，避免缓存穿透，一次管道往返）
+        List<CacheEntry> entries = new ArrayList<>(finalMissDtos.size());
+        for (DTO dto : finalMissDtos) {
+            String cacheKey = dtoKeyMap.get(dto);
+            D data = dbResultMap.getOrDefault(dto, null);
+            if (data == null) {
+                entries.add(CacheEntry.ofNull(cacheKey));
+            } else {
+                entries.add(CacheEntry.of(cacheKey, data, time, timeUnit));
+            }
+            cacheMap.put(cacheKey, data);
+        }
+        multiSet(entries, versions);
+    }
+
+    /**
+     * 逻辑过期，解决热点key问题
+     * @param keyPrefix
      * @param id
      * @param type
      * @param dbFallback
@@ -658,29 +1182,37 @@ public class CacheClient {
             throw new IllegalArgumentException("生成的缓存Key不能为空");
         }
 
-        // 2.从redis中查询缓存
-        String json = stringRedisTemplate.opsForValue().get(key);
+        // 逻辑过期策略本身不会阻塞热点Key，只记录访问用于热点统计
+        hotKeyDetector.record(key);
+
+        // 2.先查近端缓存（未逻辑过期才直接返回，过期则走下面的重建流程）
+        RedisData<D> localRedisData = getLocalRedisData(key, type);
+        if (localRedisData != null && localRedisData.getExpireTime().isAfter(LocalDateTime.now())) {
+            metrics.recordHit(key);
+            return localRedisData.getData();
+        }
+
+        // 2.1.从redis中查询缓存（布隆过滤器判定不存在时返回空值）
+        String json = metrics.timeGet(key, () -> bloomFilterService.guardedGet(key));
+        // 2.2.空值：数据库中不存在该数据
+        if (json != null && json.isEmpty()) {
+            metrics.recordNullHit(key);
+            return null;
+        }
         // 3.判断数据是否存在，说明未设置逻辑时间
         if (StrUtil.isBlank(json)) {
-            D dbData = dbFallback.apply(dto);
-            if (dbData != null) {
-                setWithLogicalExpire(key, dbData, time, timeUnit);
-            }
-            return dbData; // 第一次查询直接返回数据库数据，后续查询命中缓存
+            // 第一次查询直接返回数据库数据，后续查询命中缓存
+            metrics.recordMiss(key);
+            return loadLogicalExpire(key, dto, dbFallback, time, timeUnit);
         }
 
-        // 4.反序列化json
-        // 手动构建「RedisData<具体类型>」的Type（如RedisData<Shop>）
-        Type redisDataType = buildRedisDataType(type);
-        RedisData<D> redisData = deserializeJson(json, redisDataType);
+        // 4.反序列化json（按业务类型构建RedisData<具体类型>的Type）
+        RedisData<D> redisData = decodeRedisData(json, type);
         if (redisData == null || redisData.getData() == null) {
             stringRedisTemplate.delete(key);
             // 缓存数据损坏：查数据库兜底并重建缓存
-            D dbData = dbFallback.apply(dto);
-            if (dbData != null) {
-                setWithLogicalExpire(key, dbData, time, timeUnit);
-            }
-            return dbData;
+            metrics.recordMiss(key);
+            return loadLogicalExpire(key, dto, dbFallback, time, timeUnit);
         }
 
         D data = redisData.getData();
@@ -688,78 +1220,215 @@ public class CacheClient {
 
         // 5. 缓存未过期：直接返回
         if (expireTime.isAfter(LocalDateTime.now())) {
+            nearCache.put(key, redisData);
+            metrics.recordHit(key);
             return data;
         }
 
-        // 6.1.过期，获取互斥锁
+        // 6.过期：尝试获取互斥锁并提交异步重建
+        metrics.recordHit(key);
+        metrics.recordStale(key, 1);
+        triggerLogicalRebuild(key, dto, type, dbFallback, time, timeUnit);
+
+        // 7.直接返回旧的数据
+        return data;
+    }
+
+    /**
+     * 辅助方法：首次加载逻辑过期数据（未命中或缓存损坏时同步查库并写入）
+     */
+    <D, DTO> D loadLogicalExpire(String key, DTO dto, Function<DTO, D> dbFallback, Long time, TimeUnit timeUnit) {
+        acquireDbLoad(key);
+        D dbData = metrics.timeRebuild(key, () -> dbFallback.apply(dto));
+        if (dbData != null) {
+            setWithLogicalExpire(key, dbData, time, timeUnit);
+        }
+        return dbData;
+    }
+
+    /**
+     * 辅助方法：逻辑过期后的重建，抢到锁且二次校验仍过期时提交重建调度（重建结束后释放锁），
+     * 抢锁失败说明已有其他线程在重建，直接返回
+     */
+    <D, DTO> void triggerLogicalRebuild(
+            String key,
+            DTO dto,
+            Class<D> type,
+            Function<DTO, D> dbFallback,
+            Long time,
+            TimeUnit timeUnit
+    ) {
+        // 1.获取互斥锁
         String lockKey = LOCK_PREFIX + key;
         String lockValue = UUID.randomUUID().toString(); // 用UUID标识线程
         boolean isLock = tryLock(lockKey, lockValue);
-        // 原子引用一个续期任务的Future（用于后续取消）
-        AtomicReference<Future<?>> renewalFutureRef = new AtomicReference<>();
 
         if (isLock) {
-            // 用set()方法存储续期任务的Future
-            renewalFutureRef.set(startLockRenewal(lockKey, lockValue));
-
-            // 6.2.二次校验缓存（判断其它线程是否已重建，避免重复构建）
+            // 2.二次校验缓存（判断其它线程是否已重建，避免重复构建）
             String newJson = stringRedisTemplate.opsForValue().get(key);
-            Type newRedisDataType = buildRedisDataType(type); // 二次校验也用同样的Type构建
-            RedisData<D> newRedisData = deserializeJson(newJson, newRedisDataType);
+            RedisData<D> newRedisData = decodeRedisData(newJson, type);
             if (newRedisData != null && newRedisData.getExpireTime().isAfter(LocalDateTime.now())) {
-                /**        其他线程已重建，返回新数据      **/
-                // 5.2.1释放锁
+                // 其他线程已重建，释放锁
                 unlock(lockKey, lockValue);
-                // 5.2.2返回新数据
-                return newRedisData.getData();
+                return;
             }
 
-            // 5.3.线程池异步重建缓存
-            try {
-                CACHE_REBUILD_EXECUTOR.submit(() -> {
-                    // 5.3.1.重建缓存
-                    try {
-                        D dbData = dbFallback.apply(dto);
-                        if (dbData != null) {
-                            this.setWithLogicalExpire(key, dbData, time, timeUnit);
-                        }
-                    } catch (RuntimeException e) {
-                        throw new RuntimeException(e);
-                    } finally {
-                        // 4.3.2.释放锁
-                        unlock(lockKey, lockValue);
-                        // 用get()方法获取Future，判断非空后取消
-                        Future<?> renewalFuture = renewalFutureRef.get();
-                        if (renewalFuture != null && !renewalFuture.isCancelled()) {
-                            renewalFuture.cancel(true); // 允许中断正在执行的续期任务
-                        }
+            // 3.提交重建调度异步重建缓存（重建结束后释放锁）
+            // 注册了批量加载器时与同类型的其他过期Key合并查库，否则单独重建
+            Function<List<DTO>, Map<DTO, D>> batchLoader = getBatchLoader(type, dto);
+            boolean accepted;
+            if (batchLoader != null) {
+                accepted = rebuildScheduler.submit(
+                        rebuildGroup(type, dto, time, timeUnit),
+                        key,
+                        new AbstractMap.SimpleImmutableEntry<>(key, dto),
+                        hotKeyDetector.estimate(key),
+                        items -> rebuildLogicalExpired(items, type, batchLoader, time, timeUnit),
+                        () -> unlock(lockKey, lockValue)
+                );
+            } else {
+                accepted = rebuildScheduler.submit(key, key, dto, hotKeyDetector.estimate(key), dtos -> {
+                    // 回源预算耗尽：放弃本次刷新，继续返回旧数据
+                    if (!tryDbLoad(key)) {
+                        return;
                     }
-                });
-            } catch (RejectedExecutionException e) {
-                // 线程池满：调用者线程同步重建，避免任务丢失
-                D dbData = dbFallback.apply(dto);
-                if (dbData != null) {
-                    setWithLogicalExpire(key, dbData, time, timeUnit);
-                }
+                    D dbData = metrics.timeRebuild(key, () -> dbFallback.apply(dto));
+                    if (dbData != null) {
+                        this.setWithLogicalExpire(key, dbData, time, timeUnit);
+                    }
+                }, () -> unlock(lockKey, lockValue));
+            }
+            if (!accepted) {
+                // 重建队列已满：放弃本次重建，释放锁，继续返回旧数据
+                metrics.recordRebuildRejected(key, CacheMetrics.REJECT_QUEUE_FULL);
                 unlock(lockKey, lockValue);
-                // 用get()方法获取Future，判断非空后取消
-                Future<?> renewalFuture = renewalFutureRef.get();
-                if (renewalFuture != null && !renewalFuture.isCancelled()) {
-                    renewalFuture.cancel(true); // 允许中断正在执行的续期任务
-                }
-            } catch (Exception e) {
-                unlock(lockKey, lockValue); // 异常时释放锁，避免死锁
-                // 用get()方法获取Future，判断非空后取消
-                Future<?> renewalFuture = renewalFutureRef.get();
-                if (renewalFuture != null && !renewalFuture.isCancelled()) {
-                    renewalFuture.cancel(true); // 允许中断正在执行的续期任务
-                }
-                throw new RuntimeException("缓存重建逻辑异常", e);
             }
         }
+    }
 
-        // 6.直接返回旧的数据
-        return data;
+    /**
+     * 概率提前刷新（XFetch），解决热点key问题
+     * @param keyPrefix
+     * @param id
+     * @param type
+     * @param dbFallback
+     * @param time
+     * @param timeUnit
+     * @return
+     * @param <D>
+     * @param <ID>
+     */
+    public <D, ID> D queryWithEarlyRefresh(
+            String keyPrefix,
+            ID id,
+            Class<D> type,
+            Function<ID, D> dbFallback,
+            Long time,
+            TimeUnit timeUnit
+    ) {
+        return queryWithEarlyRefresh(
+                (d) -> keyPrefix + d, // d 对应传入的 id（DTO=ID）
+                id,
+                type,
+                (d) -> dbFallback.apply(d), // d 直接是 ID 类型，无需转换
+                time,
+                timeUnit,
+                EARLY_REFRESH_BETA
+        );
+    }
+
+    /**
+     * 概率提前刷新（XFetch），解决热点key问题
+     * 缓存值连同上次重建耗时(delta)和过期时间一起存入RedisData，物理TTL与过期时间一致；
+     * 每次读取时，若 now + delta * beta * (-ln(rand)) >= expireTime，则由当前请求提前重建。
+     * 越接近过期、重建越慢，提前重建的概率越大：热点Key会在过期前被某个请求平滑刷新，
+     * 既没有锁风暴，也不会像逻辑过期那样返回过期数据
+     * @param keyGenerator 自定义Key生成器
+     * @param dto 数据传输对象
+     * @param type 业务数据类型
+     * @param dbFallback 数据库查询回调
+     * @param time 缓存过期时间
+     * @param timeUnit 时间单位
+     * @param beta 提前系数（>1更倾向提前刷新，<1更倾向接近过期时刷新，默认1.0）
+     * @return 业务数据，数据库无数据则返回null
+     * @param <D> 业务数据类型
+     * @param <DTO> 数据传输对象类型
+     */
+    public <D, DTO> D queryWithEarlyRefresh(
+            Function<DTO, String> keyGenerator,
+            DTO dto,
+            Class<D> type,
+            Function<DTO, D> dbFallback,
+            Long time,
+            TimeUnit timeUnit,
+            double beta
+    ) {
+        // 1. 校验入参合法性（避免空指针）
+        if (keyGenerator == null) {
+            throw new IllegalArgumentException("Key生成器不能为空");
+        }
+        if (dto == null) {
+            throw new IllegalArgumentException("DTO参数不能为空");
+        }
+        if (type == null) {
+            throw new IllegalArgumentException("业务数据类型不能为空");
+        }
+        if (dbFallback == null) {
+            throw new IllegalArgumentException("数据库查询回调不能为空");
+        }
+        if (beta <= 0) {
+            throw new IllegalArgumentException("提前系数beta必须大于0");
+        }
+
+        // 2.生成key
+        String key = keyGenerator.apply(dto);
+        if (StrUtil.isBlank(key)) {
+            throw new IllegalArgumentException("生成的缓存Key不能为空");
+        }
+
+        // 提前刷新策略本身不会阻塞热点Key，只记录访问用于热点统计
+        hotKeyDetector.record(key);
+
+        // 3.先查近端缓存，再查redis
+        RedisData<D> redisData = getLocalRedisData(key, type);
+        if (redisData == null || !redisData.getExpireTime().isAfter(LocalDateTime.now())) {
+            // 布隆过滤器判定不存在时返回空值，不再读缓存和数据库
+            String json = metrics.timeGet(key, () -> bloomFilterService.guardedGet(key));
+            if (json == null) {
+                // 3.1.未命中（从未写入或已物理过期）：同步重建，同一Key的并发未命中合并为一次
+                metrics.recordMiss(key);
+                return singleFlight.execute(key, () -> recomputeEarlyRefresh(key, dto, dbFallback, time, timeUnit));
+            }
+            if (StrUtil.isBlank(json)) {
+                // 3.2.缓存空值，说明数据库中不存在该数据
+                metrics.recordNullHit(key);
+                return null;
+            }
+            redisData = deserializeRedisData(json, buildRedisDataType(type));
+            if (redisData == null || redisData.getData() == null || redisData.getExpireTime() == null) {
+                // 3.3.缓存损坏：删除后同步重建
+                stringRedisTemplate.delete(key);
+                metrics.recordMiss(key);
+                return singleFlight.execute(key, () -> recomputeEarlyRefresh(key, dto, dbFallback, time, timeUnit));
+            }
+            nearCache.put(key, redisData);
+        }
+        metrics.recordHit(key);
+
+        // 4.XFetch：按剩余时间和重建耗时决定本次请求是否提前重建
+        if (!shouldRefreshEarly(redisData, beta)) {
+            return redisData.getData();
+        }
+        D staleData = redisData.getData();
+        try {
+            // 重建结果以数据库为准（数据已被删除时返回null）
+            return singleFlight.execute(key, () -> recomputeEarlyRefresh(key, dto, dbFallback, time, timeUnit));
+        } catch (RuntimeException e) {
+            // 提前重建失败：当前值尚未过期，继续返回
+            log.warn("提前刷新缓存失败，返回当前缓存值，key: {}", key, e);
+            metrics.recordStale(key, 1);
+            return staleData;
+        }
     }
 
     /**
@@ -809,15 +1478,32 @@ public class CacheClient {
         List<DTO> missDtos = new ArrayList<>(); // 缓存未命中的DTO
         List<DTO> expiredDtos = new ArrayList<>(); // 缓存已过期的DTO
 
-        // 3. 批量查询Redis缓存，解析逻辑过期数据
+        // 3. 先查近端缓存（命中且未逻辑过期，直接返回）
+        List<DTO> remoteDtos = new ArrayList<>();
         for (DTO dto : dtos) {
             String cacheKey = keyGenerator.apply(dto);
             if (StrUtil.isBlank(cacheKey)) {
                 throw new IllegalArgumentException("DTO生成的缓存Key不能为空：" + dto);
             }
             dtoKeyMap.put(dto, cacheKey);
+            resultMap.put(dto, null); // 先占位，保留入参顺序
+
+            RedisData<D> localRedisData = getLocalRedisData(cacheKey, type);
+            if (localRedisData != null && localRedisData.getExpireTime().isAfter(LocalDateTime.now())) {
+                resultMap.put(dto, localRedisData.getData());
+                continue;
+            }
+            remoteDtos.add(dto);
+        }
 
-            String json = stringRedisTemplate.opsForValue().get(cacheKey);
+        // 3.1. 其余Key一次MGET批量查询Redis，解析逻辑过期数据
+        List<String> jsonList = multiGet(remoteDtos.stream().map(dtoKeyMap::get).collect(Collectors.toList()));
+        Type redisDataType = buildRedisDataType(type);
+        List<String> brokenKeys = new ArrayList<>();
+        for (int i = 0; i < remoteDtos.size(); i++) {
+            DTO dto = remoteDtos.get(i);
+            String cacheKey = dtoKeyMap.get(dto);
+            String json = jsonList.get(i);
             if (StrUtil.isBlank(json)) {
                 // 缓存未命中，加入missDtos
                 missDtos.add(dto);
@@ -825,12 +1511,11 @@ public class CacheClient {
             }
 
             // 解析RedisData（带逻辑过期时间）
-            Type redisDataType = buildRedisDataType(type);
-            RedisData<D> redisData = deserializeJson(json, redisDataType);
+            RedisData<D> redisData = deserializeRedisData(json, redisDataType);
             if (redisData == null || redisData.getData() == null) {
                 // 反序列化失败/数据为空，加入missDtos
                 missDtos.add(dto);
-                stringRedisTemplate.delete(cacheKey); // 删除损坏缓存
+                brokenKeys.add(cacheKey);
                 continue;
             }
             dtoRedisDataMap.put(dto, redisData);
@@ -839,6 +1524,7 @@ public class CacheClient {
             LocalDateTime expireTime = redisData.getExpireTime();
             if (expireTime.isAfter(LocalDateTime.now())) {
                 // 未过期，直接返回数据
+                nearCache.put(cacheKey, redisData);
                 resultMap.put(dto, redisData.getData());
             } else {
                 // 已过期，加入expiredDtos，先返回旧数据
@@ -846,18 +1532,32 @@ public class CacheClient {
                 expiredDtos.add(dto);
             }
         }
+        if (!brokenKeys.isEmpty()) {
+            stringRedisTemplate.delete(brokenKeys); // 删除损坏缓存
+        }
+
+        // 3.2. 布隆过滤器判定一定不存在的DTO直接返回null，不查数据库
+        Set<String> notExistKeys = new HashSet<>();
+        excludeNotExists(missDtos.stream().map(dtoKeyMap::get).collect(Collectors.toList()), notExistKeys::add);
+        missDtos.removeIf(dto -> notExistKeys.contains(dtoKeyMap.get(dto)));
 
-        // 4. 处理缓存未命中的DTO：同步查库 + 写入逻辑过期缓存
+        // 4. 处理缓存未命中的DTO：同步查库 + 写入逻辑过期缓存（一次管道往返）
+        String sampleKey = dtoKeyMap.get(dtos.get(0));
+        metrics.recordBatch(sampleKey, dtos.size() - missDtos.size() - notExistKeys.size(), missDtos.size());
+        metrics.recordStale(sampleKey, expiredDtos.size());
         if (!CollectionUtil.isEmpty(missDtos)) {
-            Map<DTO, D> missDbMap = batchDbFallback.apply(missDtos);
+            acquireDbLoad(sampleKey);
+            Map<String, String> versions = readVersions(missDtos.stream().map(dtoKeyMap::get).collect(Collectors.toList()));
+            Map<DTO, D> missDbMap = metrics.timeRebuild(sampleKey, () -> batchDbFallback.apply(missDtos));
+            List<CacheEntry> entries = new ArrayList<>(missDtos.size());
             for (DTO dto : missDtos) {
                 D data = missDbMap.getOrDefault(dto, null);
                 resultMap.put(dto, data);
                 if (data != null) {
-                    String cacheKey = dtoKeyMap.get(dto);
-                    setWithLogicalExpire(cacheKey, data, time, timeUnit);
+                    entries.add(CacheEntry.ofLogical(dtoKeyMap.get(dto), data, time, timeUnit));
                 }
             }
+            multiSet(entries, versions);
         }
 
         // 5. 处理缓存已过期的DTO：批量加锁 + 异步重建缓存
@@ -869,10 +1569,64 @@ public class CacheClient {
     }
 
     /**
-     * 辅助方法：手动构建RedisData<具体类型>的Type（突破泛型擦除）
+     * 辅助方法：XFetch判定 now + delta * beta * (-ln(rand)) >= expireTime
+     */
+    private boolean shouldRefreshEarly(RedisData<?> redisData, double beta) {
+        long delta = redisData.getDelta() == null ? 0L : redisData.getDelta();
+        if (delta <= 0) {
+            // 没有重建耗时（如旧数据），退化为到期重建
+            return !redisData.getExpireTime().isAfter(LocalDateTime.now());
+        }
+        // 1 - nextDouble() 取值(0, 1]，避免ln(0)
+        double gapMillis = delta * beta * -Math.log(1.0 - ThreadLocalRandom.current().nextDouble());
+        LocalDateTime threshold = LocalDateTime.now().plusNanos((long) (gapMillis * 1_000_000L));
+        return !threshold.isBefore(redisData.getExpireTime());
+    }
+
+    /**
+     * 辅助方法：提前刷新策略的重建，记录本次重建耗时写入RedisData
+     */
+    private <D, DTO> D recomputeEarlyRefresh(
+            String key,
+            DTO dto,
+            Function<DTO, D> dbFallback,
+            Long time,
+            TimeUnit timeUnit
+    ) {
+        acquireDbLoad(key);
+        String version = readVersion(key);
+        long begin = System.currentTimeMillis();
+        D data = metrics.timeRebuild(key, () -> dbFallback.apply(dto));
+        long delta = System.currentTimeMillis() - begin;
+        if (data == null) {
+            setIfVersion(key, "", version, CACHE_NULL_TTL, TimeUnit.MINUTES);
+            return null;
+        }
+        RedisData<D> redisData = new RedisData<>();
+        redisData.setData(data);
+        redisData.setDelta(Math.max(delta, 1L));
+        long ttlMillis = ttlJitter.apply(key, timeUnit.toMillis(time));
+        redisData.setExpireTime(LocalDateTime.now().plusNanos(TimeUnit.MILLISECONDS.toNanos(ttlMillis)));
+        // 物理TTL与逻辑过期时间一致：没人提前刷新的冷Key到期即被淘汰
+        String encoded = codec.encode(key, redisData);
+        if (version != null) {
+            writeIfVersion(key, redisData, encoded, version, ttlMillis);
+            return data;
+        }
+        stringRedisTemplate.opsForValue().set(key, encoded, ttlMillis, TimeUnit.MILLISECONDS);
+        nearCache.onWrite(key, redisData);
+        return data;
+    }
+
+    /**
+     * 辅助方法：获取RedisData<具体类型>的Type（突破泛型擦除），每个业务类型只构建一次
      * 例如：传入Shop.class，返回RedisData<Shop>的Type
      */
     private <D> Type buildRedisDataType(Class<D> innerType) {
+        return REDIS_DATA_TYPES.computeIfAbsent(innerType, this::newRedisDataType);
+    }
+
+    private Type newRedisDataType(Class<?> innerType) {
         return new ParameterizedType() {
             @Override
             public Type[] getActualTypeArguments() {
@@ -895,18 +1649,33 @@ public class CacheClient {
     }
 
     /**
-     * 辅助方法：反序列化JSON（处理空值和异常），接收明确的TypeReference，避免泛型擦除
+     * 辅助方法：从近端缓存读取RedisData，并校验业务数据类型
+     */
+    @SuppressWarnings("unchecked")
+    <D> RedisData<D> getLocalRedisData(String key, Class<D> type) {
+        RedisData<?> redisData = nearCache.get(key, RedisData.class);
+        if (redisData == null || !type.isInstance(redisData.getData()) || redisData.getExpireTime() == null) {
+            return null;
+        }
+        return (RedisData<D>) redisData;
+    }
+
+    /**
+     * 辅助方法：按业务类型反序列化RedisData（失败返回null）
      */
-    private <D> RedisData<D> deserializeJson(String json, Type redisDataType) {
+    <D> RedisData<D> decodeRedisData(String json, Class<D> type) {
+        return deserializeRedisData(json, buildRedisDataType(type));
+    }
+
+    /**
+     * 辅助方法：反序列化RedisData（处理空值和异常，编码格式由编解码器自动识别），接收明确的Type，避免泛型擦除
+     */
+    private <D> RedisData<D> deserializeRedisData(String json, Type redisDataType) {
         if (StrUtil.isBlank(json)) {
             return null;
         }
         try {
-            return JSONUtil.toBean(
-                    json,
-                    redisDataType,
-                    false
-            );
+            return codec.decode(json, redisDataType);
         } catch (Exception e) {
             // 反序列化失败：返回null，触发数据库兜底
             return null;
@@ -914,61 +1683,70 @@ public class CacheClient {
     }
 
     /**
-     * 线程池锁续期（复用缓存重建线程池，返回Future用于中断）
+     * 获取分布式锁（带唯一value），成功后交给看门狗统一续期
      */
-    private Future<?> startLockRenewal(String lockKey, String lockValue) {
-        // 续期任务：循环续期直到被中断或续期失败
-        Runnable renewalTask = () -> {
-            try {
-                while (!Thread.currentThread().isInterrupted()) {
-                    // 每隔锁TTL的1/3时间续期一次
-                    Thread.sleep(LOCK_TTL * 1000L / 3);
-
-                    // 校验锁归属，只续期自己的锁
-                    Boolean renewalSuccess = stringRedisTemplate.opsForValue().setIfPresent(
-                            lockKey,
-                            lockValue,
-                            Duration.ofSeconds(LOCK_TTL)
-                    );
-
-                    // 续期失败（锁已释放/归属其他线程），终止任务
-                    if (BooleanUtil.isFalse(renewalSuccess)) {
-                        break;
-                    }
-                }
-            } catch (InterruptedException e) {
-                // 响应中断（Future.cancel(true)触发），终止续期
-                Thread.currentThread().interrupt();
-            }
-        };
-
-        // 向缓存重建线程池提交续期任务，返回Future用于后续取消
-        return CACHE_REBUILD_EXECUTOR.submit(renewalTask);
+    private boolean tryLock(String key, String value) {
+        // value取随机值，删除线程时，用于区分线程归属
+        Boolean isLock = stringRedisTemplate.opsForValue().setIfAbsent(key, value, Duration.ofSeconds(LOCK_TTL));
+        if (BooleanUtil.isTrue(isLock)) {
+            lockWatchdog.watch(key, value);
+            return true;
+        }
+        return false;
     }
 
     /**
-     * 获取分布式锁（带唯一value）
+     * 释放分布式锁（Lua脚本保证原子性），先停止续期
      */
-    private boolean tryLock(String key, String value) {
-        // value取随机值，删除线程时，用于区分线程归属
-        Boolean isLock = stringRedisTemplate.opsForValue().setIfAbsent(key, value, Duration.ofSeconds(LOCK_TTL));
-        return BooleanUtil.isTrue(isLock);
+    void unlock(String key, String value) {
+        lockWatchdog.unwatch(key, value);
+        stringRedisTemplate.execute(UNLOCK_SCRIPT, Collections.singletonList(key), value);
     }
 
     /**
-     * 释放分布式锁（Lua脚本保证原子性）
+     * 批量获取分布式锁（一次Lua调用逐个SET NX PX），返回成功获取锁的DTO（允许部分成功），
+     * 获取成功的锁交给看门狗续期；Redis Cluster下锁Key分布在不同槽位，改为管道中逐Key调用
      */
-    private void unlock(String key, String value) {
-        String luaScript = "if redis.call('get', KEYS[1]) == ARGV[1] then " +
-                "return redis.call('del', KEYS[1]) " +
-                "else " +
-                "return 0 " +
-                "end";
-        stringRedisTemplate.execute(
-                new DefaultRedisScript<>(luaScript, Long.class),
-                Collections.singletonList(key),
-                value
-        );
+    private <DTO> List<DTO> tryLockBatch(
+            List<DTO> dtos,
+            Map<DTO, String> dtoLockKeyMap,
+            Map<DTO, String> dtoLockValueMap
+    ) {
+        if (dtos.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<String> lockKeys = new ArrayList<>(dtos.size());
+        Object[] args = new Object[dtos.size() + 1];
+        args[0] = String.valueOf(TimeUnit.SECONDS.toMillis(LOCK_TTL));
+        for (int i = 0; i < dtos.size(); i++) {
+            lockKeys.add(dtoLockKeyMap.get(dtos.get(i)));
+            args[i + 1] = dtoLockValueMap.get(dtos.get(i));
+        }
+        List<?> indexes;
+        if (RedisClusterSupport.isCluster(stringRedisTemplate)) {
+            List<Object> results = RedisClusterSupport.evalPerKey(stringRedisTemplate, BATCH_LOCK_SCRIPT,
+                    ReturnType.MULTI, lockKeys, i -> new String[]{(String) args[0], (String) args[i + 1]});
+            // 换算成与整批调用相同的下标（从1开始）
+            List<Long> acquired = new ArrayList<>();
+            for (int i = 0; i < results.size(); i++) {
+                if (results.get(i) instanceof List && !((List<?>) results.get(i)).isEmpty()) {
+                    acquired.add(i + 1L);
+                }
+            }
+            indexes = acquired;
+        } else {
+            indexes = stringRedisTemplate.execute(BATCH_LOCK_SCRIPT, lockKeys, args);
+        }
+        if (indexes == null || indexes.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<DTO> lockedDtos = new ArrayList<>(indexes.size());
+        for (Object index : indexes) {
+            DTO dto = dtos.get(((Number) index).intValue() - 1); // Lua下标从1开始
+            lockWatchdog.watch(dtoLockKeyMap.get(dto), dtoLockValueMap.get(dto));
+            lockedDtos.add(dto);
+        }
+        return lockedDtos;
     }
 
     /**
@@ -980,48 +1758,241 @@ public class CacheClient {
             Map<String, D> cacheMap,
             Class<D> type
     ) {
-        for (DTO dto : missDtos) {
-            String cacheKey = dtoKeyMap.get(dto);
-            String json = stringRedisTemplate.opsForValue().get(cacheKey);
+        multiGetCache(missDtos.stream().map(dtoKeyMap::get).collect(Collectors.toList()), type, cacheMap);
+    }
+
+    /**
+     * 辅助方法：批量读取普通缓存（先查近端缓存，其余Key一次MGET）
+     * 命中的数据写入cacheMap；缓存空值（""）记为null，同样视为命中，避免穿透
+     */
+    private <D> void multiGetCache(Collection<String> keys, Class<D> type, Map<String, D> cacheMap) {
+        List<String> remoteKeys = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            D localData = nearCache.get(key, type);
+            if (localData != null) {
+                cacheMap.put(key, localData);
+            } else {
+                remoteKeys.add(key);
+            }
+        }
+
+        List<String> jsonList = multiGet(remoteKeys);
+        List<String> brokenKeys = new ArrayList<>();
+        List<String> missKeys = new ArrayList<>();
+        for (int i = 0; i < remoteKeys.size(); i++) {
+            String key = remoteKeys.get(i);
+            String json = jsonList.get(i);
             if (StrUtil.isNotBlank(json)) {
                 try {
-                    cacheMap.put(cacheKey, JSONUtil.toBean(json, type));
+                    D data = codec.decode(json, type);
+                    nearCache.put(key, data);
+                    cacheMap.put(key, data);
                 } catch (Exception e) {
-                    stringRedisTemplate.delete(cacheKey);
+                    // 反序列化失败：删除损坏缓存，后续走数据库兜底
+                    brokenKeys.add(key);
                 }
             } else if (json != null) {
-                cacheMap.put(cacheKey, null);
+                cacheMap.put(key, null);
+            } else {
+                missKeys.add(key);
+            }
+        }
+        if (!brokenKeys.isEmpty()) {
+            stringRedisTemplate.delete(brokenKeys);
+        }
+        // 未命中的Key经布隆过滤器判定一定不存在的，记为null命中（不写空值、不查数据库）
+        excludeNotExists(missKeys, key -> cacheMap.put(key, null));
+    }
+
+    /**
+     * 辅助方法：批量布隆过滤器判定（每个过滤器一次Lua往返），对一定不存在的Key执行回调
+     */
+    private void excludeNotExists(List<String> keys, Consumer<String> onNotExists) {
+        if (keys.isEmpty() || !bloomFilterService.isEnabled()) {
+            return;
+        }
+        List<Boolean> flags = bloomFilterService.mightContainKeys(keys);
+        for (int i = 0; i < keys.size(); i++) {
+            if (!flags.get(i)) {
+                onNotExists.accept(keys.get(i));
+            }
+        }
+    }
+
+    /**
+     * 辅助方法：一次MGET批量读取，返回值与keys一一对应（不存在的Key为null）
+     */
+    private List<String> multiGet(List<String> keys) {
+        if (keys.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<String> values = metrics.timeMultiGet(keys.get(0), () -> stringRedisTemplate.opsForValue().multiGet(keys));
+        return values != null ? values : Collections.nCopies(keys.size(), null);
+    }
+
+    /**
+     * 辅助方法：管道批量写入（一次网络往返完成多个SET/PSETEX），并同步近端缓存
+     * 启用版本号的Key先在一个管道内逐个执行版本校验写入主Key，版本已变化的条目不再写入副本和近端缓存
+     * @param versions 查库前读取的版本号（readVersions的结果），不在其中的Key直接写入
+     */
+    private void multiSet(List<CacheEntry> entries, Map<String, String> versions) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        // 先在管道外完成过期时间抖动和编码，缩短管道占用连接的时间
+        List<String> values = new ArrayList<>(entries.size());
+        long[] ttls = new long[entries.size()];
+        for (int i = 0; i < entries.size(); i++) {
+            CacheEntry entry = entries.get(i);
+            if (entry.value instanceof RedisData) {
+                RedisData<?> redisData = (RedisData<?>) entry.value;
+                redisData.setExpireTime(ttlJitter.apply(entry.key, redisData.getExpireTime()));
+            }
+            ttls[i] = ttlJitter.apply(entry.key, entry.ttlMillis);
+            values.add(codec.encode(entry.key, entry.value));
+        }
+        boolean[] written = writeIfVersions(entries, values, ttls, versions, false);
+        // 版本校验写入了主Key的热点Key，写完副本后需要重读版本号
+        List<String> replicatedVersionKeys = new ArrayList<>();
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection stringConnection = (StringRedisConnection) connection;
+            for (int i = 0; i < entries.size(); i++) {
+                CacheEntry entry = entries.get(i);
+                if (!written[i]) {
+                    continue;
+                }
+                boolean versioned = versions.containsKey(entry.key);
+                if (ttls[i] > 0) {
+                    if (!versioned) {
+                        stringConnection.pSetEx(entry.key, ttls[i], values.get(i));
+                    }
+                    // 热点Key在同一管道内写入全部副本
+                    if (isReplicatedHotKey(entry.key)) {
+                        for (String replicaKey : hotKeyReplicas.replicaKeys(entry.key)) {
+                            stringConnection.pSetEx(replicaKey, ttls[i], values.get(i));
+                        }
+                        if (versioned) {
+                            replicatedVersionKeys.add(entry.key);
+                        }
+                    }
+                } else {
+                    if (!versioned) {
+                        stringConnection.set(entry.key, values.get(i));
+                    }
+                    // 逻辑过期数据：已注册提前刷新的Key在同一管道内记录过期时间
+                    if (entry.value instanceof RedisData && isRefreshAheadKey(entry.key)) {
+                        LocalDateTime expireTime = ((RedisData<?>) entry.value).getExpireTime();
+                        stringConnection.zAdd(refreshAheadScheduler.getZsetKey(), toEpochMilli(expireTime), entry.key);
+                    }
+                }
+            }
+            return null;
+        });
+        // 与writeIfVersion相同：写副本期间数据被更新，删除刚写入的副本
+        Set<String> staleKeys = new HashSet<>();
+        readVersions(replicatedVersionKeys).forEach((key, version) -> {
+            if (!version.equals(versions.get(key))) {
+                staleKeys.add(key);
+                deleteWithReplicas(key);
+            }
+        });
+
+        Map<String, Object> localValues = new HashMap<>(entries.size());
+        for (int i = 0; i < entries.size(); i++) {
+            CacheEntry entry = entries.get(i);
+            if (written[i] && !staleKeys.contains(entry.key)) {
+                localValues.put(entry.key, entry.value);
             }
         }
+        if (!localValues.isEmpty()) {
+            nearCache.onWrite(localValues);
+        }
     }
 
     /**
-     * 辅助方法：释放批量锁 + 取消续期任务
+     * 辅助方法：启用版本号的条目在一个管道内逐个执行版本校验写入（每次脚本只涉及同槽位的版本号Key和主Key）
+     * 管道中无法处理NOSCRIPT后重试，直接EVAL脚本内容（服务端会缓存编译结果）
+     * @param ifAbsent 缓存Key已存在时不覆盖（SET NX）
+     * @return 每个条目是否写入，未启用版本号的条目为true（由调用方直接写入）
+     */
+    private boolean[] writeIfVersions(List<CacheEntry> entries, List<String> values, long[] ttls,
+                                      Map<String, String> versions, boolean ifAbsent) {
+        boolean[] written = new boolean[entries.size()];
+        List<Integer> versionedIndexes = new ArrayList<>();
+        for (int i = 0; i < entries.size(); i++) {
+            if (versions.containsKey(entries.get(i).key)) {
+                versionedIndexes.add(i);
+            } else {
+                written[i] = true;
+            }
+        }
+        if (versionedIndexes.isEmpty()) {
+            return written;
+        }
+        String script = VERSION_SET_SCRIPT.getScriptAsString();
+        List<Object> results = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection stringConnection = (StringRedisConnection) connection;
+            for (int i : versionedIndexes) {
+                String key = entries.get(i).key;
+                stringConnection.eval(script, ReturnType.INTEGER, 2, versionKey(key), key,
+                        versions.get(key), values.get(i), String.valueOf(ttls[i]), ifAbsent ? "NX" : "");
+            }
+            return null;
+        });
+        for (int j = 0; j < versionedIndexes.size(); j++) {
+            written[versionedIndexes.get(j)] = Long.valueOf(1L).equals(results.get(j));
+        }
+        int rejected = versionedIndexes.size() - (int) versionedIndexes.stream().filter(i -> written[i]).count();
+        if (rejected > 0) {
+            log.debug("缓存版本已变化，放弃写入旧数据，共{}个Key", rejected);
+        }
+        return written;
+    }
+
+    /**
+     * 辅助方法：按入参顺序组装批量查询结果（允许value为null，重复DTO保留首次结果）
+     */
+    private <D, DTO> Map<DTO, D> buildResultMap(List<DTO> dtos, Map<DTO, String> dtoKeyMap, Map<String, D> cacheMap) {
+        Map<DTO, D> resultMap = new LinkedHashMap<>();
+        for (DTO dto : dtos) {
+            resultMap.putIfAbsent(dto, cacheMap.get(dtoKeyMap.get(dto)));
+        }
+        return resultMap;
+    }
+
+    /**
+     * 辅助方法：释放批量锁（先停止续期，再一次Lua调用释放）
      */
     private <DTO> void releaseBatchLock(
             List<DTO> dtos,
             Map<DTO, String> dtoLockKeyMap,
-            Map<DTO, String> dtoLockValueMap,
-            Map<DTO, Future<?>> renewalFutureMap
+            Map<DTO, String> dtoLockValueMap
     ) {
+        List<String> lockKeys = new ArrayList<>(dtos.size());
+        List<String> lockValues = new ArrayList<>(dtos.size());
         for (DTO dto : dtos) {
-            // 取消续期任务
-            Future<?> renewalFuture = renewalFutureMap.get(dto);
-            if (renewalFuture != null && !renewalFuture.isCancelled()) {
-                renewalFuture.cancel(true);
-            }
-            // 释放锁
             String lockKey = dtoLockKeyMap.get(dto);
             String lockValue = dtoLockValueMap.get(dto);
             if (StrUtil.isNotBlank(lockKey) && StrUtil.isNotBlank(lockValue)) {
-                unlock(lockKey, lockValue);
+                lockWatchdog.unwatch(lockKey, lockValue);
+                lockKeys.add(lockKey);
+                lockValues.add(lockValue);
             }
         }
-        renewalFutureMap.clear();
+        if (lockKeys.isEmpty()) {
+            return;
+        }
+        if (RedisClusterSupport.isCluster(stringRedisTemplate)) {
+            RedisClusterSupport.evalPerKey(stringRedisTemplate, BATCH_UNLOCK_SCRIPT, ReturnType.INTEGER,
+                    lockKeys, i -> new String[]{lockValues.get(i)});
+        } else {
+            stringRedisTemplate.execute(BATCH_UNLOCK_SCRIPT, lockKeys, lockValues.toArray());
+        }
     }
 
     /**
-     * 辅助方法：批量重建过期缓存（加互斥锁 + 异步线程池）
+     * 辅助方法：批量重建过期缓存（一次Lua调用批量加锁 + 提交重建调度）
+     * 已注册批量加载器时与其他请求提交的同类型Key合并查库，否则本次调用的Key合并为一组
      */
     private <D, DTO> void rebuildExpiredBatchCache(
             List<DTO> expiredDtos,
@@ -1031,100 +2002,295 @@ public class CacheClient {
             Long time,
             TimeUnit timeUnit
     ) {
-        // 构建锁映射：DTO→锁Key/锁Value/续期Future
+        // 一次Lua调用批量获取锁，获取失败的Key由其他线程重建，保留旧数据即可
         Map<DTO, String> dtoLockKeyMap = new HashMap<>();
         Map<DTO, String> dtoLockValueMap = new HashMap<>();
-        Map<DTO, Future<?>> renewalFutureMap = new HashMap<>();
-
-        // 批量尝试获取锁（失败则跳过，保留旧数据即可）
         for (DTO dto : expiredDtos) {
+            dtoLockKeyMap.put(dto, LOCK_PREFIX + dtoKeyMap.get(dto));
+            dtoLockValueMap.put(dto, UUID.randomUUID().toString());
+        }
+        List<DTO> lockedDtos = tryLockBatch(expiredDtos, dtoLockKeyMap, dtoLockValueMap);
+
+        String callGroup = type.getName() + "|batch-" + BATCH_GROUP_SEQ.incrementAndGet();
+        for (DTO dto : lockedDtos) {
             String cacheKey = dtoKeyMap.get(dto);
-            String lockKey = LOCK_PREFIX + cacheKey;
-            String lockValue = UUID.randomUUID().toString();
-            dtoLockKeyMap.put(dto, lockKey);
-            dtoLockValueMap.put(dto, lockValue);
-
-            boolean isLock = tryLock(lockKey, lockValue);
-            if (isLock) {
-                // 获取锁成功，启动续期任务
-                Future<?> renewalFuture = startLockRenewal(lockKey, lockValue);
-                renewalFutureMap.put(dto, renewalFuture);
+            String lockKey = dtoLockKeyMap.get(dto);
+            String lockValue = dtoLockValueMap.get(dto);
+
+            Function<List<DTO>, Map<DTO, D>> batchLoader = getBatchLoader(type, dto);
+            String group = batchLoader != null ? rebuildGroup(type, dto, time, timeUnit) : callGroup;
+            Function<List<DTO>, Map<DTO, D>> loader = batchLoader != null ? batchLoader : batchDbFallback;
+            boolean accepted = rebuildScheduler.submit(
+                    group,
+                    cacheKey,
+                    new AbstractMap.SimpleImmutableEntry<>(cacheKey, dto),
+                    hotKeyDetector.estimate(cacheKey),
+                    items -> rebuildLogicalExpired(items, type, loader, time, timeUnit),
+                    () -> unlock(lockKey, lockValue)
+            );
+            if (!accepted) {
+                // 重建队列已满：放弃本次重建，释放锁，继续返回旧数据
+                metrics.recordRebuildRejected(cacheKey, CacheMetrics.REJECT_QUEUE_FULL);
+                unlock(lockKey, lockValue);
             }
         }
+    }
 
-        // 筛选成功获取锁的DTO（仅这些DTO需要异步重建）
-        List<DTO> lockSuccessDtos = expiredDtos.stream()
-                .filter(dto -> renewalFutureMap.containsKey(dto))
-                .collect(Collectors.toList());
-        if (CollectionUtil.isEmpty(lockSuccessDtos)) {
+    /**
+     * 辅助方法：逻辑过期数据的合并重建（在重建调度线程中执行）
+     * 二次校验后仍过期或缺失的Key一次批量查库，结果一次管道写回
+     * @param items 缓存Key -> DTO
+     */
+    private <D, DTO> void rebuildLogicalExpired(
+            List<? extends Map.Entry<String, DTO>> items,
+            Class<D> type,
+            Function<List<DTO>, Map<DTO, D>> batchDbFallback,
+            Long time,
+            TimeUnit timeUnit
+    ) {
+        // 双重检查缓存（避免其他实例已重建，一次MGET）
+        List<String> jsonList = multiGet(items.stream().map(Map.Entry::getKey).collect(Collectors.toList()));
+        Type redisDataType = buildRedisDataType(type);
+        List<Map.Entry<String, DTO>> rebuildItems = new ArrayList<>();
+        for (int i = 0; i < items.size(); i++) {
+            RedisData<D> redisData = deserializeRedisData(jsonList.get(i), redisDataType);
+            if (redisData == null || redisData.getExpireTime().isBefore(LocalDateTime.now())) {
+                rebuildItems.add(items.get(i));
+            }
+        }
+        if (rebuildItems.isEmpty()) {
             return;
         }
 
-        // 异步线程池重建缓存
-        try {
-            CACHE_REBUILD_EXECUTOR.submit(() -> {
-                try {
-                    // 双重检查缓存（避免其他线程已重建）
-                    List<DTO> finalRebuildDtos = new ArrayList<>();
-                    for (DTO dto : lockSuccessDtos) {
-                        String cacheKey = dtoKeyMap.get(dto);
-                        String json = stringRedisTemplate.opsForValue().get(cacheKey);
-                        Type redisDataType = buildRedisDataType(type);
-                        RedisData<D> redisData = deserializeJson(json, redisDataType);
-                        if (redisData == null || redisData.getExpireTime().isBefore(LocalDateTime.now())) {
-                            finalRebuildDtos.add(dto);
-                        }
-                    }
+        // 回源预算耗尽：放弃本次重建，继续返回旧数据
+        String sampleKey = rebuildItems.get(0).getKey();
+        if (!tryDbLoad(sampleKey)) {
+            return;
+        }
+        // 批量查询数据库（查库前记录版本号）
+        Map<String, String> versions = readVersions(rebuildItems.stream().map(Map.Entry::getKey).collect(Collectors.toList()));
+        Map<DTO, D> dbMap = metrics.timeRebuild(sampleKey, () -> batchDbFallback.apply(rebuildItems.stream()
+                .map(Map.Entry::getValue)
+                .distinct()
+                .collect(Collectors.toList())));
+        // 批量写入逻辑过期缓存（一次管道往返）
+        List<CacheEntry> entries = new ArrayList<>(rebuildItems.size());
+        for (Map.Entry<String, DTO> item : rebuildItems) {
+            D data = dbMap.get(item.getValue());
+            if (data != null) {
+                entries.add(CacheEntry.ofLogical(item.getKey(), data, time, timeUnit));
+            }
+        }
+        multiSet(entries, versions);
+    }
 
-                    // 批量查询数据库
-                    if (!CollectionUtil.isEmpty(finalRebuildDtos)) {
-                        Map<DTO, D> dbMap = batchDbFallback.apply(finalRebuildDtos);
-                        // 批量写入逻辑过期缓存
-                        for (DTO dto : finalRebuildDtos) {
-                            D data = dbMap.getOrDefault(dto, null);
-                            if (data != null) {
-                                String cacheKey = dtoKeyMap.get(dto);
-                                setWithLogicalExpire(cacheKey, data, time, timeUnit);
-                            }
-                        }
-                    }
-                } catch (Exception e) {
-                    throw new RuntimeException("批量重建过期缓存异常", e);
-                } finally {
-                    // 释放所有锁 + 取消续期任务
-                    for (DTO dto : lockSuccessDtos) {
-                        // 取消续期任务
-                        Future<?> renewalFuture = renewalFutureMap.get(dto);
-                        if (renewalFuture != null && !renewalFuture.isCancelled()) {
-                            renewalFuture.cancel(true);
-                        }
-                        // 释放锁
-                        String lockKey = dtoLockKeyMap.get(dto);
-                        String lockValue = dtoLockValueMap.get(dto);
-                        unlock(lockKey, lockValue);
-                    }
-                }
-            });
-        } catch (RejectedExecutionException e) {
-            // 线程池满：调用者线程同步重建（避免缓存重建失败）
-            for (DTO dto : lockSuccessDtos) {
-                try {
-                    String cacheKey = dtoKeyMap.get(dto);
-                    D data = batchDbFallback.apply(Collections.singletonList(dto)).get(dto);
-                    if (data != null) {
-                        setWithLogicalExpire(cacheKey, data, time, timeUnit);
-                    }
-                } finally {
-                    // 释放锁 + 取消续期
-                    Future<?> renewalFuture = renewalFutureMap.get(dto);
-                    if (renewalFuture != null && !renewalFuture.isCancelled()) {
-                        renewalFuture.cancel(true);
-                    }
-                    String lockKey = dtoLockKeyMap.get(dto);
-                    String lockValue = dtoLockValueMap.get(dto);
-                    unlock(lockKey, lockValue);
+    /**
+     * 辅助方法：查找已注册的批量加载器
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private <D, DTO> Function<List<DTO>, Map<DTO, D>> getBatchLoader(Class<D> type, DTO dto) {
+        return (Function) batchLoaders.get(loaderKey(type, dto.getClass()));
+    }
+
+    /**
+     * 辅助方法：重建合并分组（业务类型|DTO类型|过期时长），同组的Key用同一个批量加载器合并查库
+     */
+    private static <DTO> String rebuildGroup(Class<?> type, DTO dto, Long time, TimeUnit timeUnit) {
+        return loaderKey(type, dto.getClass()) + "|" + timeUnit.toMillis(time);
+    }
+
+    private static String loaderKey(Class<?> type, Class<?> dtoType) {
+        return type.getName() + "|" + dtoType.getName();
+    }
+
+    /**
+     * 提前刷新：领取到的即将过期Key按注册前缀分组，批量加锁后提交重建调度
+     */
+    private void refreshAhead(List<String> keys) {
+        Map<RefreshAheadRegistration<?, ?>, List<String>> groupedKeys = new HashMap<>();
+        List<String> untrackedKeys = new ArrayList<>();
+        for (String key : keys) {
+            RefreshAheadRegistration<?, ?> registration = matchRefreshRegistration(key);
+            if (registration == null) {
+                untrackedKeys.add(key);
+            } else {
+                groupedKeys.computeIfAbsent(registration, r -> new ArrayList<>()).add(key);
+            }
+        }
+        refreshAheadScheduler.untrack(untrackedKeys);
+        groupedKeys.forEach(this::refreshAheadGroup);
+    }
+
+    private <D, DTO> void refreshAheadGroup(RefreshAheadRegistration<D, DTO> registration, List<String> keys) {
+        Map<DTO, String> dtoKeyMap = new LinkedHashMap<>();
+        List<String> invalidKeys = new ArrayList<>();
+        for (String key : keys) {
+            try {
+                dtoKeyMap.put(registration.dtoParser.apply(key.substring(registration.keyPrefix.length())), key);
+            } catch (RuntimeException e) {
+                // 前缀相同但不是该业务的Key（如cache:shop:type），不再刷新
+                invalidKeys.add(key);
+            }
+        }
+        refreshAheadScheduler.untrack(invalidKeys);
+        if (dtoKeyMap.isEmpty()) {
+            return;
+        }
+
+        List<DTO> dtos = new ArrayList<>(dtoKeyMap.keySet());
+        Function<List<DTO>, Map<DTO, D>> batchLoader = getBatchLoader(registration.type, dtos.get(0));
+        if (batchLoader == null) {
+            // 租约到期后会被重新领取
+            log.warn("提前刷新未找到批量加载器，类型：{}", registration.type.getName());
+            return;
+        }
+
+        // 一次Lua调用批量加锁，获取失败的Key正由其他线程重建
+        Map<DTO, String> dtoLockKeyMap = new HashMap<>();
+        Map<DTO, String> dtoLockValueMap = new HashMap<>();
+        for (DTO dto : dtos) {
+            dtoLockKeyMap.put(dto, LOCK_PREFIX + dtoKeyMap.get(dto));
+            dtoLockValueMap.put(dto, UUID.randomUUID().toString());
+        }
+        for (DTO dto : tryLockBatch(dtos, dtoLockKeyMap, dtoLockValueMap)) {
+            String cacheKey = dtoKeyMap.get(dto);
+            String lockKey = dtoLockKeyMap.get(dto);
+            String lockValue = dtoLockValueMap.get(dto);
+            // 与请求触发的重建分开成组：提前刷新对尚未过期的Key也要重建
+            boolean accepted = rebuildScheduler.submit(
+                    rebuildGroup(registration.type, dto, registration.time, registration.timeUnit) + "|ahead",
+                    cacheKey,
+                    new AbstractMap.SimpleImmutableEntry<>(cacheKey, dto),
+                    hotKeyDetector.estimate(cacheKey),
+                    items -> refreshAheadBatch(items, registration.type, batchLoader, registration.time, registration.timeUnit),
+                    () -> unlock(lockKey, lockValue)
+            );
+            if (!accepted) {
+                // 重建队列已满：租约到期后重新领取
+                metrics.recordRebuildRejected(cacheKey, CacheMetrics.REJECT_QUEUE_FULL);
+                unlock(lockKey, lockValue);
+            }
+        }
+    }
+
+    /**
+     * 辅助方法：提前刷新的合并重建（在重建调度线程中执行）
+     * 只刷新仍是逻辑过期数据且即将过期的Key；缓存已不存在、不再是逻辑过期数据或数据库已无数据的Key不再刷新
+     */
+    private <D, DTO> void refreshAheadBatch(
+            List<? extends Map.Entry<String, DTO>> items,
+            Class<D> type,
+            Function<List<DTO>, Map<DTO, D>> batchDbFallback,
+            Long time,
+            TimeUnit timeUnit
+    ) {
+        List<String> jsonList = multiGet(items.stream().map(Map.Entry::getKey).collect(Collectors.toList()));
+        Type redisDataType = buildRedisDataType(type);
+        LocalDateTime refreshBefore = LocalDateTime.now().plusNanos(
+                TimeUnit.MILLISECONDS.toNanos(refreshAheadScheduler.getLookaheadMillis()));
+        List<Map.Entry<String, DTO>> refreshItems = new ArrayList<>();
+        List<String> untrackedKeys = new ArrayList<>();
+        for (int i = 0; i < items.size(); i++) {
+            RedisData<D> redisData = deserializeRedisData(jsonList.get(i), redisDataType);
+            if (redisData == null || redisData.getData() == null || redisData.getExpireTime() == null) {
+                untrackedKeys.add(items.get(i).getKey());
+            } else if (redisData.getExpireTime().isBefore(refreshBefore)) {
+                refreshItems.add(items.get(i));
+            }
+            // 其余Key已被其他实例刷新，分数已更新为新的过期时间
+        }
+
+        // 回源预算耗尽时本轮不刷新，租约到期后重新领取
+        if (!refreshItems.isEmpty() && tryDbLoad(refreshItems.get(0).getKey())) {
+            Map<String, String> versions = readVersions(refreshItems.stream().map(Map.Entry::getKey).collect(Collectors.toList()));
+            Map<DTO, D> dbMap = metrics.timeRebuild(refreshItems.get(0).getKey(), () -> batchDbFallback.apply(refreshItems.stream()
+                    .map(Map.Entry::getValue)
+                    .distinct()
+                    .collect(Collectors.toList())));
+            List<CacheEntry> entries = new ArrayList<>(refreshItems.size());
+            for (Map.Entry<String, DTO> item : refreshItems) {
+                D data = dbMap.get(item.getValue());
+                if (data != null) {
+                    entries.add(CacheEntry.ofLogical(item.getKey(), data, time, timeUnit));
+                } else {
+                    untrackedKeys.add(item.getKey());
                 }
             }
+            // 写入时同时更新ZSET中的过期时间
+            multiSet(entries, versions);
+        }
+        refreshAheadScheduler.untrack(untrackedKeys);
+    }
+
+    private boolean isRefreshAheadKey(String key) {
+        return refreshAheadScheduler.isEnabled() && matchRefreshRegistration(key) != null;
+    }
+
+    /**
+     * 匹配最长的已注册提前刷新前缀
+     */
+    private RefreshAheadRegistration<?, ?> matchRefreshRegistration(String key) {
+        RefreshAheadRegistration<?, ?> matched = null;
+        for (RefreshAheadRegistration<?, ?> registration : refreshRegistrations.values()) {
+            if (key.startsWith(registration.keyPrefix)
+                    && (matched == null || registration.keyPrefix.length() > matched.keyPrefix.length())) {
+                matched = registration;
+            }
+        }
+        return matched;
+    }
+
+    private static long toEpochMilli(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    /**
+     * 提前刷新的注册信息
+     */
+    private static final class RefreshAheadRegistration<D, DTO> {
+        private final String keyPrefix;
+        private final Class<D> type;
+        private final Function<String, DTO> dtoParser;
+        private final Long time;
+        private final TimeUnit timeUnit;
+
+        private RefreshAheadRegistration(String keyPrefix, Class<D> type, Function<String, DTO> dtoParser,
+                                         Long time, TimeUnit timeUnit) {
+            this.keyPrefix = keyPrefix;
+            this.type = type;
+            this.dtoParser = dtoParser;
+            this.time = time;
+            this.timeUnit = timeUnit;
+        }
+    }
+
+    /**
+     * 批量写入的缓存条目：缓存对象（同时写入近端缓存，空值为""） + 物理过期时间（<=0表示不过期，用于逻辑过期数据）
+     */
+    private static class CacheEntry {
+        private final String key;
+        private final Object value;
+        private final long ttlMillis;
+
+        private CacheEntry(String key, Object value, long ttlMillis) {
+            this.key = key;
+            this.value = value;
+            this.ttlMillis = ttlMillis;
+        }
+
+        static CacheEntry of(String key, Object data, Long time, TimeUnit timeUnit) {
+            return new CacheEntry(key, data, timeUnit.toMillis(time));
+        }
+
+        static CacheEntry ofNull(String key) {
+            return new CacheEntry(key, "", TimeUnit.MINUTES.toMillis(CACHE_NULL_TTL));
+        }
+
+        static <T> CacheEntry ofLogical(String key, T data, Long time, TimeUnit timeUnit) {
+            RedisData<T> redisData = new RedisData<>();
+            redisData.setData(data);
+            redisData.setExpireTime(LocalDateTime.now().plusSeconds(timeUnit.toSeconds(time)));
+            return new CacheEntry(key, redisData, 0L);
         }
     }
 }
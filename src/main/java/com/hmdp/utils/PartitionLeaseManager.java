@@ -0,0 +1,155 @@
+package com.hmdp.utils;
+
+import com.hmdp.config.SeckillOrderProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 订单Stream分区租约：每个分区同一时刻只由集群内一个消费者消费，保证同一优惠券的订单按顺序处理
+ * 1. 租约：SET seckill:order:partition:{p} 消费者名 NX PX，持有者定期续期；消费者宕机后租约过期，由其他消费者接管
+ * 2. 均衡：消费者定期在ZSET中登记心跳，每个消费者最多持有 ceil(分区数 / 存活消费者数) 个分区，
+ *    新节点加入后，已有消费者在下一次均衡时释放多出的分区
+ */
+@Slf4j
+@Component
+public class PartitionLeaseManager {
+
+    @SuppressWarnings("rawtypes")
+    private static final DefaultRedisScript<List> RENEW_SCRIPT;
+    private static final DefaultRedisScript<Long> RELEASE_SCRIPT;
+
+    static {
+        RENEW_SCRIPT = new DefaultRedisScript<>();
+        RENEW_SCRIPT.setLocation(new ClassPathResource("lua/batch_renew.lua"));
+        RENEW_SCRIPT.setResultType(List.class);
+        RELEASE_SCRIPT = new DefaultRedisScript<>();
+        RELEASE_SCRIPT.setLocation(new ClassPathResource("lua/unlock.lua"));
+        RELEASE_SCRIPT.setResultType(Long.class);
+    }
+
+    private static final String LEASE_KEY_PREFIX = "seckill:order:partition:";
+    private static final String WORKERS_KEY = "seckill:order:workers";
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+    @Autowired
+    private SeckillOrderProperties seckillOrderProperties;
+
+    /**
+     * 登记心跳，并计算每个消费者应持有的分区数
+     */
+    public int quota(String consumer) {
+        long now = System.currentTimeMillis();
+        long leaseMillis = seckillOrderProperties.getLeaseMillis();
+        stringRedisTemplate.opsForZSet().add(WORKERS_KEY, consumer, now);
+        // 清理租约期内没有心跳的消费者
+        stringRedisTemplate.opsForZSet().removeRangeByScore(WORKERS_KEY, 0, now - leaseMillis);
+        Long live = stringRedisTemplate.opsForZSet().zCard(WORKERS_KEY);
+        int workers = live == null || live < 1 ? 1 : live.intValue();
+        int partitions = seckillOrderProperties.getPartitions();
+        return (partitions + workers - 1) / workers;
+    }
+
+    /**
+     * 续期已持有的分区
+     * @return 已丢失的分区（租约过期后被他人领取）
+     */
+    @SuppressWarnings("unchecked")
+    public List<Integer> renew(String consumer, List<Integer> partitions) {
+        if (partitions.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<String> keys = new ArrayList<>(partitions.size());
+        List<String> args = new ArrayList<>(partitions.size() + 1);
+        args.add(String.valueOf(seckillOrderProperties.getLeaseMillis()));
+        for (Integer partition : partitions) {
+            keys.add(LEASE_KEY_PREFIX + partition);
+            args.add(consumer);
+        }
+        List<?> results;
+        if (RedisClusterSupport.isCluster(stringRedisTemplate)) {
+            // Redis Cluster：各分区的租约Key在不同槽位，管道中逐Key续期，每个结果为单元素数组
+            results = RedisClusterSupport.evalPerKey(stringRedisTemplate, RENEW_SCRIPT, ReturnType.MULTI,
+                    keys, i -> new String[]{args.get(0), args.get(i + 1)});
+        } else {
+            results = stringRedisTemplate.execute(RENEW_SCRIPT, keys, args.toArray());
+        }
+        List<Integer> lost = new ArrayList<>();
+        for (int i = 0; i < partitions.size(); i++) {
+            if (results == null || !isRenewed(results.get(i))) {
+                lost.add(partitions.get(i));
+            }
+        }
+        if (!lost.isEmpty()) {
+            log.warn("订单分区租约已丢失，consumer: {}，分区：{}", consumer, lost);
+        }
+        return lost;
+    }
+
+    private static boolean isRenewed(Object result) {
+        if (result instanceof List) {
+            List<?> values = (List<?>) result;
+            return !values.isEmpty() && Long.valueOf(1L).equals(values.get(0));
+        }
+        return Long.valueOf(1L).equals(result);
+    }
+
+    /**
+     * 领取空闲分区（从随机位置开始，避免所有消费者争抢同一个分区）
+     * @param count 最多领取的分区数
+     * @param owned 已持有的分区
+     * @return 新领取的分区
+     */
+    public List<Integer> claim(String consumer, int count, Collection<Integer> owned) {
+        int partitions = seckillOrderProperties.getPartitions();
+        List<String> keys = new ArrayList<>(partitions);
+        for (int p = 0; p < partitions; p++) {
+            keys.add(LEASE_KEY_PREFIX + p);
+        }
+        // 先一次MGET找出空闲分区，只对空闲分区SET NX
+        List<String> holders = stringRedisTemplate.opsForValue().multiGet(keys);
+        List<Integer> claimed = new ArrayList<>();
+        int offset = ThreadLocalRandom.current().nextInt(partitions);
+        for (int i = 0; i < partitions && claimed.size() < count; i++) {
+            int p = (offset + i) % partitions;
+            if (owned.contains(p) || (holders != null && holders.get(p) != null)) {
+                continue;
+            }
+            Boolean success = stringRedisTemplate.opsForValue().setIfAbsent(
+                    keys.get(p), consumer, seckillOrderProperties.getLeaseMillis(), TimeUnit.MILLISECONDS);
+            if (Boolean.TRUE.equals(success)) {
+                claimed.add(p);
+            }
+        }
+        if (!claimed.isEmpty()) {
+            log.info("领取订单分区，consumer: {}，分区：{}", consumer, claimed);
+        }
+        return claimed;
+    }
+
+    /**
+     * 释放分区（只释放自己持有的租约）
+     */
+    public void release(String consumer, Integer partition) {
+        stringRedisTemplate.execute(RELEASE_SCRIPT, Collections.singletonList(LEASE_KEY_PREFIX + partition), consumer);
+    }
+
+    /**
+     * 消费者下线：移除心跳，其他消费者在下一次均衡时即可多领取分区
+     */
+    public void leave(String consumer) {
+        stringRedisTemplate.opsForZSet().remove(WORKERS_KEY, consumer);
+    }
+}
@@ -0,0 +1,53 @@
+package com.hmdp.utils;
+
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.List;
+import java.util.function.IntFunction;
+
+/**
+ * Redis Cluster 兼容：一次Lua调用的全部Key必须在同一槽位，否则报 CROSSSLOT
+ * 批量加锁、续期、释放这类"每个Key独立处理"的脚本，集群模式下改为每次EVAL只带一个Key，在一个管道中发送
+ */
+public final class RedisClusterSupport {
+
+    private RedisClusterSupport() {}
+
+    /**
+     * 是否连接的是Redis Cluster
+     */
+    public static boolean isCluster(StringRedisTemplate stringRedisTemplate) {
+        RedisConnectionFactory connectionFactory = stringRedisTemplate.getConnectionFactory();
+        return connectionFactory instanceof LettuceConnectionFactory
+                && ((LettuceConnectionFactory) connectionFactory).isClusterAware();
+    }
+
+    /**
+     * 逐Key执行多Key脚本：脚本对每个Key的处理互不依赖，拆成单Key调用后语义不变（只是不再整体原子）
+     * 管道中用EVAL发送脚本原文，避免NOSCRIPT无法在管道内重试
+     * @param keys 脚本的KEYS
+     * @param argsOf 第i个Key单独调用时的ARGV
+     * @return 与keys一一对应的脚本返回值
+     */
+    public static List<Object> evalPerKey(StringRedisTemplate stringRedisTemplate, RedisScript<?> script,
+                                          ReturnType returnType, List<String> keys, IntFunction<String[]> argsOf) {
+        String source = script.getScriptAsString();
+        return stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection stringConnection = (StringRedisConnection) connection;
+            for (int i = 0; i < keys.size(); i++) {
+                String[] args = argsOf.apply(i);
+                String[] keysAndArgs = new String[args.length + 1];
+                keysAndArgs[0] = keys.get(i);
+                System.arraycopy(args, 0, keysAndArgs, 1, args.length);
+                stringConnection.eval(source, returnType, 1, keysAndArgs);
+            }
+            return null;
+        });
+    }
+}
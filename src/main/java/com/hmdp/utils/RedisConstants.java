@@ -13,10 +13,15 @@ public final class RedisConstants {
 
     public static final Long CACHE_SHOP_TTL = 30L;
     public static final String CACHE_SHOP_KEY = "cache:shop:";
+    // 热点店铺：逻辑过期方式预先写入，与互斥锁方式读写的 cache:shop: 分开（两者的缓存值格式不同）
+    public static final String CACHE_HOT_SHOP_KEY = "cache:hot-shop:";
 
     public static final Long CACHE_SHOP_TYPE_TTL = 30L;
     public static final String CACHE_SHOP_TYPE_KEY = "cache:shop:type";
 
+    public static final String BLOOM_SHOP_KEY = "bloom:shop";
+    public static final String BLOOM_BLOG_KEY = "bloom:blog";
+
     public static final String LOCK_PREFIX = "lock:";
     public static final Long LOCK_TTL = 10L;
 
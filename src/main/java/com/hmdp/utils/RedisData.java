@@ -14,4 +14,5 @@ public class RedisData<T> {
     private LocalDateTime expireTime; // 逻辑过期时间
     // private Object data;
     private T data; // 泛型业务数据（替代原 Object 类型）
+    private Long delta; // 上次重建耗时（毫秒），提前刷新策略按此加权，其他策略不写入
 }
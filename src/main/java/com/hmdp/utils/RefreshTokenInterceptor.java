@@ -6,7 +6,7 @@ import com.hmdp.dto.UserDTO;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Component;
-import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
@@ -20,12 +20,14 @@ import static com.hmdp.utils.RedisConstants.LOGIN_USER_TTL;
  * 只做 token 续期 / 解析，不拦截请求
  */
 @Component
-public class RefreshTokenInterceptor implements HandlerInterceptor {
+public class RefreshTokenInterceptor implements AsyncHandlerInterceptor {
 
     @Autowired
     private StringRedisTemplate stringRedisTemplate;
 
     public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+        // 0.清理线程上残留的用户（异步请求等情况下上一次请求可能没有走到afterCompletion）
+        UserHolder.removeUser();
         // 1.获取token
         String token = request.getHeader("authorization");
         if (StrUtil.isBlank(token)) {
@@ -51,4 +53,11 @@ public class RefreshTokenInterceptor implements HandlerInterceptor {
     public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) throws Exception {
         UserHolder.removeUser();
     }
+
+    /**
+     * 异步请求（如返回CompletableFuture）在请求线程上不会调用afterCompletion，需要在这里清理ThreadLocal
+     */
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+        UserHolder.removeUser();
+    }
 }
@@ -0,0 +1,105 @@
+package com.hmdp.utils;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.hmdp.config.SeckillOrderProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 秒杀券本地售罄标记：seckill.lua返回库存不足后在本地标记，并通过Redis发布订阅通知其他实例，
+ * 之后该券的秒杀请求在生成订单ID、执行Lua之前直接拒绝，不再访问Redis
+ * 1. 标记带过期时间：补货通知丢失、或通知与迟到的售罄结果乱序时，最多在过期时间内误拒
+ * 2. 补货后调用 reset 清除全部实例的标记
+ */
+@Slf4j
+@Component
+public class SeckillSoldOutRegistry implements MessageListener {
+
+    private static final String CHANNEL = "seckill:soldout";
+    // 通知格式：操作:优惠券ID
+    private static final String SOLD_OUT = "soldOut";
+    private static final String RESET = "reset";
+    private static final String SEPARATOR = ":";
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+    @Autowired
+    private RedisMessageListenerContainer redisMessageListenerContainer;
+    @Autowired
+    private SeckillOrderProperties seckillOrderProperties;
+
+    private Cache<Long, Boolean> soldOut;
+
+    @PostConstruct
+    public void init() {
+        soldOut = Caffeine.newBuilder()
+                .expireAfterWrite(seckillOrderProperties.getSoldOutTtlSeconds(), TimeUnit.SECONDS)
+                .build();
+        redisMessageListenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+    }
+
+    public boolean isSoldOut(Long voucherId) {
+        return soldOut.getIfPresent(voucherId) != null;
+    }
+
+    /**
+     * 标记售罄（本实例首次标记时通知其他实例）
+     */
+    public void markSoldOut(Long voucherId) {
+        if (soldOut.asMap().putIfAbsent(voucherId, Boolean.TRUE) == null) {
+            publish(SOLD_OUT, voucherId);
+        }
+    }
+
+    /**
+     * 补货后清除售罄标记（全部实例）
+     */
+    public void reset(Long voucherId) {
+        soldOut.invalidate(voucherId);
+        publish(RESET, voucherId);
+    }
+
+    /**
+     * 接收其他实例的售罄/补货通知
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int index = body.indexOf(SEPARATOR);
+        if (index < 0) {
+            return;
+        }
+        Long voucherId;
+        try {
+            voucherId = Long.valueOf(body.substring(index + 1));
+        } catch (NumberFormatException e) {
+            log.warn("无法解析售罄通知：{}", body);
+            return;
+        }
+        if (SOLD_OUT.equals(body.substring(0, index))) {
+            soldOut.put(voucherId, Boolean.TRUE);
+        } else if (RESET.equals(body.substring(0, index))) {
+            soldOut.invalidate(voucherId);
+        }
+    }
+
+    private void publish(String action, Long voucherId) {
+        try {
+            stringRedisTemplate.convertAndSend(CHANNEL, action + SEPARATOR + voucherId);
+        } catch (Exception e) {
+            // 通知失败只是其他实例晚一些发现售罄（仍由Lua判定），不影响主流程
+            log.warn("发布秒杀券售罄通知失败，voucherId: {}", voucherId, e);
+        }
+    }
+}
@@ -0,0 +1,7 @@
+-- ----------------------------
+-- 已有库升级：tb_voucher_order 增加唯一索引 (user_id, voucher_id)，由数据库约束保证一人一单
+-- 执行前先确认没有重复订单，有重复数据时 ALTER 会失败：
+-- SELECT user_id, voucher_id, COUNT(*) FROM tb_voucher_order GROUP BY user_id, voucher_id HAVING COUNT(*) > 1;
+-- ----------------------------
+ALTER TABLE `tb_voucher_order`
+  ADD UNIQUE INDEX `uk_user_voucher`(`user_id`, `voucher_id`) USING BTREE;
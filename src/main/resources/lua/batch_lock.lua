@@ -0,0 +1,11 @@
+-- 批量获取缓存重建锁：逐个 SET NX PX，拿到多少返回多少
+-- KEYS：锁Key
+-- ARGV[1]：锁的过期时间（毫秒）；ARGV[2..]：与KEYS一一对应的锁标识
+-- 返回：成功获取的锁在KEYS中的下标（从1开始）
+local acquired = {}
+for i = 1, #KEYS do
+    if redis.call('SET', KEYS[i], ARGV[i + 1], 'NX', 'PX', ARGV[1]) then
+        acquired[#acquired + 1] = i
+    end
+end
+return acquired
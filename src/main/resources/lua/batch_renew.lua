@@ -0,0 +1,14 @@
+-- 批量续期缓存重建锁：只续期仍由自己持有的锁
+-- KEYS：锁Key
+-- ARGV[1]：续期后的过期时间（毫秒）；ARGV[2..]：与KEYS一一对应的锁标识
+-- 返回：与KEYS一一对应的数组，1表示续期成功，0表示锁已释放或被他人持有
+local result = {}
+for i = 1, #KEYS do
+    if redis.call('GET', KEYS[i]) == ARGV[i + 1] then
+        redis.call('PEXPIRE', KEYS[i], ARGV[1])
+        result[i] = 1
+    else
+        result[i] = 0
+    end
+end
+return result
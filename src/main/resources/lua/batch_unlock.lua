@@ -0,0 +1,11 @@
+-- 批量释放缓存重建锁：只删除仍由自己持有的锁
+-- KEYS：锁Key
+-- ARGV：与KEYS一一对应的锁标识
+-- 返回：实际释放的锁数量
+local released = 0
+for i = 1, #KEYS do
+    if redis.call('GET', KEYS[i]) == ARGV[i] then
+        released = released + redis.call('DEL', KEYS[i])
+    end
+end
+return released
@@ -0,0 +1,7 @@
+-- 布隆过滤器：写入元素
+-- KEYS[1]：位图Key
+-- ARGV：需要置1的位偏移（一个或多个元素的全部哈希位）
+for i = 1, #ARGV do
+    redis.call('SETBIT', KEYS[1], ARGV[i], 1)
+end
+return #ARGV
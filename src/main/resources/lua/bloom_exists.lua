@@ -0,0 +1,18 @@
+-- 布隆过滤器：批量判断元素是否可能存在
+-- KEYS[1]：位图Key
+-- ARGV[1]：哈希函数个数k；ARGV[2..]：每个元素依次占k个位偏移
+-- 返回：与元素一一对应的数组，1表示可能存在，0表示一定不存在
+local k = tonumber(ARGV[1])
+local n = (#ARGV - 1) / k
+local result = {}
+for i = 0, n - 1 do
+    local exists = 1
+    for j = 1, k do
+        if redis.call('GETBIT', KEYS[1], ARGV[1 + i * k + j]) == 0 then
+            exists = 0
+            break
+        end
+    end
+    result[i + 1] = exists
+end
+return result
@@ -0,0 +1,10 @@
+-- 布隆过滤器守卫的缓存查询：一次往返完成存在性判定和GET
+-- KEYS[1]：位图Key；KEYS[2]：缓存Key
+-- ARGV：元素的全部哈希位偏移
+-- 返回：{0} 一定不存在（不读缓存）；{1, 缓存值} 可能存在（缓存值为nil表示未命中）
+for i = 1, #ARGV do
+    if redis.call('GETBIT', KEYS[1], ARGV[i]) == 0 then
+        return {0}
+    end
+end
+return {1, redis.call('GET', KEYS[2])}
@@ -0,0 +1,9 @@
+-- 领取即将逻辑过期的Key：取出到期阈值之前的成员，并把分数推迟到租约到期时间，避免多个实例重复刷新
+-- KEYS[1]：提前刷新ZSET（成员为缓存Key，分数为逻辑过期时间戳）
+-- ARGV[1]：到期阈值（毫秒时间戳）；ARGV[2]：单次领取数量；ARGV[3]：租约到期时间（毫秒时间戳）
+-- 返回：领取到的缓存Key
+local keys = redis.call('ZRANGEBYSCORE', KEYS[1], '-inf', ARGV[1], 'LIMIT', 0, ARGV[2])
+for i = 1, #keys do
+    redis.call('ZADD', KEYS[1], ARGV[3], keys[i])
+end
+return keys
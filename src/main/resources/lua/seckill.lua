@@ -11,6 +11,8 @@ local voucherId = ARGV[1]
 local userId = ARGV[2]
 -- 1.3.订单id
 local orderId = ARGV[3]
+-- 1.4.订单Stream分区数
+local partitions = tonumber(ARGV[4])
 
 
 -- 2.数据key
@@ -18,8 +20,8 @@ local orderId = ARGV[3]
 local stockKey = 'seckill:stock:' .. voucherId
 -- 2.2.订单key
 local orderKey = 'seckill:order:' .. voucherId
--- 2.3.Stream消息队列key
-local streamKey = 'streams:order'
+-- 2.3.Stream消息队列key：按优惠券ID分区，同一优惠券的订单在同一分区中有序
+local streamKey = 'streams:order:' .. (tonumber(voucherId) % partitions)
 
 -- 3.资格判断
 -- 3.1.判断库存是否充足
@@ -42,7 +44,7 @@ redis.call('sadd', orderKey, userId) -- 记录用户已下单
 -- 写入Stream：自动生成消息ID，携带voucherId/userId/orderId，同时限制Stream长度（避免内存溢出）
 -- XADD key * k1 v1 k2 v2
 redis.call('XADD',
-        streamKey,                -- Stream的key：streams:order
+        streamKey,                -- Stream的key：streams:order:{分区}
         'MAXLEN', '~', 100000,    -- 可选：保留最新10万条消息（近似匹配，高性能）
         'LIMIT', 1000,            -- 可选：单次清理最多删1000条旧消息（避免阻塞Redis）
         '*',                      -- 自动生成消息ID（时间戳-序列号）
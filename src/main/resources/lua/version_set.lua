@@ -0,0 +1,21 @@
+-- 带版本校验的缓存写入：版本号与读取数据前一致才写入，拒绝基于旧数据的重建覆盖新数据
+-- KEYS[1]：版本Key（以缓存Key为hash tag，与缓存Key同槽位）；KEYS[2]：缓存Key
+-- ARGV[1]：读取数据前的版本号（""表示当时没有版本号）；ARGV[2]：缓存值；ARGV[3]：过期时间（毫秒，<=0表示不过期，用于逻辑过期数据）
+-- ARGV[4]：可选，'NX'表示缓存Key已存在时不覆盖（预热写入）
+-- 返回：1写入成功，0版本已变化或Key已存在
+local current = redis.call('GET', KEYS[1]) or ''
+if current ~= ARGV[1] then
+    return 0
+end
+local args = {'SET', KEYS[2], ARGV[2]}
+if tonumber(ARGV[3]) > 0 then
+    table.insert(args, 'PX')
+    table.insert(args, ARGV[3])
+end
+if ARGV[4] == 'NX' then
+    table.insert(args, 'NX')
+end
+if redis.call(unpack(args)) then
+    return 1
+end
+return 0
@@ -1,6 +1,7 @@
 package com.hmdp;
 
 import com.hmdp.dto.ShopQueryTestDTO;
+import com.hmdp.cache.near.NearCache;
 import com.hmdp.entity.Shop;
 import com.hmdp.mapper.ShopMapper;
 import com.hmdp.service.IShopService;
@@ -24,10 +25,14 @@ import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import static com.hmdp.utils.RedisConstants.CACHE_SHOP_KEY;
 import static com.hmdp.utils.RedisConstants.SHOP_GEO_KEY;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 
 @SpringBootTest
 @Slf4j
@@ -38,6 +43,8 @@ class HmDianPingApplicationTests {
     @Autowired
     private CacheClient cacheClient;
     @Autowired
+    private NearCache nearCache;
+    @Autowired
     private ShopMapper shopMapper;
     @Autowired
     private RedisIdWorker redisIdWorker;
@@ -110,6 +117,57 @@ class HmDianPingApplicationTests {
                 });
     }
 
+    /**
+     * 批量查询延迟：100个店铺，冷缓存（MGET + 查库 + 管道写入）与热缓存（仅MGET）各测一次
+     * 两次测量前都清空近端缓存，热缓存的耗时是Redis MGET而不是本地读取
+     */
+    @Test
+    void testBatchQueryLatency() {
+        List<Long> ids = new ArrayList<>();
+        for (long i = 1; i <= 100; i++) {
+            ids.add(i);
+        }
+        Map<Long, Shop> expected = shopMapper.selectBatchIds(ids).stream()
+                .collect(Collectors.toMap(Shop::getId, shop -> shop));
+        Function<List<Long>, Map<Long, Shop>> batchDbFallback = missIds -> shopMapper.selectBatchIds(missIds).stream()
+                .collect(Collectors.toMap(Shop::getId, shop -> shop));
+        // 删除Redis缓存（含副本）及近端缓存
+        ids.forEach(id -> cacheClient.delete(CACHE_SHOP_KEY + id));
+
+        long begin = System.nanoTime();
+        Map<Long, Shop> coldResult = cacheClient.batchQueryWithMutex(
+                id -> CACHE_SHOP_KEY + id, ids, Shop.class, batchDbFallback, 30L, TimeUnit.MINUTES);
+        long cold = System.nanoTime() - begin;
+        assertBatchResult(ids, expected, coldResult);
+
+        // 冷查询已写入近端缓存，清空后热查询只命中Redis
+        ids.forEach(id -> nearCache.evict(CACHE_SHOP_KEY + id));
+        begin = System.nanoTime();
+        Map<Long, Shop> warmResult = cacheClient.batchQueryWithMutex(
+                id -> CACHE_SHOP_KEY + id, ids, Shop.class, batchDbFallback, 30L, TimeUnit.MINUTES);
+        long warm = System.nanoTime() - begin;
+        assertBatchResult(ids, expected, warmResult);
+        log.info("批量查询100个店铺，冷缓存耗时：{}ms，热缓存耗时：{}ms", cold / 1_000_000.0, warm / 1_000_000.0);
+    }
+
+    /**
+     * 批量结果包含全部入参（按入参顺序），数据库中存在的店铺与数据库一致，不存在的为null
+     */
+    private void assertBatchResult(List<Long> ids, Map<Long, Shop> expected, Map<Long, Shop> result) {
+        assertEquals(ids, new ArrayList<>(result.keySet()));
+        for (Long id : ids) {
+            Shop expectedShop = expected.get(id);
+            Shop shop = result.get(id);
+            if (expectedShop == null) {
+                assertNull(shop, "店铺不存在时应返回null，id: " + id);
+            } else {
+                assertNotNull(shop, "店铺缺失，id: " + id);
+                assertEquals(expectedShop.getId(), shop.getId());
+                assertEquals(expectedShop.getName(), shop.getName());
+            }
+        }
+    }
+
     @Test
     void testIdWorker() throws InterruptedException {
         CountDownLatch latch = new CountDownLatch(300);
@@ -0,0 +1,149 @@
+package com.hmdp.cache.codec;
+
+import cn.hutool.core.lang.TypeReference;
+import com.hmdp.dto.UserDTO;
+import com.hmdp.entity.Blog;
+import com.hmdp.entity.Shop;
+import com.hmdp.entity.Voucher;
+import com.hmdp.utils.RedisData;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Type;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinaryCacheCodecTest {
+
+    private final BinaryCacheCodec codec = new BinaryCacheCodec(
+            Arrays.asList(Shop.class, Blog.class, Voucher.class, UserDTO.class));
+
+    @Test
+    void testShopRoundTrip() {
+        Shop shop = new Shop()
+                .setId(Long.MAX_VALUE)
+                .setName("103茶餐厅")
+                .setTypeId(1L)
+                .setArea("大关")
+                .setAddress("金华路锦昌文华苑29号")
+                .setX(-120.149192)
+                .setY(30.316078)
+                .setAvgPrice(-80L)
+                .setSold(Integer.MIN_VALUE)
+                .setComments(0)
+                .setScore(37)
+                .setCreateTime(LocalDateTime.of(2021, 12, 22, 18, 10, 39, 123456789))
+                .setUpdateTime(LocalDateTime.of(1969, 12, 31, 23, 59, 59, 1));
+        // images、openHours、distance为null
+
+        String encoded = codec.encode(shop);
+        assertTrue(codec.canDecode(encoded));
+        Shop decoded = codec.decode(encoded, Shop.class);
+        assertEquals(shop, decoded);
+        assertNull(decoded.getImages());
+        assertNull(decoded.getDistance());
+        assertEquals(123456789, decoded.getCreateTime().getNano());
+    }
+
+    @Test
+    void testBlogRoundTrip() {
+        Blog blog = new Blog()
+                .setId(23L)
+                .setShopId(-1L)
+                .setUserId(1010L)
+                .setIsLike(false)
+                .setTitle("无尽浪漫的夜晚丨在万花丛中摇晃着红酒杯🍷")
+                .setContent("")
+                .setLiked(Integer.MAX_VALUE)
+                .setComments(-104)
+                .setCreateTime(LocalDateTime.of(2022, 1, 11, 16, 5, 47));
+
+        Blog decoded = codec.decode(codec.encode(blog), Blog.class);
+        assertEquals(blog, decoded);
+        assertEquals("", decoded.getContent());
+        assertNull(decoded.getIcon());
+    }
+
+    @Test
+    void testVoucherRoundTrip() {
+        Voucher voucher = new Voucher()
+                .setId(1L)
+                .setShopId(1L)
+                .setTitle("50元代金券")
+                .setPayValue(4750L)
+                .setActualValue(Long.MIN_VALUE)
+                .setType(0)
+                .setStatus(1)
+                .setStock(-3)
+                .setBeginTime(LocalDateTime.of(2022, 1, 26, 10, 9, 17, 999999999))
+                .setEndTime(LocalDateTime.of(2022, 1, 26, 23, 9, 4));
+
+        assertEquals(voucher, codec.decode(codec.encode(voucher), Voucher.class));
+    }
+
+    @Test
+    void testUserDtoRoundTrip() {
+        UserDTO user = new UserDTO();
+        user.setId(1L);
+        user.setNickName("小鱼同学");
+
+        UserDTO decoded = codec.decode(codec.encode(user), UserDTO.class);
+        assertEquals(user, decoded);
+        assertNull(decoded.getIcon());
+    }
+
+    @Test
+    void testAllFieldsNull() {
+        Shop decoded = codec.decode(codec.encode(new Shop()), Shop.class);
+        assertEquals(new Shop(), decoded);
+    }
+
+    @Test
+    void testRedisDataRoundTrip() {
+        Shop shop = new Shop().setId(1L).setName("103茶餐厅").setScore(-1);
+        RedisData<Shop> redisData = new RedisData<>();
+        redisData.setData(shop);
+        redisData.setExpireTime(LocalDateTime.of(2026, 10, 17, 12, 0, 0, 500));
+        // delta为null
+        assertTrue(codec.supports(redisData));
+
+        Type type = new TypeReference<RedisData<Shop>>() {}.getType();
+        RedisData<Shop> decoded = codec.decode(codec.encode(redisData), type);
+        assertEquals(shop, decoded.getData());
+        assertEquals(redisData.getExpireTime(), decoded.getExpireTime());
+        assertNull(decoded.getDelta());
+    }
+
+    @Test
+    void testSupports() {
+        assertTrue(codec.supports(new Shop()));
+        assertFalse(codec.supports("cache"));
+        assertFalse(codec.supports(null));
+        // RedisData中的业务数据为空或不是已注册的类型
+        assertFalse(codec.supports(new RedisData<>()));
+        RedisData<String> redisData = new RedisData<>();
+        redisData.setData("cache");
+        assertFalse(codec.supports(redisData));
+    }
+
+    @Test
+    void testCanDecode() {
+        assertFalse(codec.canDecode(""));
+        assertFalse(codec.canDecode("{\"id\":1}"));
+    }
+
+    @Test
+    void testFingerprintMismatch() {
+        // 类结构不一致（这里用另一个类模拟字段变化）时解码失败，由CacheClient按损坏缓存处理
+        String encoded = codec.encode(new Shop().setId(1L));
+        assertThrows(IllegalStateException.class, () -> codec.decode(encoded, Blog.class));
+    }
+
+    @Test
+    void testTruncatedData() {
+        String encoded = codec.encode(new Shop().setId(1L).setName("103茶餐厅"));
+        String truncated = encoded.substring(0, encoded.length() - 8);
+        assertThrows(RuntimeException.class, () -> codec.decode(truncated, Shop.class));
+    }
+}
@@ -0,0 +1,79 @@
+package com.hmdp.cache.codec;
+
+import cn.hutool.core.util.StrUtil;
+import com.hmdp.cache.config.CacheClientProperties;
+import com.hmdp.cache.metrics.CacheMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CacheCompressorTest {
+
+    private static final String LARGE_TEXT = StrUtil.repeat("{\"name\":\"103茶餐厅\",\"area\":\"大关\",\"score\":37},", 100);
+
+    private CacheCompressor compressor(boolean enabled) {
+        CacheClientProperties.Compression config = new CacheClientProperties.Compression();
+        config.setEnabled(enabled);
+        config.setThresholdBytes(1024);
+        config.getPrefixThresholds().put("cache:blog:", 64);
+        config.getPrefixThresholds().put("cache:blog:hot:", 100000);
+        return new CacheCompressor(config,
+                new CacheMetrics(new CacheClientProperties.Metrics(), new SimpleMeterRegistry()));
+    }
+
+    @Test
+    void testDisabled() {
+        assertSame(LARGE_TEXT, compressor(false).compress("cache:shop:1", LARGE_TEXT));
+    }
+
+    @Test
+    void testRoundTrip() {
+        CacheCompressor compressor = compressor(true);
+        String compressed = compressor.compress("cache:shop:1", LARGE_TEXT);
+        assertTrue(compressor.isCompressed(compressed));
+        assertTrue(compressed.length() < LARGE_TEXT.length());
+        assertEquals(LARGE_TEXT, compressor.decompress(compressed));
+        // 同一线程复用Deflater/Inflater，再次压缩结果一致
+        assertEquals(compressed, compressor.compress("cache:shop:1", LARGE_TEXT));
+    }
+
+    @Test
+    void testBelowThreshold() {
+        CacheCompressor compressor = compressor(true);
+        String text = StrUtil.repeat("a", 500);
+        assertSame(text, compressor.compress("cache:shop:1", text));
+        assertSame("", compressor.compress("cache:shop:1", ""));
+        assertFalse(compressor.isCompressed(text));
+        assertFalse(compressor.isCompressed(""));
+    }
+
+    @Test
+    void testPrefixThreshold() {
+        CacheCompressor compressor = compressor(true);
+        String text = StrUtil.repeat("a", 500);
+        // cache:blog: 的阈值为64字节
+        assertTrue(compressor.isCompressed(compressor.compress("cache:blog:1", text)));
+        // 最长前缀优先：cache:blog:hot: 的阈值更高
+        assertSame(LARGE_TEXT, compressor.compress("cache:blog:hot:1", LARGE_TEXT));
+    }
+
+    @Test
+    void testCorruptData() {
+        CacheCompressor compressor = compressor(true);
+        String corrupt = CacheCompressor.HEADER + Base64.getEncoder().encodeToString(new byte[]{-1, -1, -1, -1});
+        assertThrows(IllegalStateException.class, () -> compressor.decompress(corrupt));
+    }
+
+    @Test
+    void testTruncatedData() {
+        CacheCompressor compressor = compressor(true);
+        byte[] compressed = Base64.getDecoder().decode(compressor.compress("cache:shop:1", LARGE_TEXT).substring(1));
+        String truncated = CacheCompressor.HEADER
+                + Base64.getEncoder().encodeToString(Arrays.copyOf(compressed, compressed.length / 2));
+        assertThrows(IllegalStateException.class, () -> compressor.decompress(truncated));
+    }
+}
@@ -0,0 +1,105 @@
+package com.hmdp.cache.flight;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    private static final int THREADS = 8;
+
+    @Test
+    void testConcurrentCallsShareOneLoad() throws Exception {
+        SingleFlight singleFlight = new SingleFlight();
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService es = Executors.newFixedThreadPool(THREADS);
+        try {
+            // 领头线程加载期间，其余线程都成为跟随线程
+            Future<String> leader = es.submit(() -> singleFlight.execute("cache:shop:1", () -> {
+                loads.incrementAndGet();
+                loading.countDown();
+                await(release);
+                return "shop";
+            }));
+            assertTrue(loading.await(5, TimeUnit.SECONDS));
+            assertEquals(1, singleFlight.inFlightCount());
+
+            List<Future<String>> followers = new ArrayList<>();
+            for (int i = 1; i < THREADS; i++) {
+                followers.add(es.submit(() -> singleFlight.execute("cache:shop:1", () -> {
+                    loads.incrementAndGet();
+                    return "other";
+                })));
+            }
+            // 等跟随线程进入等待后再放行
+            Thread.sleep(200);
+            release.countDown();
+
+            assertEquals("shop", leader.get(5, TimeUnit.SECONDS));
+            for (Future<String> follower : followers) {
+                assertEquals("shop", follower.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, loads.get());
+            assertEquals(0, singleFlight.inFlightCount());
+        } finally {
+            es.shutdownNow();
+        }
+    }
+
+    @Test
+    void testFollowersShareException() throws Exception {
+        SingleFlight singleFlight = new SingleFlight();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService es = Executors.newFixedThreadPool(2);
+        try {
+            Future<Object> leader = es.submit(() -> singleFlight.execute("cache:shop:1", () -> {
+                loading.countDown();
+                await(release);
+                throw new IllegalStateException("数据库异常");
+            }));
+            assertTrue(loading.await(5, TimeUnit.SECONDS));
+            Future<Object> follower = es.submit(() -> singleFlight.execute("cache:shop:1", () -> "other"));
+            Thread.sleep(200);
+            release.countDown();
+
+            for (Future<Object> future : new Future[]{leader, follower}) {
+                Exception e = assertThrows(Exception.class, () -> future.get(5, TimeUnit.SECONDS));
+                assertTrue(e.getCause() instanceof IllegalStateException);
+                assertEquals("数据库异常", e.getCause().getMessage());
+            }
+            assertEquals(0, singleFlight.inFlightCount());
+        } finally {
+            es.shutdownNow();
+        }
+    }
+
+    @Test
+    void testResultNotCached() {
+        SingleFlight singleFlight = new SingleFlight();
+        AtomicInteger loads = new AtomicInteger();
+        assertEquals(1, (int) singleFlight.execute("cache:shop:1", loads::incrementAndGet));
+        // 加载结束后不缓存结果，再次调用重新加载
+        assertEquals(2, (int) singleFlight.execute("cache:shop:1", loads::incrementAndGet));
+        assertNull(singleFlight.execute("cache:shop:2", () -> null));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
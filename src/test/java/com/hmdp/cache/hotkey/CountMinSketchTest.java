@@ -0,0 +1,57 @@
+package com.hmdp.cache.hotkey;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CountMinSketchTest {
+
+    @Test
+    void testAddAndEstimate() {
+        CountMinSketch sketch = new CountMinSketch(4, 1024);
+        assertEquals(0, sketch.estimate("cache:shop:1"));
+        for (int i = 1; i <= 5; i++) {
+            assertEquals(i, sketch.add("cache:shop:1"));
+        }
+        assertEquals(5, sketch.estimate("cache:shop:1"));
+    }
+
+    @Test
+    void testNeverUnderestimate() {
+        // 列数很小，冲突很多：估计值只会偏大
+        CountMinSketch sketch = new CountMinSketch(2, 16);
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < 200; i++) {
+            String key = "cache:shop:" + i;
+            int count = i % 7 + 1;
+            counts.put(key, count);
+            for (int j = 0; j < count; j++) {
+                sketch.add(key);
+            }
+        }
+        counts.forEach((key, count) -> assertTrue(sketch.estimate(key) >= count, key));
+    }
+
+    @Test
+    void testDecay() {
+        CountMinSketch sketch = new CountMinSketch(4, 1024);
+        for (int i = 0; i < 9; i++) {
+            sketch.add("cache:shop:1");
+        }
+        sketch.decay();
+        assertEquals(4, sketch.estimate("cache:shop:1"));
+        sketch.decay();
+        sketch.decay();
+        sketch.decay();
+        assertEquals(0, sketch.estimate("cache:shop:1"));
+    }
+
+    @Test
+    void testInvalidSize() {
+        assertThrows(IllegalArgumentException.class, () -> new CountMinSketch(0, 16));
+        assertThrows(IllegalArgumentException.class, () -> new CountMinSketch(4, 0));
+    }
+}
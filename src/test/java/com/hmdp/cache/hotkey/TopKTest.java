@@ -0,0 +1,65 @@
+package com.hmdp.cache.hotkey;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TopKTest {
+
+    @Test
+    void testReplaceMinimum() {
+        TopK topK = new TopK(2);
+        topK.offer("a", 10);
+        topK.offer("b", 20);
+        // 不大于最小项的不入榜
+        topK.offer("c", 10);
+        assertFalse(topK.contains("c"));
+        // 大于最小项的替换最小项
+        topK.offer("d", 15);
+        assertTrue(topK.contains("d"));
+        assertFalse(topK.contains("a"));
+        assertTrue(topK.contains("b"));
+        assertEquals(0, topK.estimate("a"));
+    }
+
+    @Test
+    void testUpdateKeepsMaximum() {
+        TopK topK = new TopK(2);
+        topK.offer("a", 10);
+        topK.offer("a", 30);
+        topK.offer("a", 5);
+        assertEquals(30, topK.estimate("a"));
+    }
+
+    @Test
+    void testDecay() {
+        TopK topK = new TopK(3);
+        topK.offer("a", 9);
+        topK.offer("b", 1);
+        topK.decay();
+        assertEquals(4, topK.estimate("a"));
+        // 归零的移出榜单
+        assertFalse(topK.contains("b"));
+    }
+
+    @Test
+    void testSnapshotOrder() {
+        TopK topK = new TopK(3);
+        topK.offer("a", 5);
+        topK.offer("b", 50);
+        topK.offer("c", 20);
+        List<Map.Entry<String, Long>> snapshot = topK.snapshot();
+        assertEquals(3, snapshot.size());
+        assertEquals("b", snapshot.get(0).getKey());
+        assertEquals("c", snapshot.get(1).getKey());
+        assertEquals("a", snapshot.get(2).getKey());
+    }
+
+    @Test
+    void testInvalidCapacity() {
+        assertThrows(IllegalArgumentException.class, () -> new TopK(0));
+    }
+}
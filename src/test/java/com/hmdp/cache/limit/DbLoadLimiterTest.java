@@ -0,0 +1,63 @@
+package com.hmdp.cache.limit;
+
+import com.hmdp.cache.config.CacheClientProperties;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DbLoadLimiterTest {
+
+    private DbLoadLimiter limiter(boolean enabled, int permitsPerSecond, long maxWaitMillis) {
+        CacheClientProperties.DbLoad config = new CacheClientProperties.DbLoad();
+        config.setEnabled(enabled);
+        config.setPermitsPerSecond(permitsPerSecond);
+        config.setMaxWaitMillis(maxWaitMillis);
+        return new DbLoadLimiter(config);
+    }
+
+    @Test
+    void testDisabled() {
+        DbLoadLimiter limiter = limiter(false, 1, 0);
+        for (int i = 0; i < 100; i++) {
+            assertTrue(limiter.acquire());
+        }
+        assertEquals(0, limiter.getRejectedCount());
+    }
+
+    @Test
+    void testRejectWhenBudgetExhausted() {
+        DbLoadLimiter limiter = limiter(true, 10, 0);
+        // 初始积攒1秒的许可
+        for (int i = 0; i < 10; i++) {
+            assertTrue(limiter.acquire());
+        }
+        assertFalse(limiter.acquire());
+        assertFalse(limiter.acquire());
+        assertEquals(2, limiter.getRejectedCount());
+    }
+
+    @Test
+    void testWaitWithinMaxWait() {
+        DbLoadLimiter limiter = limiter(true, 10, 500);
+        for (int i = 0; i < 10; i++) {
+            assertTrue(limiter.acquire());
+        }
+        // 许可耗尽后预支下一个令牌，等待约100毫秒
+        long start = System.nanoTime();
+        assertTrue(limiter.acquire());
+        long waitedMillis = (System.nanoTime() - start) / 1_000_000;
+        assertTrue(waitedMillis >= 50, String.valueOf(waitedMillis));
+        assertEquals(0, limiter.getRejectedCount());
+    }
+
+    @Test
+    void testRefill() throws InterruptedException {
+        DbLoadLimiter limiter = limiter(true, 10, 0);
+        for (int i = 0; i < 10; i++) {
+            assertTrue(limiter.acquire());
+        }
+        assertFalse(limiter.acquire());
+        Thread.sleep(250);
+        assertTrue(limiter.acquire());
+    }
+}
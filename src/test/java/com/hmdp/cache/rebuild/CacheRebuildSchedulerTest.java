@@ -0,0 +1,116 @@
+package com.hmdp.cache.rebuild;
+
+import com.hmdp.cache.config.CacheClientProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CacheRebuildSchedulerTest {
+
+    private CacheRebuildScheduler scheduler;
+    // 阻塞唯一的重建线程，使后续任务先在队列中排好
+    private CountDownLatch blockerStarted;
+    private CountDownLatch blockerRelease;
+
+    @BeforeEach
+    void setUp() throws InterruptedException {
+        CacheClientProperties.Rebuild config = new CacheClientProperties.Rebuild();
+        config.setWorkers(1);
+        config.setQueueCapacity(4);
+        config.setMaxBatchSize(10);
+        scheduler = new CacheRebuildScheduler(config);
+
+        blockerStarted = new CountDownLatch(1);
+        blockerRelease = new CountDownLatch(1);
+        assertTrue(scheduler.submit("blocker", "blocker", "blocker", 0, payloads -> {
+            blockerStarted.countDown();
+            await(blockerRelease);
+        }, () -> { }));
+        assertTrue(blockerStarted.await(5, TimeUnit.SECONDS));
+    }
+
+    @AfterEach
+    void tearDown() {
+        blockerRelease.countDown();
+        scheduler.shutdown();
+    }
+
+    @Test
+    void testPriorityAndGroupMerge() throws InterruptedException {
+        List<List<String>> batches = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch done = new CountDownLatch(3);
+        assertTrue(scheduler.submit("shop", "cache:shop:1", "shop1", 1, batches::add, done::countDown));
+        assertTrue(scheduler.submit("blog", "cache:blog:1", "blog1", 5, batches::add, done::countDown));
+        assertTrue(scheduler.submit("shop", "cache:shop:2", "shop2", 1, batches::add, done::countDown));
+
+        blockerRelease.countDown();
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        // 优先级高的先重建，同一分组合并为一批且保持先进先出
+        assertEquals(Arrays.asList(
+                Collections.singletonList("blog1"),
+                Arrays.asList("shop1", "shop2")), batches);
+        assertEquals(0, scheduler.pendingSize());
+    }
+
+    @Test
+    void testDuplicateKeyRejected() throws InterruptedException {
+        AtomicInteger rebuilt = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(1);
+        assertTrue(scheduler.submit("shop", "cache:shop:1", "shop1", 1,
+                payloads -> rebuilt.addAndGet(payloads.size()), done::countDown));
+        assertFalse(scheduler.submit("shop", "cache:shop:1", "shop1", 9,
+                payloads -> rebuilt.addAndGet(payloads.size()), done::countDown));
+        // 正在重建的Key同样去重
+        assertFalse(scheduler.submit("blocker", "blocker", "blocker", 0, payloads -> { }, () -> { }));
+
+        blockerRelease.countDown();
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(1, rebuilt.get());
+        assertEquals(0, scheduler.getShedCount());
+    }
+
+    @Test
+    void testShedWhenFull() {
+        // 容量为4，阻塞任务占用1个
+        for (int i = 1; i <= 3; i++) {
+            assertTrue(scheduler.submit("shop", "cache:shop:" + i, "shop" + i, 1, payloads -> { }, () -> { }));
+        }
+        assertFalse(scheduler.submit("shop", "cache:shop:4", "shop4", 1, payloads -> { }, () -> { }));
+        assertEquals(1, scheduler.getShedCount());
+        assertEquals(4, scheduler.pendingSize());
+    }
+
+    @Test
+    void testOnDoneAfterFailure() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(2);
+        assertTrue(scheduler.submit("shop", "cache:shop:1", "shop1", 1, payloads -> {
+            throw new IllegalStateException("数据库异常");
+        }, done::countDown));
+        assertTrue(scheduler.submit("shop", "cache:shop:2", "shop2", 1, payloads -> {
+            throw new IllegalStateException("数据库异常");
+        }, done::countDown));
+
+        blockerRelease.countDown();
+        // 重建失败也要回调onDone（释放锁），并清理排队记录
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(0, scheduler.pendingSize());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.hmdp.cache.ttl;
+
+import com.hmdp.cache.config.CacheClientProperties;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TtlJitterTest {
+
+    private TtlJitter jitter(boolean enabled) {
+        CacheClientProperties.Jitter config = new CacheClientProperties.Jitter();
+        config.setEnabled(enabled);
+        config.setDefaultRatio(0.1);
+        config.getPrefixRatios().put("cache:", 0.5);
+        config.getPrefixRatios().put("cache:shop:", 0.0);
+        return new TtlJitter(config);
+    }
+
+    @Test
+    void testDisabled() {
+        TtlJitter jitter = jitter(false);
+        assertEquals(60000, jitter.apply("login:token:1", 60000));
+        LocalDateTime expireTime = LocalDateTime.now().plusMinutes(1);
+        assertEquals(expireTime, jitter.apply("login:token:1", expireTime));
+    }
+
+    @Test
+    void testDefaultRatioRange() {
+        TtlJitter jitter = jitter(true);
+        boolean jittered = false;
+        for (int i = 0; i < 1000; i++) {
+            long ttl = jitter.apply("login:token:1", 60000);
+            assertTrue(ttl >= 60000 && ttl <= 66000, String.valueOf(ttl));
+            jittered |= ttl != 60000;
+        }
+        assertTrue(jittered);
+    }
+
+    @Test
+    void testLongestPrefix() {
+        TtlJitter jitter = jitter(true);
+        // cache:shop: 的比例为0，优先于 cache:
+        for (int i = 0; i < 100; i++) {
+            assertEquals(60000, jitter.apply("cache:shop:1", 60000));
+            long ttl = jitter.apply("cache:blog:1", 60000);
+            assertTrue(ttl >= 60000 && ttl <= 90000, String.valueOf(ttl));
+        }
+    }
+
+    @Test
+    void testNonPositiveTtl() {
+        TtlJitter jitter = jitter(true);
+        assertEquals(0, jitter.apply("login:token:1", 0));
+        assertEquals(-1, jitter.apply("login:token:1", -1));
+    }
+
+    @Test
+    void testDuration() {
+        Duration ttl = jitter(true).apply("login:token:1", Duration.ofSeconds(60));
+        assertTrue(ttl.compareTo(Duration.ofSeconds(60)) >= 0 && ttl.compareTo(Duration.ofSeconds(66)) <= 0);
+    }
+
+    @Test
+    void testLogicalExpireTime() {
+        TtlJitter jitter = jitter(true);
+        assertNull(jitter.apply("login:token:1", (LocalDateTime) null));
+        // 已过期的不加抖动
+        LocalDateTime expired = LocalDateTime.now().minusSeconds(1);
+        assertEquals(expired, jitter.apply("login:token:1", expired));
+        // 按剩余时长（约60秒）加最多10%的抖动
+        LocalDateTime expireTime = LocalDateTime.now().plusSeconds(60);
+        LocalDateTime jittered = jitter.apply("login:token:1", expireTime);
+        assertFalse(jittered.isBefore(expireTime));
+        assertFalse(jittered.isAfter(expireTime.plusSeconds(6)));
+    }
+}